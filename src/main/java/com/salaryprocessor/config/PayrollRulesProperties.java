@@ -0,0 +1,120 @@
+package com.salaryprocessor.config;
+
+import com.salaryprocessor.model.PayrollRules;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Payroll rule sets declared under payroll.rules.{name}.*, one per business unit. Each property
+ * left out of a rule set takes the standard rule, so a rule set only lists what it changes.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "payroll")
+public class PayrollRulesProperties {
+
+    // Rule set of runs that do not name one
+    private String defaultRuleSet = "default";
+
+    private Map<String, RuleSet> rules = new LinkedHashMap<>();
+
+    public String getDefaultRuleSet() {
+        return defaultRuleSet;
+    }
+
+    public void setDefaultRuleSet(String defaultRuleSet) {
+        this.defaultRuleSet = defaultRuleSet;
+    }
+
+    public Map<String, RuleSet> getRules() {
+        return rules;
+    }
+
+    public void setRules(Map<String, RuleSet> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * One declared rule set. Its version is logged with the compiled rules, to tell which rules
+     * a run used.
+     */
+    public static class RuleSet {
+        private int version = 1;
+        private double hoursPerDay = PayrollRules.DEFAULT_HOURS_PER_DAY;
+        private int salaryDaysPerMonth = PayrollRules.DEFAULT_SALARY_DAYS_PER_MONTH;
+        private int forgivenLateMarks = PayrollRules.DEFAULT_FORGIVEN_LATE_MARKS;
+        // Sixths of a day's salary
+        private int lateMarkPenaltyParts = PayrollRules.DEFAULT_LATE_MARK_PENALTY_PARTS;
+        private int additionalLateMarkPenaltyParts = PayrollRules.DEFAULT_ADDITIONAL_LATE_MARK_PENALTY_PARTS;
+        // 0 means no limit
+        private int maxLateMarkPenaltyParts;
+        // Highest ratio of worked to expected hours paid, e.g. 1.0; 0 means no cap
+        private double maxCoefficient;
+
+        public int getVersion() {
+            return version;
+        }
+
+        public void setVersion(int version) {
+            this.version = version;
+        }
+
+        public double getHoursPerDay() {
+            return hoursPerDay;
+        }
+
+        public void setHoursPerDay(double hoursPerDay) {
+            this.hoursPerDay = hoursPerDay;
+        }
+
+        public int getSalaryDaysPerMonth() {
+            return salaryDaysPerMonth;
+        }
+
+        public void setSalaryDaysPerMonth(int salaryDaysPerMonth) {
+            this.salaryDaysPerMonth = salaryDaysPerMonth;
+        }
+
+        public int getForgivenLateMarks() {
+            return forgivenLateMarks;
+        }
+
+        public void setForgivenLateMarks(int forgivenLateMarks) {
+            this.forgivenLateMarks = forgivenLateMarks;
+        }
+
+        public int getLateMarkPenaltyParts() {
+            return lateMarkPenaltyParts;
+        }
+
+        public void setLateMarkPenaltyParts(int lateMarkPenaltyParts) {
+            this.lateMarkPenaltyParts = lateMarkPenaltyParts;
+        }
+
+        public int getAdditionalLateMarkPenaltyParts() {
+            return additionalLateMarkPenaltyParts;
+        }
+
+        public void setAdditionalLateMarkPenaltyParts(int additionalLateMarkPenaltyParts) {
+            this.additionalLateMarkPenaltyParts = additionalLateMarkPenaltyParts;
+        }
+
+        public int getMaxLateMarkPenaltyParts() {
+            return maxLateMarkPenaltyParts;
+        }
+
+        public void setMaxLateMarkPenaltyParts(int maxLateMarkPenaltyParts) {
+            this.maxLateMarkPenaltyParts = maxLateMarkPenaltyParts;
+        }
+
+        public double getMaxCoefficient() {
+            return maxCoefficient;
+        }
+
+        public void setMaxCoefficient(double maxCoefficient) {
+            this.maxCoefficient = maxCoefficient;
+        }
+    }
+}
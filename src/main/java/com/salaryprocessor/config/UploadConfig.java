@@ -0,0 +1,45 @@
+package com.salaryprocessor.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.servlet.MultipartConfigElement;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Configuration class for multipart uploads
+ * The servlet container writes upload bodies straight to the upload directory instead of
+ * holding them in memory, so attendance files are limited by the configured maximum sizes
+ * rather than heap
+ */
+@Configuration
+@EnableConfigurationProperties(MultipartProperties.class)
+public class UploadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadConfig.class);
+
+    @Value("${file.upload.dir:uploads}")
+    private String uploadDir;
+
+    /**
+     * Multipart settings from spring.servlet.multipart.*, with the location pinned to the upload
+     * directory. A relative location would otherwise resolve against the container's work directory.
+     */
+    @Bean
+    public MultipartConfigElement multipartConfigElement(MultipartProperties multipartProperties) throws IOException {
+        Path location = Paths.get(uploadDir).toAbsolutePath();
+        Files.createDirectories(location);
+        multipartProperties.setLocation(location.toString());
+        log.info("Multipart uploads are written to {} (max file size: {})", location,
+                multipartProperties.getMaxFileSize());
+        return multipartProperties.createMultipartConfig();
+    }
+}
@@ -2,42 +2,58 @@ package com.salaryprocessor.controller;
 
 import com.salaryprocessor.model.AttendanceRecord;
 import com.salaryprocessor.model.Employee;
+import com.salaryprocessor.model.PayrollContext;
 import com.salaryprocessor.model.SalaryResult;
+import com.salaryprocessor.model.ScenarioSweepResult;
+import com.salaryprocessor.service.AttendanceParseResult;
 import com.salaryprocessor.service.ContentfulService;
 import com.salaryprocessor.service.ExcelParserService;
+import com.salaryprocessor.service.MonthlyAttendance;
+import com.salaryprocessor.service.NoSalaryResultsException;
 import com.salaryprocessor.service.PDFGenerationService;
+import com.salaryprocessor.service.PayrollJob;
+import com.salaryprocessor.service.PayrollJobService;
+import com.salaryprocessor.service.PayrollRuleEngine;
+import com.salaryprocessor.service.PipelineProgress;
 import com.salaryprocessor.service.SalaryComputationService;
+import com.salaryprocessor.service.SalaryPipelineService;
+import com.salaryprocessor.service.SalaryRecomputationService;
+import com.salaryprocessor.service.SlipDownloadService;
 // import lombok.RequiredArgsConstructor; // Removed to use explicit constructor
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.ss.usermodel.CellType;
-import org.apache.poi.ss.usermodel.DateUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/salary")
@@ -57,8 +73,11 @@ public class SalaryProcessorController {
     @Autowired
     private ContentfulService contentfulService;
     
+    @Autowired
+    private PayrollRuleEngine payrollRuleEngine;
+    
     /**
-     * Set the total working days for salary calculation
+     * Set the default total working days, used by runs that do not pass their own totalDays
      * @param days The total working days to set
      * @return Current setting after update
      */
@@ -90,6 +109,17 @@ public class SalaryProcessorController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Get the payroll rule sets runs can choose with their ruleSet parameter
+     * @return Compiled rule sets by name
+     */
+    @GetMapping("/rule-sets")
+    public ResponseEntity<Map<String, Object>> getRuleSets() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("ruleSets", payrollRuleEngine.getRuleSets());
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Get all employees from Contentful
      * @return List of all employees
@@ -120,137 +150,68 @@ public class SalaryProcessorController {
     @PostMapping("/employees/refresh")
     public ResponseEntity<Map<String, Object>> refreshEmployeeData() {
         log.info("Refreshing employee data from Contentful");
-        contentfulService.refreshEmployeeData();
+        Set<String> changed = contentfulService.refreshEmployeeData();
+        Set<String> recomputed = salaryRecomputationService.recompute(changed);
         
         Map<String, Object> response = new HashMap<>();
         response.put("status", "success");
         response.put("message", "Employee data refreshed from Contentful");
         response.put("employeeCount", contentfulService.getAllEmployees().size());
+        response.put("changedEmployees", changed.size());
+        response.put("recomputedEmployees", recomputed);
         
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Get the hit/miss counters of the attendance parse cache
+     * @return Cache statistics
+     */
+    @GetMapping("/parse-cache")
+    public ResponseEntity<Map<String, Object>> getParseCacheStats() {
+        return ResponseEntity.ok(excelParserService.getParseCacheStats());
+    }
+    
     @Autowired
     private PDFGenerationService pdfGenerationService;
     
-    // Cache to store the last processed salary results for PDF generation
-    private Map<String, SalaryResult> lastProcessedResults = new HashMap<>();
+    @Autowired
+    private SalaryPipelineService salaryPipelineService;
     
-    /**
-     * Special method to detect and extract employee data in the format "2 : Manjiri Desai"
-     * @param file The Excel file to analyze
-     * @return Map of employee IDs to their attendance records
-     */
-    private Map<String, List<AttendanceRecord>> lookForColonPatternInExcel(MultipartFile file) throws Exception {
-        log.info("Looking for colon pattern in Excel file: {}", file.getOriginalFilename());
-        Map<String, List<AttendanceRecord>> result = new HashMap<>();
-        
-        try (Workbook workbook = WorkbookFactory.create(file.getInputStream())) {
-            // Use first sheet by default
-            Sheet sheet = workbook.getSheetAt(0);
-            log.info("Analyzing sheet {} with {} rows", sheet.getSheetName(), sheet.getPhysicalNumberOfRows());
-            
-            // Look through all rows for the pattern
-            for (int i = 0; i < sheet.getPhysicalNumberOfRows(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-                
-                // Try to find cells with the pattern "ID : Name"
-                for (int j = 0; j < row.getLastCellNum(); j++) {
-                    Cell cell = row.getCell(j);
-                    if (cell == null) continue;
-                    
-                    String cellValue = getCellValueAsString(cell);
-                    if (cellValue == null || cellValue.isEmpty()) continue;
-                    
-                    log.info("Row {}, Col {}: '{}'", i, j, cellValue);
-                    
-                    // Check for the pattern "ID : Name"
-                    if (cellValue.contains(":")) {
-                        log.info("Found colon pattern in cell: {}", cellValue);
-                        String[] parts = cellValue.split(":", 2);
-                        if (parts.length == 2) {
-                            String employeeId = parts[0].trim();
-                            String employeeName = parts[1].trim();
-                            log.info("Extracted Employee ID: '{}', Name: '{}'", employeeId, employeeName);
-                            
-                            // Create a default attendance record for this employee
-                            AttendanceRecord record = new AttendanceRecord();
-                            record.setEmployeeId(employeeId);
-                            record.setEmployeeName(employeeName);
-                            record.setDate(LocalDate.now()); // Default to today
-                            record.setStatus("P"); // Default to Present
-                            record.setHoursWorked(8.0); // Default to 8 hours
-                            
-                            // Try to find date in the same row
-                            for (int k = 0; k < row.getLastCellNum(); k++) {
-                                Cell dateCell = row.getCell(k);
-                                if (dateCell != null && dateCell.getCellType() == CellType.NUMERIC && 
-                                    DateUtil.isCellDateFormatted(dateCell)) {
-                                    Date date = dateCell.getDateCellValue();
-                                    record.setDate(date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
-                                    log.info("Found date: {}", record.getDate());
-                                }
-                            }
-                            
-                            // Add the record to the result map
-                            if (!result.containsKey(employeeId)) {
-                                result.put(employeeId, new ArrayList<>());
-                            }
-                            result.get(employeeId).add(record);
-                            log.info("Added record for employee ID: {}", employeeId);
-                        }
-                    }
-                }
-            }
-        }
-        
-        log.info("Found {} employees with the colon pattern", result.size());
-        return result;
-    }
+    @Autowired
+    private PayrollJobService payrollJobService;
+    
+    // Run the PDF endpoints as a parse -> compute -> render pipeline
+    @Value("${salary.pipeline.enabled:false}")
+    private boolean pipelineEnabled;
+    
+    // Write the slips of the PDF endpoints straight into the response instead of buffering the ZIP
+    @Value("${salary.streaming.enabled:false}")
+    private boolean streamingEnabled;
+    
+    @Autowired
+    private SlipDownloadService slipDownloadService;
+    
+    // Most scenarios a what-if sweep may combine
+    @Value("${salary.what-if.max-scenarios:64}")
+    private int maxWhatIfScenarios;
+    
+    // Keeps the last processed run for PDF generation and recomputation on employee changes
+    @Autowired
+    private SalaryRecomputationService salaryRecomputationService;
     
-    /**
-     * Helper method to get cell value as string regardless of type
-     */
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return "";
-        }
-        
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                }
-                return String.valueOf(cell.getNumericCellValue());
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                try {
-                    return cell.getStringCellValue();
-                } catch (Exception e) {
-                    try {
-                        return String.valueOf(cell.getNumericCellValue());
-                    } catch (Exception ex) {
-                        return "#FORMULA_ERROR#";
-                    }
-                }
-            default:
-                return "";
-        }
-    }
-
     /**
      * Process an Excel file and return salary computation results
      * @param file The Excel file with attendance data
+     * @param totalDays Total working days for this run; defaults to the /set-total-days setting
+     * @param ruleSet Payroll rule set for this run, as listed by /rule-sets; defaults to the configured one
      * @return JSON with salary computation results
      */
     @PostMapping("/process")
     public ResponseEntity<List<SalaryResult>> processSalary(
         @RequestParam("file") MultipartFile file,
-        @RequestParam(value = "totalDays", required = false, defaultValue = "30") int totalDays) {
+        @RequestParam(value = "totalDays", required = false) Integer totalDays,
+        @RequestParam(value = "ruleSet", required = false) String ruleSet) {
         try {
             log.info("Processing salary data from file: {}, size: {} bytes, content type: {}", 
                 file.getOriginalFilename(), file.getSize(), file.getContentType());
@@ -268,50 +229,35 @@ public class SalaryProcessorController {
             
             log.info("File details - name: {}, originalFilename: {}, contentType: {}, size: {}", 
                 file.getName(), file.getOriginalFilename(), file.getContentType(), file.getSize());
-            Map<String, List<AttendanceRecord>> attendanceRecords = excelParserService.parseExcel(file);
+            // Single pass over the upload with the "Employee:" summary and "ID : Name" strategies
+            AttendanceParseResult parseResult = excelParserService.parseAttendance(file);
+            Map<String, MonthlyAttendance> attendance = parseResult.getAttendance();
             
-            log.info("Parsed attendance records: {} employees, {} total records", 
-                attendanceRecords.size(), 
-                attendanceRecords.values().stream().mapToInt(List::size).sum());
+            log.info("Parsed attendance records with strategy {}: {} employees, {} total days", 
+                parseResult.getStrategy(),
+                attendance.size(), 
+                attendance.values().stream().mapToInt(MonthlyAttendance::getRecordedDayCount).sum());
             
-            log.info("Employee IDs found in Excel: {}", attendanceRecords.keySet());
+            log.info("Employee IDs found in Excel: {}", attendance.keySet());
             
-            if (attendanceRecords.isEmpty()) {
-                log.error("Excel parsing failed. No attendance records found in the file.");
-                log.error("Attempting special pattern detection for employee format like '2 : Manjiri Desai'");
-                
-                // Special handling for files with specific patterns
-                try {
-                    // Try to extract records with patterns like "2 : Manjiri Desai"
-                    attendanceRecords = lookForColonPatternInExcel(file);
-                    
-                    if (!attendanceRecords.isEmpty()) {
-                        log.info("Found {} employees using special colon pattern detection", attendanceRecords.size());
-                    } else {
-                        log.error("Special pattern detection also failed");
-                        SalaryResult errorResult = new SalaryResult();
-                        errorResult.setEmployeeId("ERROR");
-                        errorResult.setEmployeeName("No valid attendance records found in the Excel file.");
-                        return ResponseEntity.ok(Collections.singletonList(errorResult));
-                    }
-                } catch (Exception e) {
-                    log.error("Error in special pattern detection", e);
-                    SalaryResult errorResult = new SalaryResult();
-                    errorResult.setEmployeeId("ERROR");
-                    errorResult.setEmployeeName("No valid attendance records found in the Excel file.");
-                    return ResponseEntity.ok(Collections.singletonList(errorResult));
-                }
+            if (attendance.isEmpty()) {
+                log.error("Excel parsing failed. No attendance records found in the file with any strategy.");
+                SalaryResult errorResult = new SalaryResult();
+                errorResult.setEmployeeId("ERROR");
+                errorResult.setEmployeeName("No valid attendance records found in the Excel file.");
+                return ResponseEntity.ok(Collections.singletonList(errorResult));
+            }
+            
+            if (AttendanceParseResult.COLON_STRATEGY.equals(parseResult.getStrategy())) {
+                log.info("Found {} employees using special colon pattern detection", attendance.size());
             }
             
-            List<SalaryResult> results = salaryComputationService.computeSalaries(attendanceRecords);
+            PayrollContext context = salaryComputationService.createContext(totalDays, ruleSet);
+            List<SalaryResult> results = salaryComputationService.computeMonthlySalaries(attendance, context);
             log.info("Computed salary results: {} records", results.size());
             
-            // Store results in cache for PDF generation
-            lastProcessedResults.clear(); // Clear previous results
-            for (SalaryResult result : results) {
-                lastProcessedResults.put(result.getEmployeeId(), result);
-                log.info("Cached salary result for employee ID: {}", result.getEmployeeId());
-            }
+            // Keep the run for PDF generation and for recomputing employees that change in Contentful
+            salaryRecomputationService.recordRun(attendance, context, results);
             
             if (results.isEmpty()) {
                 log.warn("No salary results generated! This could indicate an issue with employee ID mapping or attendance data format");
@@ -323,6 +269,9 @@ public class SalaryProcessorController {
             }
             
             return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid salary processing request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error processing salary data", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -332,55 +281,143 @@ public class SalaryProcessorController {
     /**
      * Generate PDF salary slips and return as a ZIP file
      * @param file The Excel file with attendance data
+     * @param totalDays Total working days for this run; defaults to the /set-total-days setting
+     * @param ruleSet Payroll rule set for this run, as listed by /rule-sets; defaults to the configured one
      * @return ZIP file with PDF salary slips
      */
     @PostMapping("/generate-pdf")
-    public ResponseEntity<byte[]> generatePDFs(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<StreamingResponseBody> generatePDFs(
+        @RequestParam("file") MultipartFile file,
+        @RequestParam(value = "totalDays", required = false) Integer totalDays,
+        @RequestParam(value = "ruleSet", required = false) String ruleSet) {
         try {
             log.info("Generating PDF salary slips from file: {}", file.getOriginalFilename());
             
-            // Parse the Excel file
-            Map<String, List<AttendanceRecord>> attendanceRecords = excelParserService.parseExcel(file);
-            
-            // Compute salaries
-            List<SalaryResult> results = salaryComputationService.computeSalaries(attendanceRecords);
-            
-            // Generate PDFs
-            byte[] zipData = pdfGenerationService.generateSalarySlipsZip(results);
-            
+            PayrollContext context = salaryComputationService.createContext(totalDays, ruleSet);
             String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
             String filename = "salary_slips_" + timestamp + ".zip";
             
+            if (streamingEnabled) {
+                // The slips are rendered into the response as it is sent, so its length is not known up front
+                return ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .body(streamSalarySlips(file, context));
+            }
+            
+            byte[] zipData;
+            if (pipelineEnabled) {
+                // Parse, compute and render at the same time, connected by bounded queues
+                ByteArrayOutputStream zipOut = new ByteArrayOutputStream();
+                salaryPipelineService.run(file, context, zipOut);
+                zipData = zipOut.toByteArray();
+            } else {
+                // Parse the Excel file
+                Map<String, MonthlyAttendance> attendance = excelParserService.parseMonthlyAttendance(file);
+                
+                // Compute salaries
+                List<SalaryResult> results = salaryComputationService.computeMonthlySalaries(attendance, context);
+                
+                // Generate PDFs
+                zipData = pdfGenerationService.generateSalarySlipsZip(results);
+            }
+            
             return ResponseEntity.ok()
                     .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
                     .contentType(MediaType.APPLICATION_OCTET_STREAM)
                     .contentLength(zipData.length)
-                    .body(zipData);
+                    .body(out -> out.write(zipData));
                     
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid PDF generation request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (IOException e) {
             log.error("Error generating PDF salary slips", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    /**
+     * Generate the salary slips of all employees as one PDF, a page and a bookmark per employee,
+     * e.g. for a printed archive. The PDF is written into the response as it is sent.
+     * @param file The Excel file with attendance data
+     * @param totalDays Total working days for this run; defaults to the /set-total-days setting
+     * @param ruleSet Payroll rule set for this run, as listed by /rule-sets; defaults to the configured one
+     * @return PDF with every salary slip
+     */
+    @PostMapping("/generate-combined-pdf")
+    public ResponseEntity<StreamingResponseBody> generateCombinedPDF(
+        @RequestParam("file") MultipartFile file,
+        @RequestParam(value = "totalDays", required = false) Integer totalDays,
+        @RequestParam(value = "ruleSet", required = false) String ruleSet) {
+        try {
+            log.info("Generating combined PDF of salary slips from file: {}", file.getOriginalFilename());
+            
+            PayrollContext context = salaryComputationService.createContext(totalDays, ruleSet);
+            List<SalaryResult> results = computeSalaries(file, context);
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+            String filename = "salary_slips_" + timestamp + ".pdf";
+            
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .body(out -> writeSalarySlips(out, () -> pdfGenerationService.writeSalarySlipsPdf(results, out)));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid combined PDF generation request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error generating combined PDF of salary slips", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     /**
      * Process an Excel file and return both salary results and a ZIP of PDFs
      * @param file The Excel file with attendance data
-     * @return JSON with salary results and a Base64 encoded ZIP file
+     * @param totalDays Total working days for this run; defaults to the /set-total-days setting
+     * @param ruleSet Payroll rule set for this run, as listed by /rule-sets; defaults to the configured one
+     * @return JSON with salary results and a Base64 encoded ZIP file, or with streaming enabled a
+     * download ID and URL that stream the ZIP from /downloads/{downloadId}
      */
     @PostMapping("/process-with-pdf")
-    public ResponseEntity<Map<String, Object>> processSalaryWithPDF(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<Map<String, Object>> processSalaryWithPDF(
+        @RequestParam("file") MultipartFile file,
+        @RequestParam(value = "totalDays", required = false) Integer totalDays,
+        @RequestParam(value = "ruleSet", required = false) String ruleSet) {
         try {
             log.info("Processing salary data with PDF generation from file: {}", file.getOriginalFilename());
             
-            // Parse the Excel file
-            Map<String, List<AttendanceRecord>> attendanceRecords = excelParserService.parseExcel(file);
+            PayrollContext context = salaryComputationService.createContext(totalDays, ruleSet);
+            List<SalaryResult> results;
             
-            // Compute salaries
-            List<SalaryResult> results = salaryComputationService.computeSalaries(attendanceRecords);
+            if (streamingEnabled) {
+                // Only the salaries are kept; the slips are rendered when the ZIP is downloaded
+                results = computeSalaries(file, context);
+                String downloadId = slipDownloadService.register(results);
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("salaryResults", results);
+                response.put("downloadId", downloadId);
+                response.put("pdfZipUrl", ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/salary/downloads/{downloadId}").buildAndExpand(downloadId).toUriString());
+                return ResponseEntity.ok(response);
+            }
             
-            // Generate PDFs
-            byte[] zipData = pdfGenerationService.generateSalarySlipsZip(results);
+            byte[] zipData;
+            if (pipelineEnabled) {
+                // Parse, compute and render at the same time, connected by bounded queues
+                ByteArrayOutputStream zipOut = new ByteArrayOutputStream();
+                results = salaryPipelineService.run(file, context, zipOut);
+                zipData = zipOut.toByteArray();
+            } else {
+                // Parse the Excel file
+                Map<String, MonthlyAttendance> attendance = excelParserService.parseMonthlyAttendance(file);
+                
+                // Compute salaries
+                results = salaryComputationService.computeMonthlySalaries(attendance, context);
+                
+                // Generate PDFs
+                zipData = pdfGenerationService.generateSalarySlipsZip(results);
+            }
             
             // Return both the salary results and the PDF data
             return ResponseEntity.ok(Map.of(
@@ -388,12 +425,233 @@ public class SalaryProcessorController {
                     "pdfZipBase64", java.util.Base64.getEncoder().encodeToString(zipData)
             ));
             
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid salary processing request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error processing salary data with PDF generation", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    /**
+     * Compare payroll under several assumptions from one upload: every combination of the given
+     * working days, rule sets and hours per day is evaluated over the same parsed attendance
+     * @param file The Excel file with attendance data
+     * @param totalDays Total working days to try, e.g. 26,30; defaults to the /set-total-days setting
+     * @param ruleSet Payroll rule sets to try; defaults to the configured one
+     * @param hoursPerDay Standard hours per day to try; defaults to each rule set's
+     * @return Totals per scenario and each employee's final pay and delta from the first scenario
+     */
+    @PostMapping("/what-if")
+    public ResponseEntity<ScenarioSweepResult> sweepScenarios(
+        @RequestParam("file") MultipartFile file,
+        @RequestParam(value = "totalDays", required = false) List<Integer> totalDays,
+        @RequestParam(value = "ruleSet", required = false) List<String> ruleSet,
+        @RequestParam(value = "hoursPerDay", required = false) List<Double> hoursPerDay) {
+        try {
+            log.info("What-if sweep for file: {}, totalDays: {}, rule sets: {}, hours per day: {}",
+                file.getOriginalFilename(), totalDays, ruleSet, hoursPerDay);
+            
+            List<PayrollContext> scenarios = salaryComputationService.createScenarios(totalDays, ruleSet, hoursPerDay,
+                    maxWhatIfScenarios);
+            
+            // Parse once; every scenario is evaluated over the same attendance
+            Map<String, MonthlyAttendance> attendance = excelParserService.parseMonthlyAttendance(file);
+            return ResponseEntity.ok(salaryComputationService.sweepScenarios(attendance, scenarios));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid what-if sweep request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error running what-if sweep", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Download the ZIP of salary slips of a /process-with-pdf run made with streaming enabled.
+     * The slips are rendered into the response as it is sent.
+     * @param downloadId The download ID returned by /process-with-pdf
+     * @return ZIP file with PDF salary slips, or 404 if the download is unknown or has expired
+     */
+    @GetMapping("/downloads/{downloadId}")
+    public ResponseEntity<StreamingResponseBody> downloadSalarySlips(@PathVariable String downloadId) {
+        List<SalaryResult> results = slipDownloadService.getResults(downloadId);
+        if (results == null) {
+            log.warn("No slip download found with ID: {}", downloadId);
+            return ResponseEntity.notFound().build();
+        }
+        
+        String filename = "salary_slips_" + downloadId + ".zip";
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(out -> writeSalarySlips(out, () -> pdfGenerationService.writeSalarySlipsZip(results, out)));
+    }
+    
+    /**
+     * Response body that writes the ZIP of salary slips for an upload as it is sent. Without the
+     * pipeline the salaries are computed first, so an upload without employees is still rejected
+     * before the response starts; with it such an upload fails the response before any slip is written.
+     */
+    private StreamingResponseBody streamSalarySlips(MultipartFile file, PayrollContext context) throws IOException {
+        if (pipelineEnabled) {
+            // The body is written after this request method returns, so the upload is moved out of the request first
+            Path upload = excelParserService.spoolUpload(file);
+            return out -> {
+                try {
+                    writeSalarySlips(out, () -> salaryPipelineService.run(upload, context, out, new PipelineProgress()));
+                } finally {
+                    Files.deleteIfExists(upload);
+                }
+            };
+        }
+        List<SalaryResult> results = computeSalaries(file, context);
+        return out -> writeSalarySlips(out, () -> pdfGenerationService.writeSalarySlipsZip(results, out));
+    }
+    
+    /**
+     * Parse an upload and compute its salaries
+     * @throws NoSalaryResultsException if no salary could be computed
+     */
+    private List<SalaryResult> computeSalaries(MultipartFile file, PayrollContext context) {
+        Map<String, MonthlyAttendance> attendance = excelParserService.parseMonthlyAttendance(file);
+        List<SalaryResult> results = salaryComputationService.computeMonthlySalaries(attendance, context);
+        if (results.isEmpty()) {
+            throw new NoSalaryResultsException(file.getOriginalFilename());
+        }
+        return results;
+    }
+    
+    /**
+     * Run a slip writer for a streamed response. Once the response has started its status can no
+     * longer change, so a failure is logged and the client gets a truncated ZIP or PDF.
+     */
+    private void writeSalarySlips(OutputStream out, SlipWriter writer) throws IOException {
+        try {
+            writer.write();
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            log.error("Error streaming PDF salary slips", e);
+            throw e;
+        }
+    }
+    
+    @FunctionalInterface
+    private interface SlipWriter {
+        void write() throws IOException;
+    }
+    
+    /**
+     * Start a payroll run for an Excel file in the background and return its job ID at once.
+     * Poll /jobs/{jobId} for its progress and download the slips from /jobs/{jobId}/zip.
+     * @param file The Excel file with attendance data
+     * @param totalDays Total working days for this run; defaults to the /set-total-days setting
+     * @param ruleSet Payroll rule set for this run, as listed by /rule-sets; defaults to the configured one
+     * @return The job status, with HTTP 202, or 503 if too many jobs are queued
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<Map<String, Object>> submitPayrollJob(
+        @RequestParam("file") MultipartFile file,
+        @RequestParam(value = "totalDays", required = false) Integer totalDays,
+        @RequestParam(value = "ruleSet", required = false) String ruleSet) {
+        log.info("Submitting payroll job for file: {}, size: {} bytes", file.getOriginalFilename(), file.getSize());
+        
+        Map<String, Object> response = new HashMap<>();
+        if (file.isEmpty()) {
+            response.put("status", "error");
+            response.put("message", "The uploaded file is empty");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        try {
+            PayrollContext context = salaryComputationService.createContext(totalDays, ruleSet);
+            PayrollJob job = payrollJobService.submit(file, context);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobStatus(job));
+        } catch (IllegalArgumentException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (RejectedExecutionException e) {
+            log.warn("Payroll job queue is full, rejecting file: {}", file.getOriginalFilename());
+            response.put("status", "error");
+            response.put("message", "Too many payroll jobs are waiting, try again later");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        } catch (IOException e) {
+            log.error("Error submitting payroll job", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Get the status of a payroll job: employees parsed, computed and rendered so far, and the
+     * salary results once it has completed
+     * @param jobId The ID returned when the job was submitted
+     * @return The job status
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getPayrollJob(@PathVariable String jobId) {
+        PayrollJob job = payrollJobService.getJob(jobId);
+        if (job == null) {
+            log.warn("No payroll job found with ID: {}", jobId);
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(jobStatus(job));
+    }
+    
+    /**
+     * Download the ZIP of salary slips of a completed payroll job
+     * @param jobId The ID returned when the job was submitted
+     * @return ZIP file with PDF salary slips, or 409 if the job has not completed
+     */
+    @GetMapping("/jobs/{jobId}/zip")
+    public ResponseEntity<Resource> getPayrollJobZip(@PathVariable String jobId) {
+        PayrollJob job = payrollJobService.getJob(jobId);
+        if (job == null) {
+            log.warn("No payroll job found with ID: {}", jobId);
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getStatus() != PayrollJob.Status.COMPLETED) {
+            log.info("Payroll job {} has no ZIP yet, status: {}", jobId, job.getStatus());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        
+        File zipFile = job.getZipFile().toFile();
+        String filename = "salary_slips_" + jobId + ".zip";
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(zipFile.length())
+                .body(new FileSystemResource(zipFile));
+    }
+    
+    /**
+     * Status of a payroll job as returned by the job endpoints
+     */
+    private Map<String, Object> jobStatus(PayrollJob job) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("jobId", job.getId());
+        status.put("status", job.getStatus());
+        status.put("fileName", job.getFileName());
+        status.put("submittedAt", job.getSubmittedAt().toString());
+        if (job.getStartedAt() != null) {
+            status.put("startedAt", job.getStartedAt().toString());
+        }
+        if (job.getFinishedAt() != null) {
+            status.put("finishedAt", job.getFinishedAt().toString());
+        }
+        PipelineProgress progress = job.getProgress();
+        status.put("employeesParsed", progress.getParsed());
+        status.put("employeesComputed", progress.getComputed());
+        status.put("employeesRendered", progress.getRendered());
+        if (job.getStatus() == PayrollJob.Status.FAILED) {
+            status.put("error", job.getError());
+        } else if (job.getStatus() == PayrollJob.Status.COMPLETED) {
+            status.put("salaryResults", job.getResults());
+        }
+        return status;
+    }
+    
     /**
      * Generate a single PDF salary slip for a specific employee
      * @param employeeId The ID of the employee
@@ -404,25 +662,13 @@ public class SalaryProcessorController {
         try {
             log.info("Generating PDF salary slip for employee: {}", employeeId);
             
-            // Check if we have cached results for this employee
-            if (!lastProcessedResults.containsKey(employeeId)) {
+            // The slip is rendered from the latest run, or reused if the employee has not changed since
+            byte[] pdfData = salaryRecomputationService.getSalarySlip(employeeId);
+            if (pdfData == null) {
                 log.error("No salary results found for employee ID: {}. You must process salary data first.", employeeId);
                 return ResponseEntity.notFound().build();
             }
             
-            log.info("Found cached salary result for employee ID: {}", employeeId);
-            
-            // Get the salary result from cache
-            SalaryResult employeeResult = lastProcessedResults.get(employeeId);
-            
-            if (employeeResult == null) {
-                log.error("Failed to retrieve salary result for employee ID: {}", employeeId);
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-            }
-            
-            log.info("Generating PDF for employee: {} ({})", employeeResult.getEmployeeName(), employeeResult.getEmployeeId());
-            byte[] pdfData = pdfGenerationService.generateSalarySlip(employeeResult);
-            
             String filename = "Salary_Slip_" + employeeId + ".pdf";
             
             return ResponseEntity.ok()
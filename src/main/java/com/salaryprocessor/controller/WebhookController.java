@@ -1,6 +1,7 @@
 package com.salaryprocessor.controller;
 
 import com.salaryprocessor.service.ContentfulService;
+import com.salaryprocessor.service.SalaryRecomputationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +12,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Controller for handling webhooks from Contentful
@@ -24,6 +26,9 @@ public class WebhookController {
     @Autowired
     private ContentfulService contentfulService;
 
+    @Autowired
+    private SalaryRecomputationService salaryRecomputationService;
+
     @Value("${contentful.webhook.secret:default_webhook_secret}")
     private String webhookSecret;
 
@@ -65,10 +70,15 @@ public class WebhookController {
             
             // Refresh employee data from Contentful
             log.info("Refreshing employee data due to Contentful content change");
-            contentfulService.refreshEmployeeData();
+            Set<String> changed = contentfulService.refreshEmployeeData();
+            
+            // Recompute only the employees of the latest run whose data changed
+            Set<String> recomputed = salaryRecomputationService.recompute(changed);
             
             response.put("status", "success");
             response.put("message", "Employee data refreshed successfully");
+            response.put("changedEmployees", changed.size());
+            response.put("recomputedEmployees", recomputed);
         } else {
             response.put("status", "ignored");
             response.put("message", "Event not relevant for employee data refresh");
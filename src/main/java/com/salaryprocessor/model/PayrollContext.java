@@ -0,0 +1,91 @@
+package com.salaryprocessor.model;
+
+import java.time.YearMonth;
+
+/**
+ * Immutable parameters of one payroll run: the period, the working days it is computed against,
+ * and the compiled payroll rules of the run's business unit. A context is created per request and
+ * handed to the computation, so concurrent runs for different months never share mutable state.
+ */
+public final class PayrollContext {
+
+    private final YearMonth period;
+    private final int totalWorkingDays;
+    private final PayrollRules rules;
+
+    /**
+     * @param period The month being paid
+     * @param totalWorkingDays Working days the expected hours are based on
+     * @param rules Hours, salary days and late mark penalties of the run
+     */
+    public PayrollContext(YearMonth period, int totalWorkingDays, PayrollRules rules) {
+        if (totalWorkingDays < 1 || totalWorkingDays > 31) {
+            throw new IllegalArgumentException("Total working days must be between 1 and 31: " + totalWorkingDays);
+        }
+        this.period = period;
+        this.totalWorkingDays = totalWorkingDays;
+        this.rules = rules;
+    }
+
+    /**
+     * Context with the standard hours and penalty rules
+     * @param period The month being paid
+     * @param totalWorkingDays Working days the expected hours are based on
+     */
+    public static PayrollContext of(YearMonth period, int totalWorkingDays) {
+        return new PayrollContext(period, totalWorkingDays, PayrollRules.DEFAULT);
+    }
+
+    /**
+     * Copy of this context with other working days
+     */
+    public PayrollContext withTotalWorkingDays(int totalWorkingDays) {
+        return new PayrollContext(period, totalWorkingDays, rules);
+    }
+
+    /**
+     * Full month standard hours (total working days × hours per day)
+     */
+    public double getFullMonthHours() {
+        return totalWorkingDays * rules.getHoursPerDay();
+    }
+
+    /**
+     * Full month standard hours in hundredths, the unit attendance hours are kept in, for exact ratios
+     */
+    public long getFullMonthHundredths() {
+        return Math.round(totalWorkingDays * rules.getHoursPerDay() * 100);
+    }
+
+    /**
+     * Sixths of a day's salary deducted for the given number of late marks, from the compiled table
+     */
+    public int getLateMarkPenaltyParts(int lateMarks) {
+        return rules.getLateMarkPenaltyParts(lateMarks);
+    }
+
+    public YearMonth getPeriod() {
+        return period;
+    }
+
+    public int getTotalWorkingDays() {
+        return totalWorkingDays;
+    }
+
+    public PayrollRules getRules() {
+        return rules;
+    }
+
+    public double getHoursPerDay() {
+        return rules.getHoursPerDay();
+    }
+
+    public int getSalaryDaysPerMonth() {
+        return rules.getSalaryDaysPerMonth();
+    }
+
+    @Override
+    public String toString() {
+        return "PayrollContext{period=" + period + ", totalWorkingDays=" + totalWorkingDays + ", rules=" + rules + "}";
+    }
+}
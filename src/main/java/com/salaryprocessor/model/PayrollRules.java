@@ -0,0 +1,165 @@
+package com.salaryprocessor.model;
+
+/**
+ * A compiled set of payroll rules: standard hours, salary days and the late mark penalty ladder.
+ * The ladder is evaluated once, when the rules are created, into a table of the penalty for each
+ * possible number of late marks in a month, so the salary computation only does an array lookup.
+ * Instances are immutable and shared by every run that uses the same rule set.
+ */
+public final class PayrollRules {
+
+    // Late mark penalties are counted in sixths of a day, so half a day and a third of that are exact
+    public static final int PENALTY_PARTS_PER_DAY = 6;
+
+    // A month has at most 31 days and so at most 31 late marks
+    private static final int MAX_LATE_MARKS = 31;
+
+    // Coefficient of a rule set without a cap
+    public static final long NO_COEFFICIENT_CAP = Long.MAX_VALUE;
+
+    public static final double DEFAULT_HOURS_PER_DAY = 8.0;
+    public static final int DEFAULT_SALARY_DAYS_PER_MONTH = 30;
+    public static final int DEFAULT_FORGIVEN_LATE_MARKS = 2;
+    public static final int DEFAULT_LATE_MARK_PENALTY_PARTS = 3;
+    public static final int DEFAULT_ADDITIONAL_LATE_MARK_PENALTY_PARTS = 1;
+
+    /**
+     * The standard rules: two late marks are forgiven, the third costs half a day's salary and
+     * each one after that a third of that, with no cap on either
+     */
+    public static final PayrollRules DEFAULT = new PayrollRules("default", 1, DEFAULT_HOURS_PER_DAY,
+            DEFAULT_SALARY_DAYS_PER_MONTH, DEFAULT_FORGIVEN_LATE_MARKS, DEFAULT_LATE_MARK_PENALTY_PARTS,
+            DEFAULT_ADDITIONAL_LATE_MARK_PENALTY_PARTS, 0, NO_COEFFICIENT_CAP);
+
+    private final String name;
+    private final int version;
+    private final double hoursPerDay;
+    private final int salaryDaysPerMonth;
+    private final int forgivenLateMarks;
+    private final int lateMarkPenaltyParts;
+    private final int additionalLateMarkPenaltyParts;
+    private final int maxLateMarkPenaltyParts;
+    private final long maxCoefficient;
+
+    // Sixths of a day deducted for 0 to 31 late marks
+    private final int[] penaltyPartsByLateMarks = new int[MAX_LATE_MARKS + 1];
+
+    /**
+     * @param name Name of the rule set
+     * @param version Version of the rule set, to tell compiled versions apart
+     * @param hoursPerDay Standard working hours per day
+     * @param salaryDaysPerMonth Days the monthly salary is divided by to get the daily salary
+     * @param forgivenLateMarks Late marks that carry no penalty
+     * @param lateMarkPenaltyParts Sixths of a day's salary deducted for the first late mark past the forgiven ones
+     * @param additionalLateMarkPenaltyParts Sixths of a day's salary deducted for each late mark after that
+     * @param maxLateMarkPenaltyParts Most sixths of a day deducted in a month, or 0 for no limit
+     * @param maxCoefficient Highest coefficient paid, in millionths, or {@link #NO_COEFFICIENT_CAP}
+     */
+    public PayrollRules(String name, int version, double hoursPerDay, int salaryDaysPerMonth,
+                        int forgivenLateMarks, int lateMarkPenaltyParts, int additionalLateMarkPenaltyParts,
+                        int maxLateMarkPenaltyParts, long maxCoefficient) {
+        if (hoursPerDay <= 0 || salaryDaysPerMonth < 1) {
+            throw new IllegalArgumentException("Rule set " + name + " needs positive hours per day and salary days");
+        }
+        if (forgivenLateMarks < 0 || lateMarkPenaltyParts < 0 || additionalLateMarkPenaltyParts < 0
+                || maxLateMarkPenaltyParts < 0 || maxCoefficient <= 0) {
+            throw new IllegalArgumentException("Rule set " + name + " has a negative late mark rule or coefficient cap");
+        }
+        this.name = name;
+        this.version = version;
+        this.hoursPerDay = hoursPerDay;
+        this.salaryDaysPerMonth = salaryDaysPerMonth;
+        this.forgivenLateMarks = forgivenLateMarks;
+        this.lateMarkPenaltyParts = lateMarkPenaltyParts;
+        this.additionalLateMarkPenaltyParts = additionalLateMarkPenaltyParts;
+        this.maxLateMarkPenaltyParts = maxLateMarkPenaltyParts;
+        this.maxCoefficient = maxCoefficient;
+
+        for (int lateMarks = 0; lateMarks <= MAX_LATE_MARKS; lateMarks++) {
+            penaltyPartsByLateMarks[lateMarks] = evaluatePenaltyParts(lateMarks);
+        }
+    }
+
+    /**
+     * Copy of these rules with other standard hours per day
+     */
+    public PayrollRules withHoursPerDay(double hoursPerDay) {
+        return new PayrollRules(name, version, hoursPerDay, salaryDaysPerMonth, forgivenLateMarks,
+                lateMarkPenaltyParts, additionalLateMarkPenaltyParts, maxLateMarkPenaltyParts, maxCoefficient);
+    }
+
+    /**
+     * Sixths of a day's salary deducted for the given number of late marks
+     */
+    public int getLateMarkPenaltyParts(int lateMarks) {
+        if (lateMarks >= 0 && lateMarks <= MAX_LATE_MARKS) {
+            return penaltyPartsByLateMarks[lateMarks];
+        }
+        return evaluatePenaltyParts(lateMarks);
+    }
+
+    /**
+     * The penalty ladder itself, only run to fill the table
+     */
+    private int evaluatePenaltyParts(int lateMarks) {
+        int penalizedLateMarks = lateMarks - forgivenLateMarks;
+        if (penalizedLateMarks <= 0) {
+            return 0;
+        }
+        long parts = lateMarkPenaltyParts + (long) additionalLateMarkPenaltyParts * (penalizedLateMarks - 1);
+        if (maxLateMarkPenaltyParts > 0 && parts > maxLateMarkPenaltyParts) {
+            return maxLateMarkPenaltyParts;
+        }
+        return (int) Math.min(parts, Integer.MAX_VALUE);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public double getHoursPerDay() {
+        return hoursPerDay;
+    }
+
+    public int getSalaryDaysPerMonth() {
+        return salaryDaysPerMonth;
+    }
+
+    public int getForgivenLateMarks() {
+        return forgivenLateMarks;
+    }
+
+    public int getLateMarkPenaltyParts() {
+        return lateMarkPenaltyParts;
+    }
+
+    public int getAdditionalLateMarkPenaltyParts() {
+        return additionalLateMarkPenaltyParts;
+    }
+
+    public int getMaxLateMarkPenaltyParts() {
+        return maxLateMarkPenaltyParts;
+    }
+
+    /**
+     * Highest coefficient paid, in millionths; {@link #NO_COEFFICIENT_CAP} if overtime may pay
+     * more than the monthly salary
+     */
+    public long getMaxCoefficient() {
+        return maxCoefficient;
+    }
+
+    @Override
+    public String toString() {
+        return "PayrollRules{name=" + name + ", version=" + version + ", hoursPerDay=" + hoursPerDay
+                + ", salaryDaysPerMonth=" + salaryDaysPerMonth + ", forgivenLateMarks=" + forgivenLateMarks
+                + ", lateMarkPenaltyParts=" + lateMarkPenaltyParts
+                + ", additionalLateMarkPenaltyParts=" + additionalLateMarkPenaltyParts
+                + ", maxLateMarkPenaltyParts=" + maxLateMarkPenaltyParts
+                + ", maxCoefficient=" + (maxCoefficient == NO_COEFFICIENT_CAP ? "none" : maxCoefficient) + "}";
+    }
+}
@@ -1,5 +1,6 @@
 package com.salaryprocessor.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -20,6 +21,9 @@ public class SalaryResult {
     private double finalPayableSalary;
     private int lateMarks;
     private double lateMarkPenalty;
+    // Rule set the salary was computed with, for the late mark wording of the slip
+    @JsonIgnore
+    private PayrollRules rules;
     
     // Explicit getters and setters
     public String getEmployeeId() {
@@ -93,4 +97,15 @@ public class SalaryResult {
     public void setLateMarkPenalty(double lateMarkPenalty) {
         this.lateMarkPenalty = lateMarkPenalty;
     }
+    
+    /**
+     * Rule set the salary was computed with, or null if it is not known
+     */
+    public PayrollRules getRules() {
+        return rules;
+    }
+    
+    public void setRules(PayrollRules rules) {
+        this.rules = rules;
+    }
 }
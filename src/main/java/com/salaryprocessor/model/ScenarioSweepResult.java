@@ -0,0 +1,125 @@
+package com.salaryprocessor.model;
+
+import com.salaryprocessor.util.Money;
+
+import java.util.List;
+
+/**
+ * Payroll of one month under several scenarios: the totals of each scenario and each employee's
+ * final pay per scenario. The first scenario is the baseline that the deltas are taken against.
+ * Amounts are kept in paise and converted to rupees when read.
+ */
+public class ScenarioSweepResult {
+
+    private final List<ScenarioTotals> scenarios;
+    private final List<EmployeeOutcome> employees;
+
+    public ScenarioSweepResult(List<ScenarioTotals> scenarios, List<EmployeeOutcome> employees) {
+        this.scenarios = scenarios;
+        this.employees = employees;
+    }
+
+    public List<ScenarioTotals> getScenarios() {
+        return scenarios;
+    }
+
+    public int getEmployeeCount() {
+        return employees.size();
+    }
+
+    public List<EmployeeOutcome> getEmployees() {
+        return employees;
+    }
+
+    /**
+     * Parameters and payroll totals of one scenario
+     */
+    public static class ScenarioTotals {
+        private final PayrollContext context;
+        private final long grossPaise;
+        private final long penaltyPaise;
+        private final long finalPaise;
+        private final long baselineFinalPaise;
+
+        public ScenarioTotals(PayrollContext context, long grossPaise, long penaltyPaise, long finalPaise,
+                              long baselineFinalPaise) {
+            this.context = context;
+            this.grossPaise = grossPaise;
+            this.penaltyPaise = penaltyPaise;
+            this.finalPaise = finalPaise;
+            this.baselineFinalPaise = baselineFinalPaise;
+        }
+
+        public String getName() {
+            return context.getTotalWorkingDays() + " days, " + context.getRules().getName() + ", "
+                    + context.getHoursPerDay() + " h/day";
+        }
+
+        public int getTotalWorkingDays() {
+            return context.getTotalWorkingDays();
+        }
+
+        public String getRuleSet() {
+            return context.getRules().getName();
+        }
+
+        public double getHoursPerDay() {
+            return context.getHoursPerDay();
+        }
+
+        public double getGrossPay() {
+            return Money.toRupees(grossPaise);
+        }
+
+        public double getLateMarkPenalty() {
+            return Money.toRupees(penaltyPaise);
+        }
+
+        public double getFinalPayable() {
+            return Money.toRupees(finalPaise);
+        }
+
+        public double getDeltaFromBaseline() {
+            return Money.toRupees(finalPaise - baselineFinalPaise);
+        }
+    }
+
+    /**
+     * One employee's final pay in each scenario, in the order of the scenarios
+     */
+    public static class EmployeeOutcome {
+        private final String employeeId;
+        private final String employeeName;
+        private final long[] finalPaise;
+
+        public EmployeeOutcome(String employeeId, String employeeName, long[] finalPaise) {
+            this.employeeId = employeeId;
+            this.employeeName = employeeName;
+            this.finalPaise = finalPaise;
+        }
+
+        public String getEmployeeId() {
+            return employeeId;
+        }
+
+        public String getEmployeeName() {
+            return employeeName;
+        }
+
+        public double[] getFinalPayable() {
+            double[] rupees = new double[finalPaise.length];
+            for (int i = 0; i < finalPaise.length; i++) {
+                rupees[i] = Money.toRupees(finalPaise[i]);
+            }
+            return rupees;
+        }
+
+        public double[] getDeltaFromBaseline() {
+            double[] rupees = new double[finalPaise.length];
+            for (int i = 0; i < finalPaise.length; i++) {
+                rupees[i] = Money.toRupees(finalPaise[i] - finalPaise[0]);
+            }
+            return rupees;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.salaryprocessor.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parse results keyed by the SHA-256 of the uploaded bytes, so re-uploading the same attendance
+ * file (preview, then PDFs) skips the parse. Bounded by the estimated heap size of the cached
+ * attendance with least-recently-used eviction, and entries expire after a fixed time to live.
+ * Expired entries are dropped when they are looked up, and all of them whenever a result is
+ * cached or the stats are read, so they do not hold on to memory until size eviction reaches them.
+ * Shared by all requests, so access is synchronized.
+ */
+final class AttendanceParseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceParseCache.class);
+
+    // Rough heap cost of a map entry, and of a String besides its characters
+    private static final long ENTRY_OVERHEAD_BYTES = 40;
+    private static final long STRING_OVERHEAD_BYTES = 40;
+
+    private final Map<String, CachedResult> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxBytes;
+    private final long ttlNanos;
+
+    private long totalBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    /**
+     * @param maxBytes Estimated heap size the cached attendance may take up
+     * @param ttlNanos How long a result stays valid after it was parsed
+     */
+    AttendanceParseCache(long maxBytes, long ttlNanos) {
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttlNanos;
+    }
+
+    /**
+     * Get the cached result for an upload
+     * @param key Content hash of the upload
+     * @return The result, or null if it was never cached or has expired
+     */
+    synchronized AttendanceParseResult get(String key) {
+        CachedResult cached = entries.get(key);
+        if (cached != null && System.nanoTime() - cached.cachedAt > ttlNanos) {
+            remove(key, cached);
+            expirations++;
+            log.info("Cached parse result {} expired", key);
+            cached = null;
+        }
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        log.info("Parse cache hit for {} (hits={}, misses={})", key, hits, misses);
+        return cached.result;
+    }
+
+    /**
+     * Cache a parse result, dropping expired results and evicting the least recently used ones until it fits
+     * @param key Content hash of the upload
+     * @param result The result; its map is made read-only since callers share it
+     * @return The result as cached
+     */
+    synchronized AttendanceParseResult put(String key, AttendanceParseResult result) {
+        purgeExpired();
+        AttendanceParseResult readOnly = readOnly(result);
+        long bytes = estimateBytes(result.getAttendance());
+        if (bytes > maxBytes) {
+            log.info("Not caching parse result {}: ~{} bytes exceeds the cache size of {} bytes", key, bytes, maxBytes);
+            return readOnly;
+        }
+
+        CachedResult previous = entries.get(key);
+        if (previous != null) {
+            remove(key, previous);
+        }
+        entries.put(key, new CachedResult(readOnly, bytes, System.nanoTime()));
+        totalBytes += bytes;
+
+        Iterator<Map.Entry<String, CachedResult>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, CachedResult> entry = eldest.next();
+            totalBytes -= entry.getValue().bytes;
+            eldest.remove();
+            evictions++;
+            log.info("Evicted parse result {} to stay under {} bytes", entry.getKey(), maxBytes);
+        }
+        return readOnly;
+    }
+
+    /**
+     * Counters and size of the cache
+     */
+    synchronized Map<String, Object> getStats() {
+        purgeExpired();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("estimatedBytes", totalBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("expirations", expirations);
+        return stats;
+    }
+
+    /**
+     * Drop every expired result. Entries are kept in access order, so all of them are checked.
+     */
+    private void purgeExpired() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, CachedResult>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, CachedResult> entry = iterator.next();
+            if (now - entry.getValue().cachedAt > ttlNanos) {
+                totalBytes -= entry.getValue().bytes;
+                iterator.remove();
+                expirations++;
+                log.info("Cached parse result {} expired", entry.getKey());
+            }
+        }
+    }
+
+    private void remove(String key, CachedResult cached) {
+        entries.remove(key);
+        totalBytes -= cached.bytes;
+    }
+
+    /**
+     * MonthlyAttendance has no public mutators, so only the map needs wrapping
+     */
+    private static AttendanceParseResult readOnly(AttendanceParseResult result) {
+        return new AttendanceParseResult(Collections.unmodifiableMap(result.getAttendance()), result.getStrategy(),
+                result.getStrategyTimings(), result.getTotalTime());
+    }
+
+    private static long estimateBytes(Map<String, MonthlyAttendance> attendance) {
+        long bytes = 0;
+        for (MonthlyAttendance employeeAttendance : attendance.values()) {
+            bytes += ENTRY_OVERHEAD_BYTES + employeeAttendance.estimateBytes()
+                    + stringBytes(employeeAttendance.getEmployeeId()) + stringBytes(employeeAttendance.getEmployeeName());
+        }
+        return bytes;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + 2L * value.length();
+    }
+
+    private static class CachedResult {
+        private final AttendanceParseResult result;
+        private final long bytes;
+        private final long cachedAt;
+
+        CachedResult(AttendanceParseResult result, long bytes, long cachedAt) {
+            this.result = result;
+            this.bytes = bytes;
+            this.cachedAt = cachedAt;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.salaryprocessor.service;
+
+import com.salaryprocessor.model.AttendanceRecord;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of parsing an attendance upload: the attendance of each employee, the strategy that
+ * produced it and how long the read and each strategy took
+ */
+public class AttendanceParseResult {
+
+    public static final String SUMMARY_STRATEGY = "employee-summary";
+    public static final String COLON_STRATEGY = "colon-pattern";
+
+    private final Map<String, MonthlyAttendance> attendance;
+    private final String strategy;
+    private final Map<String, Duration> strategyTimings;
+    private final Duration totalTime;
+
+    AttendanceParseResult(Map<String, MonthlyAttendance> attendance, String strategy,
+                          Map<String, Duration> strategyTimings, Duration totalTime) {
+        this.attendance = attendance;
+        this.strategy = strategy;
+        this.strategyTimings = Collections.unmodifiableMap(strategyTimings);
+        this.totalTime = totalTime;
+    }
+
+    /**
+     * Compact attendance keyed by employee ID; empty if no strategy matched
+     */
+    public Map<String, MonthlyAttendance> getAttendance() {
+        return attendance;
+    }
+
+    /**
+     * Attendance records keyed by employee ID; empty if no strategy matched.
+     * The records are created from the compact attendance on each call.
+     */
+    public Map<String, List<AttendanceRecord>> getAttendanceRecords() {
+        Map<String, List<AttendanceRecord>> records = new LinkedHashMap<>();
+        for (Map.Entry<String, MonthlyAttendance> entry : attendance.entrySet()) {
+            records.put(entry.getKey(), entry.getValue().toRecords());
+        }
+        return records;
+    }
+
+    /**
+     * Name of the strategy the records came from, or null if none matched
+     */
+    public String getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Time spent in each strategy that ran, in the order they ran
+     */
+    public Map<String, Duration> getStrategyTimings() {
+        return strategyTimings;
+    }
+
+    /**
+     * Wall-clock time of the whole parse, including reading the file
+     */
+    public Duration getTotalTime() {
+        return totalTime;
+    }
+}
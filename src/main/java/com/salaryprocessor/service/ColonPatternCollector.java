@@ -0,0 +1,165 @@
+package com.salaryprocessor.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fallback strategy for rosters without "Employee:" summary rows: every cell of the first sheet
+ * in the format "2 : Manjiri Desai" becomes a default attendance day for that employee,
+ * dated by the last date cell in the same row. Time cells, which the readers render as a time on
+ * Excel's day 0, are neither dates nor names.
+ * <p>
+ * Each row is indexed in one pass: date cells and "ID : Name" cells both contain ':', so only
+ * those cells are examined, each of them once, and the row date is known before any record is
+ * recorded. The cost is linear in the number of cells even on wide day-by-day rosters.
+ */
+class ColonPatternCollector implements SheetRowHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ColonPatternCollector.class);
+
+    // Worked hours of a default attendance day in hundredths
+    private static final int DEFAULT_HUNDREDTHS = 8 * 100;
+
+    // Date of a time cell without a day, Excel's day 0
+    private static final LocalDate TIME_CELL_DATE = LocalDate.of(1899, 12, 31);
+
+    private final Map<String, MonthlyAttendance> attendance = new HashMap<>();
+
+    // Positions of the "ID : Name" cells of the current row
+    private int[] colonCells = new int[16];
+
+    // Index of the sheet currently being read; only the first sheet is searched
+    private int sheetIndex;
+
+    /**
+     * @param firstSheetIndex Index of the first sheet this collector will see
+     */
+    ColonPatternCollector(int firstSheetIndex) {
+        this.sheetIndex = firstSheetIndex;
+    }
+
+    @Override
+    public void acceptRow(int rowIndex, List<String> cellValues) {
+        if (sheetIndex != 0) {
+            return;
+        }
+
+        // Index the row: its date (the last date cell wins) and its "ID : Name" cells
+        LocalDate rowDate = null;
+        int colonCellCount = 0;
+        for (int j = 0; j < cellValues.size(); j++) {
+            String cellValue = cellValues.get(j);
+            if (cellValue == null || cellValue.indexOf(':') < 0) continue;
+
+            LocalDate date = parseDate(cellValue);
+            if (date != null) {
+                if (!date.equals(TIME_CELL_DATE)) {
+                    rowDate = date;
+                }
+            } else {
+                if (colonCellCount == colonCells.length) {
+                    colonCells = Arrays.copyOf(colonCells, colonCellCount * 2);
+                }
+                colonCells[colonCellCount++] = j;
+            }
+        }
+        if (colonCellCount == 0) {
+            return;
+        }
+        if (rowDate != null) {
+            log.debug("Found date {} in row {}", rowDate, rowIndex);
+        } else {
+            rowDate = LocalDate.now(); // Default to today
+        }
+
+        for (int c = 0; c < colonCellCount; c++) {
+            String cellValue = cellValues.get(colonCells[c]);
+            String[] parts = cellValue.split(":", 2);
+            String employeeId = parts[0].trim();
+            String employeeName = parts[1].trim();
+            log.debug("Row {}, Col {}: extracted Employee ID: '{}', Name: '{}'", rowIndex, colonCells[c], employeeId, employeeName);
+
+            // Record a default attendance day for this employee: Present, 8 hours
+            MonthlyAttendance employeeAttendance = attendance.get(employeeId);
+            if (employeeAttendance == null) {
+                employeeAttendance = new MonthlyAttendance(employeeId, employeeName, YearMonth.from(rowDate));
+                attendance.put(employeeId, employeeAttendance);
+            }
+            if (!employeeAttendance.setDay(rowDate, MonthlyAttendance.PRESENT, DEFAULT_HUNDREDTHS, false)) {
+                log.debug("Ignoring {} for employee {} outside {}", rowDate, employeeId, employeeAttendance.getPeriod());
+            }
+        }
+    }
+
+    @Override
+    public boolean needsRowText(int rowIndex) {
+        return sheetIndex == 0;
+    }
+
+    @Override
+    public void endSheet() {
+        if (sheetIndex == 0) {
+            log.info("Found {} employees with the colon pattern", attendance.size());
+        }
+        sheetIndex++;
+    }
+
+    /**
+     * Get the attendance collected so far, keyed by employee ID
+     */
+    Map<String, MonthlyAttendance> getAttendance() {
+        return attendance;
+    }
+
+    /**
+     * Add the attendance collected for another sheet; sheets must be merged in workbook order.
+     * Only the first sheet is searched, so an employee is never in both.
+     */
+    void merge(ColonPatternCollector partial) {
+        attendance.putAll(partial.getAttendance());
+    }
+
+    /**
+     * Read the value of a date cell, which the readers render as an ISO-8601 date-time
+     * @return The date, or null if the value is not a date
+     */
+    static LocalDate parseDate(String value) {
+        if (value == null || value.length() < 16 || value.charAt(4) != '-' || value.charAt(10) != 'T') {
+            return null;
+        }
+        try {
+            // Date cells are usually midnight, rendered as "yyyy-MM-ddTHH:mm"; skip the formatter for those
+            if (value.length() == 16 && value.charAt(7) == '-' && value.charAt(13) == ':'
+                    && digits(value, 11, 13) < 24 && digits(value, 14, 16) < 60) {
+                return LocalDate.of(digits(value, 0, 4), digits(value, 5, 7), digits(value, 8, 10));
+            }
+            return LocalDateTime.parse(value).toLocalDate();
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parse a fixed-width run of ASCII digits, or return Integer.MAX_VALUE if it has any other character
+     */
+    private static int digits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return Integer.MAX_VALUE;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
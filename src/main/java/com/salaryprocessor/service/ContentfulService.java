@@ -18,8 +18,10 @@ import javax.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 public class ContentfulService {
@@ -32,8 +34,14 @@ public class ContentfulService {
     private final String contentfulAccessToken;
     private final ObjectMapper objectMapper;
     
-    private List<Employee> employeeCache = new ArrayList<>();
-    private Map<String, Employee> employeeMapCache = new HashMap<>();
+    // Replaced as a whole on refresh and never modified once published, so readers on any thread
+    // see either the previous or the new employees, fully built
+    private volatile List<Employee> employeeCache = Collections.emptyList();
+    private volatile Map<String, Employee> employeeMapCache = Collections.emptyMap();
+    
+    // Held from taking the previous index to publishing the new one, so concurrent refreshes
+    // (webhook and /employees/refresh) each diff against the index the other published
+    private final Object refreshLock = new Object();
     
     @Autowired
     public ContentfulService(RestTemplate restTemplate, String contentfulBaseUrl, String contentfulAccessToken) {
@@ -58,8 +66,9 @@ public class ContentfulService {
      * @return List of Employee objects
      */
     public List<Employee> getAllEmployees() {
-        log.info("Getting all employees from cache. Cache size: {}", employeeCache.size());
-        return Collections.unmodifiableList(employeeCache);
+        List<Employee> employees = employeeCache;
+        log.info("Getting all employees from cache. Cache size: {}", employees.size());
+        return employees;
     }
     
     /**
@@ -87,12 +96,31 @@ public class ContentfulService {
         }
         return new HashMap<>(employeeMapCache);
     }
+
+    /**
+     * Get the cached employee index, without copying it. The map is read-only and is not changed
+     * by later refreshes, which publish a new one.
+     * @return Map of employee IDs to employees
+     */
+    public Map<String, Employee> getEmployeeIndex() {
+        return employeeMapCache;
+    }
     
     /**
-     * Refresh employee data from Contentful
+     * Refresh employee data from Contentful. If the fetch fails, the cached employees are kept;
+     * only a cache that has never been filled falls back to the default employees.
+     * @return IDs of the employees that were added, changed or removed by the refresh; empty if the
+     * fetch failed, so nothing is recomputed against fallback data
      */
-    public void refreshEmployeeData() {
+    public Set<String> refreshEmployeeData() {
+        synchronized (refreshLock) {
+            return refreshEmployeeDataLocked();
+        }
+    }
+    
+    private Set<String> refreshEmployeeDataLocked() {
         log.info("Refreshing employee data from Contentful");
+        Map<String, Employee> previous = employeeMapCache;
         
         try {
             // Set up HTTP headers with the Content Delivery API token
@@ -124,20 +152,43 @@ public class ContentfulService {
             }
             
             // Update cache
-            employeeCache = employees;
-            employeeMapCache = new HashMap<>();
-            for (Employee employee : employees) {
-                employeeMapCache.put(employee.getEmployeeId(), employee);
-            }
+            publish(employees);
             
             log.info("Updated employee cache with {} employees", employees.size());
             log.info("Employee IDs in cache: {}", employeeMapCache.keySet());
             
         } catch (Exception e) {
             log.error("Error fetching employees from Contentful: {}", e.getMessage(), e);
-            // Fall back to default employee data if we can't fetch from Contentful
-            createDefaultEmployeeData();
+            if (previous.isEmpty()) {
+                // Fall back to default employee data if we can't fetch from Contentful
+                createDefaultEmployeeData();
+            } else {
+                log.warn("Keeping the {} cached employees", previous.size());
+            }
+            return Collections.emptySet();
         }
+        
+        Set<String> changed = changedEmployeeIds(previous, employeeMapCache);
+        log.info("{} employees changed since the previous refresh", changed.size());
+        return changed;
+    }
+    
+    /**
+     * IDs of the employees whose entry differs between two versions of the employee index
+     */
+    private static Set<String> changedEmployeeIds(Map<String, Employee> previous, Map<String, Employee> current) {
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, Employee> entry : current.entrySet()) {
+            if (!entry.getValue().equals(previous.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String employeeId : previous.keySet()) {
+            if (!current.containsKey(employeeId)) {
+                changed.add(employeeId);
+            }
+        }
+        return changed;
     }
     
     /**
@@ -207,15 +258,23 @@ public class ContentfulService {
         defaultEmployees.add(emp2);
         
         // Update cache with default data
-        employeeCache = defaultEmployees;
-        employeeMapCache = new HashMap<>();
-        for (Employee employee : defaultEmployees) {
-            employeeMapCache.put(employee.getEmployeeId(), employee);
-        }
+        publish(defaultEmployees);
         
         log.info("Created default employee cache with {} employees", defaultEmployees.size());
     }
     
+    /**
+     * Build the index of the employees and only then publish both caches
+     */
+    private void publish(List<Employee> employees) {
+        Map<String, Employee> index = new HashMap<>();
+        for (Employee employee : employees) {
+            index.put(employee.getEmployeeId(), employee);
+        }
+        employeeCache = Collections.unmodifiableList(employees);
+        employeeMapCache = Collections.unmodifiableMap(index);
+    }
+    
     /**
      * Create a default employee with the given ID
      * Used as a fallback when an employee is not found in Contentful
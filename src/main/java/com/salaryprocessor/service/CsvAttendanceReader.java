@@ -0,0 +1,332 @@
+package com.salaryprocessor.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads CSV attendance exports through a memory-mapped view of the file, without POI.
+ * <p>
+ * The CSV is treated as a single-sheet workbook so the same strategies apply. Field boundaries
+ * are found directly in the mapped bytes, and a row is only decoded into Strings when it carries
+ * the "Employee:" label or the handler asks for its text; every other row is passed on empty
+ * without allocating anything. Decoded rows look like the same roster opened in Excel: empty
+ * fields are left out like blank cells, ISO dates ("2025-06-01") are rendered the way
+ * {@link WorkbookCellFormatter} renders a date cell ("2025-06-01T00:00"), and times of day
+ * ("09:00", "9:30:15") the way it renders a time cell ("1899-12-31T09:00", "1899-12-31T09:30:15"),
+ * so they are never mistaken for "ID : Name" cells.
+ * <p>
+ * Quoted fields (RFC 4180, including embedded commas, line breaks and doubled quotes) and a
+ * leading UTF-8 byte order mark are supported. Files larger than one mapping window are mapped
+ * window by window, each starting at a row boundary.
+ */
+class CsvAttendanceReader {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvAttendanceReader.class);
+
+    private static final byte[] EMPLOYEE_LABEL = "Employee:".getBytes(StandardCharsets.US_ASCII);
+    // Date part of a time cell, which Excel stores as a fraction of day 0
+    private static final byte[] TIME_CELL_DATE = "1899-12-31T".getBytes(StandardCharsets.US_ASCII);
+    private static final long MAX_WINDOW = 256L * 1024 * 1024;
+
+    /**
+     * Read every row of the file into the handler as a single sheet
+     * @param file The .csv file on disk
+     * @param handler Receives the rows in order
+     */
+    void read(File file, SheetRowHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            RowParser parser = new RowParser(handler);
+            long position = 0;
+            while (position < size) {
+                long windowSize = Math.min(MAX_WINDOW, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+                boolean lastWindow = position + windowSize == size;
+
+                int consumed = parser.parse(window, position == 0, lastWindow);
+                if (consumed == 0 && !lastWindow) {
+                    throw new IOException("CSV row longer than " + MAX_WINDOW + " bytes in " + file.getName());
+                }
+                position += consumed;
+            }
+            handler.endSheet();
+            log.info("Read {} CSV rows from {}", parser.rowIndex, file.getName());
+        }
+    }
+
+    /**
+     * Splits mapped bytes into rows and fields, keeping only offsets until a row's text is needed
+     */
+    private static class RowParser {
+
+        private final SheetRowHandler handler;
+        private final List<String> cellValues = new ArrayList<>();
+        private byte[] scratch = new byte[256];
+
+        // Field offsets of the current row within the window
+        private int[] fieldStarts = new int[16];
+        private int[] fieldEnds = new int[16];
+        private boolean[] fieldEscaped = new boolean[16];
+        private int fieldCount;
+
+        private int rowIndex;
+
+        RowParser(SheetRowHandler handler) {
+            this.handler = handler;
+        }
+
+        /**
+         * Parse the complete rows of a window
+         * @return Number of bytes consumed; an unterminated last row is left for the next window
+         */
+        int parse(MappedByteBuffer window, boolean fileStart, boolean lastWindow) throws IOException {
+            int limit = window.limit();
+            int p = 0;
+            if (fileStart && limit >= 3 && window.get(0) == (byte) 0xEF && window.get(1) == (byte) 0xBB
+                    && window.get(2) == (byte) 0xBF) {
+                p = 3;
+            }
+
+            while (p < limit) {
+                int rowStart = p;
+                int rowEnd = scanRow(window, p, limit);
+                if (rowEnd < 0 || (rowEnd == limit - 1 && window.get(rowEnd) == '\r')) {
+                    // Incomplete row, or a "\r\n" that may be split across windows
+                    if (!lastWindow) {
+                        return rowStart;
+                    }
+                    rowEnd = rowEnd < 0 ? limit : rowEnd;
+                }
+                dispatchRow(window);
+                p = skipLineBreak(window, rowEnd, limit);
+            }
+            return limit;
+        }
+
+        /**
+         * Record the field offsets of the row starting at {@code p}
+         * @return Offset of the row's line break (or of the window end when the file ends without one),
+         *         or -1 if the row continues past the end of the window
+         */
+        private int scanRow(MappedByteBuffer window, int p, int limit) throws IOException {
+            fieldCount = 0;
+            while (true) {
+                if (p < limit && window.get(p) == '"') {
+                    // Quoted field: runs to the next quote that is not doubled
+                    int start = p + 1;
+                    boolean escaped = false;
+                    int q = start;
+                    while (true) {
+                        if (q >= limit) {
+                            return -1;
+                        }
+                        if (window.get(q) == '"') {
+                            if (q + 1 < limit && window.get(q + 1) == '"') {
+                                escaped = true;
+                                q += 2;
+                                continue;
+                            }
+                            if (q + 1 >= limit) {
+                                // The closing quote may still be followed by a doubled quote in the next window
+                                addField(start, q, escaped);
+                                return -1;
+                            }
+                            break;
+                        }
+                        q++;
+                    }
+                    addField(start, q, escaped);
+                    p = q + 1;
+                    if (p < limit && window.get(p) != ',' && !isLineBreak(window.get(p))) {
+                        throw new IOException("Unexpected character after quoted field in CSV row " + rowIndex);
+                    }
+                } else {
+                    int start = p;
+                    while (p < limit && window.get(p) != ',' && !isLineBreak(window.get(p))) {
+                        p++;
+                    }
+                    addField(start, p, false);
+                }
+
+                if (p >= limit) {
+                    return -1;
+                }
+                if (isLineBreak(window.get(p))) {
+                    return p;
+                }
+                p++; // Skip the comma
+            }
+        }
+
+        private void addField(int start, int end, boolean escaped) {
+            if (fieldCount == fieldStarts.length) {
+                fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+                fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+                fieldEscaped = Arrays.copyOf(fieldEscaped, fieldCount * 2);
+            }
+            fieldStarts[fieldCount] = start;
+            fieldEnds[fieldCount] = end;
+            fieldEscaped[fieldCount] = escaped;
+            fieldCount++;
+        }
+
+        /**
+         * Hand the current row to the handler, decoding it only if its text is needed
+         */
+        private void dispatchRow(MappedByteBuffer window) {
+            int row = rowIndex++;
+            boolean blank = true;
+            boolean hasEmployeeLabel = false;
+            for (int f = 0; f < fieldCount; f++) {
+                if (fieldEnds[f] > fieldStarts[f]) {
+                    blank = false;
+                    hasEmployeeLabel |= containsEmployeeLabel(window, fieldStarts[f], fieldEnds[f]);
+                }
+            }
+            if (blank) {
+                // Like a row without cells, which the workbook readers never see
+                return;
+            }
+
+            if (!hasEmployeeLabel && !handler.needsRowText(row)) {
+                handler.acceptRow(row, Collections.emptyList());
+                return;
+            }
+
+            cellValues.clear();
+            for (int f = 0; f < fieldCount; f++) {
+                if (fieldEnds[f] > fieldStarts[f]) {
+                    cellValues.add(decodeField(window, fieldStarts[f], fieldEnds[f], fieldEscaped[f]));
+                }
+            }
+            handler.acceptRow(row, cellValues);
+        }
+
+        private String decodeField(MappedByteBuffer window, int start, int end, boolean escaped) {
+            if (scratch.length < end - start + TIME_CELL_DATE.length + 1) {
+                scratch = new byte[Math.max(scratch.length * 2, end - start + TIME_CELL_DATE.length + 1)];
+            }
+            int length = 0;
+            for (int i = start; i < end; i++) {
+                byte b = window.get(i);
+                scratch[length++] = b;
+                if (escaped && b == '"') {
+                    i++; // Doubled quote
+                }
+            }
+            if (isIsoDate(scratch, length)) {
+                // Render like a date cell: LocalDateTime.toString() of midnight
+                scratch[length++] = 'T';
+                scratch[length++] = '0';
+                scratch[length++] = '0';
+                scratch[length++] = ':';
+                scratch[length++] = '0';
+                scratch[length++] = '0';
+            } else if (isTimeOfDay(scratch, length)) {
+                length = renderTime(scratch, length);
+            }
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * "H:MM", "HH:MM", "H:MM:SS" or "HH:MM:SS" within a day
+         */
+        private static boolean isTimeOfDay(byte[] value, int length) {
+            int hourDigits = length == 4 || length == 7 ? 1 : 2;
+            if ((length != 3 + hourDigits && length != 6 + hourDigits) || value[hourDigits] != ':'
+                    || (length == 6 + hourDigits && value[hourDigits + 3] != ':')) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (i != hourDigits && i != hourDigits + 3 && (value[i] < '0' || value[i] > '9')) {
+                    return false;
+                }
+            }
+            int hour = hourDigits == 1 ? value[0] - '0' : (value[0] - '0') * 10 + (value[1] - '0');
+            int minute = (value[hourDigits + 1] - '0') * 10 + (value[hourDigits + 2] - '0');
+            int second = length == 3 + hourDigits ? 0 : (value[hourDigits + 4] - '0') * 10 + (value[hourDigits + 5] - '0');
+            return hour < 24 && minute < 60 && second < 60;
+        }
+
+        /**
+         * Rewrite a time of day in place as LocalDateTime.toString() of that time on Excel's day 0,
+         * which leaves out zero seconds
+         * @return The new length
+         */
+        private static int renderTime(byte[] value, int length) {
+            int hourDigits = length == 4 || length == 7 ? 1 : 2;
+            boolean seconds = length == 6 + hourDigits
+                    && (value[hourDigits + 4] != '0' || value[hourDigits + 5] != '0');
+            int timeLength = seconds ? 8 : 5;
+            // Right-align "HH:MM[:SS]" after the date, then write the date in front of it
+            int from = hourDigits + (seconds ? 5 : 2);
+            for (int i = timeLength - 1, j = from; i >= 2; i--, j--) {
+                value[TIME_CELL_DATE.length + i] = value[j];
+            }
+            value[TIME_CELL_DATE.length + 1] = hourDigits == 1 ? value[0] : value[1];
+            value[TIME_CELL_DATE.length] = hourDigits == 1 ? (byte) '0' : value[0];
+            System.arraycopy(TIME_CELL_DATE, 0, value, 0, TIME_CELL_DATE.length);
+            return TIME_CELL_DATE.length + timeLength;
+        }
+
+        private static boolean isIsoDate(byte[] value, int length) {
+            if (length != 10 || value[4] != '-' || value[7] != '-') {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (i != 4 && i != 7 && (value[i] < '0' || value[i] > '9')) {
+                    return false;
+                }
+            }
+            int month = (value[5] - '0') * 10 + (value[6] - '0');
+            int day = (value[8] - '0') * 10 + (value[9] - '0');
+            return month >= 1 && month <= 12 && day >= 1 && day <= 31;
+        }
+
+        /**
+         * "Employee:" has no comma, quote or line break, so it can only ever appear inside one field
+         */
+        private static boolean containsEmployeeLabel(MappedByteBuffer window, int start, int end) {
+            int last = end - EMPLOYEE_LABEL.length;
+            for (int i = start; i <= last; i++) {
+                // Anchor on the colon, the rarest byte of the label
+                if (window.get(i + EMPLOYEE_LABEL.length - 1) != ':') {
+                    continue;
+                }
+                int k = 0;
+                while (k < EMPLOYEE_LABEL.length - 1 && window.get(i + k) == EMPLOYEE_LABEL[k]) {
+                    k++;
+                }
+                if (k == EMPLOYEE_LABEL.length - 1) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static int skipLineBreak(MappedByteBuffer window, int p, int limit) {
+            if (p < limit && window.get(p) == '\r') {
+                p++;
+            }
+            if (p < limit && window.get(p) == '\n') {
+                p++;
+            }
+            return p;
+        }
+
+        private static boolean isLineBreak(byte b) {
+            return b == '\n' || b == '\r';
+        }
+    }
+}
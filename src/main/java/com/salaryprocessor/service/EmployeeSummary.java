@@ -0,0 +1,113 @@
+package com.salaryprocessor.service;
+
+import java.util.Objects;
+
+/**
+ * Values extracted from one "Employee:" summary row before they are turned into a MonthlyAttendance
+ */
+class EmployeeSummary {
+    private String employeeId;
+    private String employeeName;
+    private double totalWorkHours;
+    private double totalOTHours;
+    private int presentDays;
+    private int absentDays;
+    private int weeklyOffDays;
+    private double lateHours;
+    private int lateDays;
+
+    String getEmployeeId() {
+        return employeeId;
+    }
+
+    void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    String getEmployeeName() {
+        return employeeName;
+    }
+
+    void setEmployeeName(String employeeName) {
+        this.employeeName = employeeName;
+    }
+
+    double getTotalWorkHours() {
+        return totalWorkHours;
+    }
+
+    void setTotalWorkHours(double totalWorkHours) {
+        this.totalWorkHours = totalWorkHours;
+    }
+
+    double getTotalOTHours() {
+        return totalOTHours;
+    }
+
+    void setTotalOTHours(double totalOTHours) {
+        this.totalOTHours = totalOTHours;
+    }
+
+    int getPresentDays() {
+        return presentDays;
+    }
+
+    void setPresentDays(int presentDays) {
+        this.presentDays = presentDays;
+    }
+
+    int getAbsentDays() {
+        return absentDays;
+    }
+
+    void setAbsentDays(int absentDays) {
+        this.absentDays = absentDays;
+    }
+
+    int getWeeklyOffDays() {
+        return weeklyOffDays;
+    }
+
+    void setWeeklyOffDays(int weeklyOffDays) {
+        this.weeklyOffDays = weeklyOffDays;
+    }
+
+    double getLateHours() {
+        return lateHours;
+    }
+
+    void setLateHours(double lateHours) {
+        this.lateHours = lateHours;
+    }
+
+    int getLateDays() {
+        return lateDays;
+    }
+
+    void setLateDays(int lateDays) {
+        this.lateDays = lateDays;
+    }
+
+    /**
+     * Field-by-field comparison, used to check the scanner against the legacy patterns
+     */
+    boolean sameAs(EmployeeSummary other) {
+        return other != null
+                && Objects.equals(employeeId, other.employeeId)
+                && Objects.equals(employeeName, other.employeeName)
+                && Double.compare(totalWorkHours, other.totalWorkHours) == 0
+                && Double.compare(totalOTHours, other.totalOTHours) == 0
+                && presentDays == other.presentDays
+                && absentDays == other.absentDays
+                && weeklyOffDays == other.weeklyOffDays
+                && Double.compare(lateHours, other.lateHours) == 0
+                && lateDays == other.lateDays;
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeSummary{id=" + employeeId + ", name='" + employeeName + "', workHours=" + totalWorkHours
+                + ", ot=" + totalOTHours + ", present=" + presentDays + ", absent=" + absentDays
+                + ", weeklyOff=" + weeklyOffDays + ", lateHours=" + lateHours + ", lateDays=" + lateDays + "}";
+    }
+}
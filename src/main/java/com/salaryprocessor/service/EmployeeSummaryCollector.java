@@ -0,0 +1,270 @@
+package com.salaryprocessor.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Collects employee summary records from a forward-only stream of sheet rows.
+ * <p>
+ * The metrics of an "Employee:" row may continue on the following row, so an employee row
+ * is held back until the next row arrives (or the sheet ends) before it is extracted. This
+ * lets the in-memory workbook path and the streaming readers share the same extraction rules.
+ * <p>
+ * When a plan cache is given, the employee blocks in the first rows of each sheet, counted from
+ * its first "Employee:" row so a report header does not use them up, are fingerprinted and the
+ * remaining rows are read with the cached {@link ExtractionPlan} for that layout, falling back to
+ * the generic scan for any row the plan does not fit.
+ * <p>
+ * A listener can be given to receive each employee as soon as its summary is extracted, for
+ * runs that compute and render while the file is still being read.
+ */
+class EmployeeSummaryCollector implements SheetRowHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeSummaryCollector.class);
+
+    private static final String EMPLOYEE_LABEL = "Employee:";
+
+    private final Map<String, MonthlyAttendance> attendance = new HashMap<>();
+
+    // Shared layout plans, or null to always use the generic scan
+    private final ExtractionPlanCache planCache;
+    private final int fingerprintRows;
+
+    // Receives each employee as it is extracted, or null
+    private Consumer<MonthlyAttendance> listener;
+
+    // Employee row waiting for the row that follows it
+    private int pendingRowIndex = -1;
+    private List<String> pendingRowCells;
+
+    // Layout of the current sheet, sampled from the employee blocks in its first rows
+    private int firstEmployeeRow = -1;
+    private LayoutFingerprint sheetFingerprint;
+    private boolean mixedLayout;
+    private boolean layoutResolved;
+    private ExtractionPlan plan;
+    private int plannedRows;
+
+    EmployeeSummaryCollector() {
+        this(null, 0);
+    }
+
+    /**
+     * @param planCache Cache of extraction plans by layout, or null to disable plans
+     * @param fingerprintRows Number of rows from the first employee row of each sheet used to fingerprint its layout
+     */
+    EmployeeSummaryCollector(ExtractionPlanCache planCache, int fingerprintRows) {
+        this.planCache = planCache;
+        this.fingerprintRows = fingerprintRows;
+    }
+
+    /**
+     * Pass each extracted employee to the listener as well, in extraction order
+     */
+    void setListener(Consumer<MonthlyAttendance> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void acceptRow(int rowIndex, List<String> cellValues) {
+        if (pendingRowCells != null) {
+            // Only the physically adjacent row carries the continuation of the summary
+            flushPending(needsRowText(rowIndex) ? cellValues : null);
+        }
+
+        if (containsEmployeeLabel(cellValues)) {
+            pendingRowIndex = rowIndex;
+            pendingRowCells = new ArrayList<>(cellValues);
+        }
+    }
+
+    /**
+     * Only the row directly following an employee row is needed besides the "Employee:" rows
+     */
+    @Override
+    public boolean needsRowText(int rowIndex) {
+        return pendingRowCells != null && rowIndex == pendingRowIndex + 1;
+    }
+
+    /**
+     * Flush a trailing employee row so it is not lost
+     */
+    @Override
+    public void endSheet() {
+        if (pendingRowCells != null) {
+            flushPending(null);
+        }
+
+        if (planCache != null) {
+            // A short sheet still registers its layout for the next upload
+            if (!layoutResolved) {
+                resolveLayout();
+            }
+            if (plannedRows > 0) {
+                log.info("Read {} employee rows with the extraction plan for layout {}", plannedRows, sheetFingerprint);
+            }
+            firstEmployeeRow = -1;
+            sheetFingerprint = null;
+            mixedLayout = false;
+            layoutResolved = false;
+            plan = null;
+            plannedRows = 0;
+        }
+    }
+
+    /**
+     * Get the attendance collected so far, keyed by employee ID
+     */
+    Map<String, MonthlyAttendance> getAttendance() {
+        return attendance;
+    }
+
+    /**
+     * Merge the records collected for another sheet into this collector. Sheets must be merged in
+     * workbook order: as in a sequential parse, a later sheet replaces an employee seen earlier.
+     * @param partial Collector that processed a single sheet
+     * @param sheetName Name of that sheet, for logging
+     */
+    void merge(EmployeeSummaryCollector partial, String sheetName) {
+        for (Map.Entry<String, MonthlyAttendance> entry : partial.getAttendance().entrySet()) {
+            if (attendance.put(entry.getKey(), entry.getValue()) != null) {
+                log.warn("Employee ID {} appears in more than one sheet; using the entry from sheet {}",
+                        entry.getKey(), sheetName);
+            }
+        }
+    }
+
+    private void flushPending(List<String> nextRowCells) {
+        List<String> rowCells = pendingRowCells;
+        int rowIndex = pendingRowIndex;
+        pendingRowCells = null;
+        pendingRowIndex = -1;
+
+        if (planCache != null && !layoutResolved) {
+            if (firstEmployeeRow < 0) {
+                firstEmployeeRow = rowIndex;
+            }
+            if (rowIndex < firstEmployeeRow + fingerprintRows) {
+                sampleLayout(rowCells, nextRowCells);
+            } else {
+                resolveLayout();
+            }
+        }
+
+        MonthlyAttendance employeeAttendance = extractAttendance(rowCells, nextRowCells);
+        if (employeeAttendance != null) {
+            // Ensure each employee has only one entry in the map
+            attendance.put(employeeAttendance.getEmployeeId(), employeeAttendance);
+            if (listener != null) {
+                listener.accept(employeeAttendance);
+            }
+        }
+    }
+
+    /**
+     * Add one employee block to the layout fingerprint of the current sheet
+     */
+    private void sampleLayout(List<String> rowCells, List<String> nextRowCells) {
+        LayoutFingerprint fingerprint = LayoutFingerprint.of(rowCells, nextRowCells);
+        if (sheetFingerprint == null) {
+            sheetFingerprint = fingerprint;
+        } else if (!sheetFingerprint.equals(fingerprint)) {
+            mixedLayout = true;
+        }
+    }
+
+    /**
+     * Look up (or register) the plan for the sampled layout once the fingerprint rows are done
+     */
+    private void resolveLayout() {
+        layoutResolved = true;
+        if (sheetFingerprint == null || mixedLayout) {
+            log.debug("No uniform layout in the first {} rows; using the generic scan", fingerprintRows);
+            return;
+        }
+        plan = planCache.getOrCompile(sheetFingerprint);
+    }
+
+    /**
+     * Extract an employee's summary attendance from an "Employee:" row and the row that follows it
+     * @return The attendance, or null if the row was skipped or could not be parsed
+     */
+    private MonthlyAttendance extractAttendance(List<String> rowCells, List<String> nextRowCells) {
+        EmployeeSummary summary = plan != null ? plan.extract(rowCells, nextRowCells) : null;
+        SummaryText text = null;
+        if (summary != null) {
+            plannedRows++;
+        } else {
+            text = new SummaryText(rowCells, nextRowCells);
+            log.debug("Found Employee row: {}", text);
+            summary = SummaryRowScanner.scan(text);
+        }
+
+        if (summary == null) {
+            log.warn("Failed to extract employee data from row: {}", text);
+            return null;
+        }
+
+        String employeeName = summary.getEmployeeName();
+        log.info("Final extracted employee: ID={}, Name='{}'", summary.getEmployeeId(), employeeName);
+
+        // Skip test employee data
+        if (employeeName.toLowerCase().contains("test") || employeeName.equalsIgnoreCase("Employee")) {
+            log.info("Skipping test employee: {}", employeeName);
+            return null;
+        }
+
+        log.info("Employee metrics - ID: {}, Name: {}, Work Hours: {}, OT: {}, Present: {}, Absent: {}, WeeklyOff: {}, Late Hrs: {}, Late Days: {}",
+                summary.getEmployeeId(), employeeName, summary.getTotalWorkHours(), summary.getTotalOTHours(),
+                summary.getPresentDays(), summary.getAbsentDays(), summary.getWeeklyOffDays(),
+                summary.getLateHours(), summary.getLateDays());
+
+        // Create one attendance entry per employee
+        return createAttendance(summary);
+    }
+
+    /**
+     * Create the attendance of one employee from the extracted summary data: a single day with
+     * the month's work hours, plus the month totals
+     */
+    private MonthlyAttendance createAttendance(EmployeeSummary summary) {
+        LocalDate today = LocalDate.now(); // Current date as reference
+        MonthlyAttendance employeeAttendance = new MonthlyAttendance(summary.getEmployeeId(),
+                summary.getEmployeeName(), YearMonth.from(today));
+        // Present if there are present days
+        employeeAttendance.setDay(today,
+                summary.getPresentDays() > 0 ? MonthlyAttendance.PRESENT : MonthlyAttendance.ABSENT,
+                MonthlyAttendance.toHundredths(summary.getTotalWorkHours()), summary.getLateDays() > 0);
+        employeeAttendance.setSummary(MonthlyAttendance.toHundredths(summary.getTotalOTHours()),
+                summary.getPresentDays(), summary.getAbsentDays(), summary.getWeeklyOffDays(),
+                MonthlyAttendance.toHundredths(summary.getLateHours()), summary.getLateDays());
+        return employeeAttendance;
+    }
+
+    /**
+     * Check whether a single cell value carries the "Employee:" label
+     */
+    static boolean isEmployeeLabelCell(String value) {
+        return value != null && value.contains(EMPLOYEE_LABEL);
+    }
+
+    /**
+     * "Employee:" has no whitespace, so it can only ever appear inside a single cell
+     */
+    private boolean containsEmployeeLabel(List<String> cellValues) {
+        for (String value : cellValues) {
+            if (isEmployeeLabelCell(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,282 +1,462 @@
 package com.salaryprocessor.service;
 
 import com.salaryprocessor.model.AttendanceRecord;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.IOException;
-import java.io.InputStream;
-import java.time.LocalDate;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @Service
 public class ExcelParserService {
 
     private static final Logger log = LoggerFactory.getLogger(ExcelParserService.class);
 
-    // Pattern to match "Employee: 123:John Doe" format - capturing only the ID and name
-    private static final Pattern EMPLOYEE_PATTERN = Pattern.compile("Employee:\\s*(\\d+)\\s*:\\s*([^\\s].+?)(?=\\s+Total\\s+Work|$)");
-    
-    // Fallback pattern for direct matching
-    private static final Pattern FALLBACK_PATTERN = Pattern.compile("(\\d+)\\s*:\\s*([^\\s].+?)(?=\\s+Total\\s+Work|$)");
-    
-    // Ultra simple pattern if all else fails
-    private static final Pattern SIMPLE_PATTERN = Pattern.compile("Employee:\\s*([^:]+):([^T]+)");
-    
-    // Patterns for attendance metrics
-    private static final Pattern WORK_DURATION_PATTERN = Pattern.compile("Total Work Duration:\\s*([\\d:]+)\\s*Hrs");
-    private static final Pattern OT_PATTERN = Pattern.compile("Total OT:\\s*([\\d:]+)\\s*Hrs");
-    private static final Pattern PRESENT_PATTERN = Pattern.compile("Present:\\s*([\\d\\.]+)");
-    private static final Pattern ABSENT_PATTERN = Pattern.compile("Absent:\\s*([\\d\\.]+)");
-    private static final Pattern WEEKLY_OFF_PATTERN = Pattern.compile("WeeklyOff:\\s*([\\d\\.]+)");
-    private static final Pattern LATE_HRS_PATTERN = Pattern.compile("Late By Hrs:\\s*([\\d:]+)");
-    private static final Pattern LATE_DAYS_PATTERN = Pattern.compile("Late By Days:\\s*([\\d\\.]+)");
+    @Value("${excel.parser.xlsx-streaming:true}")
+    private boolean xlsxStreaming;
+
+    @Value("${excel.parser.xls-event-model:true}")
+    private boolean xlsEventModel;
+
+    @Value("${excel.parser.parallel-sheets:false}")
+    private boolean parallelSheets;
+
+    // 0 means one thread per available processor
+    @Value("${excel.parser.sheet-pool-size:0}")
+    private int sheetPoolSize;
+
+    private ExecutorService sheetExecutor;
+
+    @Value("${excel.parser.layout-plans:true}")
+    private boolean layoutPlans;
+
+    @Value("${excel.parser.plan-cache-size:32}")
+    private int planCacheSize;
+
+    @Value("${excel.parser.fingerprint-rows:10}")
+    private int fingerprintRows;
+
+    private ExtractionPlanCache planCache;
+
+    // Uploads are spooled here, next to the multipart location, so moving them is a rename
+    @Value("${file.upload.dir:uploads}")
+    private String uploadDir;
+
+    private Path uploadPath;
+
+    @Value("${excel.parser.result-cache:true}")
+    private boolean resultCache;
+
+    @Value("${excel.parser.result-cache-max-mb:64}")
+    private long resultCacheMaxMb;
+
+    @Value("${excel.parser.result-cache-ttl-minutes:30}")
+    private long resultCacheTtlMinutes;
+
+    private AttendanceParseCache parseCache;
+
+    /**
+     * Parses the rows of one sheet into the given handler
+     */
+    private interface SheetParser {
+        void parse(int sheetIndex, SheetRowHandler handler) throws IOException;
+    }
+
+    /**
+     * Create the upload directory, the bounded worker pool used for parallel sheet parsing and
+     * the layout plan and parse result caches
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        uploadPath = Paths.get(uploadDir).toAbsolutePath();
+        Files.createDirectories(uploadPath);
+        log.info("Spooling attendance uploads to {}", uploadPath);
+        if (layoutPlans) {
+            planCache = new ExtractionPlanCache(planCacheSize);
+        }
+        if (resultCache) {
+            parseCache = new AttendanceParseCache(resultCacheMaxMb * 1024 * 1024,
+                    TimeUnit.MINUTES.toNanos(resultCacheTtlMinutes));
+        }
+        if (parallelSheets) {
+            int poolSize = sheetPoolSize > 0 ? sheetPoolSize : Runtime.getRuntime().availableProcessors();
+            AtomicInteger threadCount = new AtomicInteger();
+            sheetExecutor = Executors.newFixedThreadPool(poolSize, runnable -> {
+                Thread thread = new Thread(runnable, "sheet-parser-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            log.info("Parallel sheet parsing enabled with {} threads", poolSize);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sheetExecutor != null) {
+            sheetExecutor.shutdownNow();
+        }
+    }
 
     /**
      * Parse Excel file specifically looking for rows with "Employee:" and extract relevant data
      */
     public Map<String, List<AttendanceRecord>> parseExcel(MultipartFile file) {
+        // Shares the parse (and cached result) of parseAttendance, but only summary rows count here
+        AttendanceParseResult result = parse(file, null);
+        if (!AttendanceParseResult.SUMMARY_STRATEGY.equals(result.getStrategy())) {
+            return new HashMap<>();
+        }
+        return result.getAttendanceRecords();
+    }
+
+    /**
+     * Parse an attendance upload into the compact attendance the salary computation reads, without
+     * creating AttendanceRecords. Unlike {@link #parseExcel(MultipartFile)} this takes the employees
+     * of whichever strategy matched, so every payroll path accepts the same uploads as /process
+     * and the salary pipeline.
+     */
+    public Map<String, MonthlyAttendance> parseMonthlyAttendance(MultipartFile file) {
+        return parse(file, null).getAttendance();
+    }
+
+    /**
+     * Parse an attendance upload with every strategy in a single pass over the file: the
+     * "Employee:" summary rows, and as a fallback "ID : Name" cells in the first sheet
+     * @param file The Excel file with attendance data
+     * @return The records of the strategy that matched, with per-strategy timings
+     */
+    public AttendanceParseResult parseAttendance(MultipartFile file) {
+        return parse(file, null);
+    }
+
+    /**
+     * Parse an attendance upload, passing each employee found in an "Employee:" summary row to
+     * the listener as soon as it is extracted, so later stages can start before the file is read
+     * to the end. On a cache hit the cached employees are passed at once. The listener is called on
+     * the parsing thread, in workbook order; with parallel sheets each sheet's employees are passed
+     * once the sheets before it are done.
+     * @param file The Excel file with attendance data
+     * @param listener Receives each summary employee
+     * @return The records of the strategy that matched, with per-strategy timings
+     */
+    public AttendanceParseResult parseAttendance(MultipartFile file, Consumer<MonthlyAttendance> listener) {
+        return parse(file, listener);
+    }
+
+    /**
+     * Like {@link #parseAttendance(MultipartFile, Consumer)}, for an upload already moved to disk
+     * with {@link #spoolUpload(MultipartFile)}. The file is left in place.
+     * @param file The spooled attendance file; its extension picks the reader
+     * @param listener Receives each summary employee, or null
+     * @return The records of the strategy that matched, with per-strategy timings
+     */
+    public AttendanceParseResult parseAttendance(Path file, Consumer<MonthlyAttendance> listener) {
+        return parse(file, listener);
+    }
+
+    /**
+     * Move an upload to a file under the upload directory that outlives the request, e.g. for a
+     * job that parses it later. The caller deletes the file when done with it.
+     * @param file The uploaded attendance file
+     * @return The spooled file, with the extension of the upload
+     */
+    public Path spoolUpload(MultipartFile file) throws IOException {
+        return spoolToTempFile(file, suffixOf(file.getOriginalFilename()));
+    }
+
+    /**
+     * Hit/miss counters and size of the parse result cache
+     */
+    public Map<String, Object> getParseCacheStats() {
+        if (parseCache == null) {
+            return Collections.singletonMap("enabled", false);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", true);
+        stats.putAll(parseCache.getStats());
+        return stats;
+    }
+
+    private AttendanceParseResult parse(MultipartFile file, Consumer<MonthlyAttendance> listener) {
         log.info("Parsing Excel file: {}", file.getOriginalFilename());
-        Map<String, List<AttendanceRecord>> attendanceRecords = new HashMap<>();
+        Path tempFile = null;
+        try {
+            tempFile = spoolUpload(file);
+            return parse(tempFile, listener);
+        } catch (IOException e) {
+            log.error("Error spooling Excel file: {}", e.getMessage(), e);
+            return newCollector(0, null).toResult(Duration.ZERO);
+        } finally {
+            deleteTempFile(tempFile);
+        }
+    }
 
-        try (InputStream is = file.getInputStream()) {
-            Workbook workbook;
-            if (file.getOriginalFilename().toLowerCase().endsWith(".xlsx")) {
-                workbook = new XSSFWorkbook(is);
-            } else {
-                workbook = new HSSFWorkbook(is);
-            }
+    private AttendanceParseResult parse(Path tempFile, Consumer<MonthlyAttendance> listener) {
+        long start = System.nanoTime();
+        MultiStrategyCollector collector = newCollector(0, listener);
 
-            for (int sheetIndex = 0; sheetIndex < workbook.getNumberOfSheets(); sheetIndex++) {
-                Sheet sheet = workbook.getSheetAt(sheetIndex);
-                log.info("Processing sheet: {}", sheet.getSheetName());
-
-                // Process each row looking for "Employee:"
-                for (int rowIndex = 0; rowIndex < sheet.getPhysicalNumberOfRows(); rowIndex++) {
-                    Row row = sheet.getRow(rowIndex);
-                    if (row == null) continue;
-
-                    String rowContent = getFullRowContent(row);
-                    log.debug("Raw row content: {}", rowContent);
-                    
-                    // Only look for rows containing "Employee:"
-                    if (rowContent.contains("Employee:")) {
-                        log.info("Found Employee row: {}", rowContent);
-                        
-                        // Try all patterns one by one
-                        String employeeId = null;
-                        String employeeName = null;
-                        
-                        // 1. Try main pattern
-                        Matcher employeeMatcher = EMPLOYEE_PATTERN.matcher(rowContent);
-                        if (employeeMatcher.find()) {
-                            employeeId = employeeMatcher.group(1).trim();
-                            employeeName = employeeMatcher.group(2).trim();
-                            log.info("Main pattern match: ID={}, Name='{}'", employeeId, employeeName);
-                        }
-                        
-                        // 2. Try fallback pattern if main didn't work
-                        if (employeeId == null || employeeName == null) {
-                            employeeMatcher = FALLBACK_PATTERN.matcher(rowContent);
-                            if (employeeMatcher.find()) {
-                                employeeId = employeeMatcher.group(1).trim();
-                                employeeName = employeeMatcher.group(2).trim();
-                                log.info("Fallback pattern match: ID={}, Name='{}'", employeeId, employeeName);
-                            }
-                        }
-                        
-                        // 3. Try simple pattern as last regex attempt
-                        if (employeeId == null || employeeName == null) {
-                            employeeMatcher = SIMPLE_PATTERN.matcher(rowContent);
-                            if (employeeMatcher.find()) {
-                                employeeId = employeeMatcher.group(1).trim();
-                                employeeName = employeeMatcher.group(2).trim();
-                                log.info("Simple pattern match: ID={}, Name='{}'", employeeId, employeeName);
-                            }
-                        }
-                        
-                        // 4. Manual extraction as absolute last resort
-                        if (employeeId == null || employeeName == null) {
-                            // Try to find ID and name by scanning for a number followed by a name
-                            if (rowContent.contains("Employee:")) {
-                                String afterEmployee = rowContent.substring(rowContent.indexOf("Employee:") + 9).trim();
-                                String[] parts = afterEmployee.split(":", 2);
-                                if (parts.length == 2) {
-                                    employeeId = parts[0].trim();
-                                    
-                                    // Extract name up to "Total Work Duration" or other metrics
-                                    String rawName = parts[1].trim();
-                                    int endIndex = rawName.indexOf("Total Work");
-                                    if (endIndex > 0) {
-                                        employeeName = rawName.substring(0, endIndex).trim();
-                                    } else {
-                                        employeeName = rawName;
-                                    }
-                                    
-                                    log.info("Manual extraction: ID={}, Name='{}'", employeeId, employeeName);
-                                }
-                            }
-                        }
-                        
-                        // Clean up any trailing whitespace or punctuation if we found something
-                        if (employeeName != null) {
-                            employeeName = employeeName.replaceAll("[\\s\\.]+$", "");
-                            log.info("Final extracted employee: ID={}, Name='{}'", employeeId, employeeName);
-                            
-                            // Skip test employee data
-                            if (employeeName.toLowerCase().contains("test") || employeeName.equalsIgnoreCase("Employee")) {
-                                log.info("Skipping test employee: {}", employeeName);
-                                continue;
-                            }
-                            
-                            // Get work hour details from this row and the next row
-                            String summaryData = rowContent;
-                            
-                            // Check if we have a next row to include
-                            if (rowIndex + 1 < sheet.getPhysicalNumberOfRows()) {
-                                Row nextRow = sheet.getRow(rowIndex + 1);
-                                if (nextRow != null) {
-                                    String nextRowContent = getFullRowContent(nextRow);
-                                    summaryData += " " + nextRowContent;
-                                    log.debug("Including next row content: {}", nextRowContent);
-                                }
-                            }
-                            
-                            // Extract metrics from the combined summary data
-                            double totalWorkHours = extractHoursFromDuration(summaryData, WORK_DURATION_PATTERN);
-                            double totalOTHours = extractHoursFromDuration(summaryData, OT_PATTERN);
-                            int presentDays = extractNumber(summaryData, PRESENT_PATTERN);
-                            int absentDays = extractNumber(summaryData, ABSENT_PATTERN);
-                            int weeklyOffDays = extractNumber(summaryData, WEEKLY_OFF_PATTERN);
-                            double lateHours = extractHoursFromDuration(summaryData, LATE_HRS_PATTERN);
-                            int lateDays = extractNumber(summaryData, LATE_DAYS_PATTERN);
-                            
-                            log.info("Employee metrics - ID: {}, Name: {}, Work Hours: {}, OT: {}, Present: {}, Absent: {}, WeeklyOff: {}, Late Hrs: {}, Late Days: {}",
-                                    employeeId, employeeName, totalWorkHours, totalOTHours, presentDays, 
-                                    absentDays, weeklyOffDays, lateHours, lateDays);
-                            
-                            // Create one attendance record per employee
-                            AttendanceRecord record = createAttendanceRecord(
-                                    employeeId, employeeName, totalWorkHours, totalOTHours,
-                                    presentDays, absentDays, weeklyOffDays, lateHours, lateDays);
-                            
-                            // Ensure each employee has only one entry in the map
-                            attendanceRecords.put(employeeId, Collections.singletonList(record));
-                        } else {
-                            log.warn("Failed to extract employee data from row: {}", rowContent);
-                        }
+        String suffix = suffixOf(tempFile.getFileName().toString());
+        String cacheKey = null;
+        boolean complete = false;
+        try {
+            if (parseCache != null) {
+                // The reader is picked by extension, so identical bytes under another type are another entry
+                cacheKey = sha256(tempFile) + suffix;
+                AttendanceParseResult cached = parseCache.get(cacheKey);
+                if (cached != null) {
+                    log.info("Returning cached parse result for {}: {} employees using strategy {}",
+                            tempFile.getFileName(), cached.getAttendance().size(), cached.getStrategy());
+                    if (listener != null && AttendanceParseResult.SUMMARY_STRATEGY.equals(cached.getStrategy())) {
+                        cached.getAttendance().values().forEach(listener);
                     }
+                    return cached;
                 }
             }
-            
-            workbook.close();
-            log.info("Finished parsing. Found {} valid employees.", attendanceRecords.size());
-            
+
+            if (suffix.equals(".csv")) {
+                parseCsv(tempFile, collector);
+            } else if (suffix.equals(".xlsx") && xlsxStreaming) {
+                parseXlsxStreaming(tempFile, collector, listener);
+            } else if (suffix.equals(".xls") && xlsEventModel) {
+                parseXlsEvents(tempFile, collector);
+            } else {
+                parseWorkbook(tempFile, collector);
+            }
+            complete = true;
         } catch (IOException e) {
             log.error("Error parsing Excel file: {}", e.getMessage(), e);
         }
-        
-        return attendanceRecords;
+
+        AttendanceParseResult result = collector.toResult(Duration.ofNanos(System.nanoTime() - start));
+        log.info("Finished parsing. Found {} valid employees using strategy {} in {} ms (strategy timings: {})",
+                result.getAttendance().size(), result.getStrategy(), result.getTotalTime().toMillis(),
+                result.getStrategyTimings());
+        // Failed or empty parses are not cached, so a retry reads the file again
+        if (complete && cacheKey != null && !result.getAttendance().isEmpty()) {
+            result = parseCache.put(cacheKey, result);
+        }
+        return result;
     }
-    
+
     /**
-     * Create an attendance record with the extracted summary data
+     * Stream an .xlsx upload through the SAX reader so the sheet is never fully loaded.
+     * The upload is spooled to a file first because opening an OPC package from a
+     * stream would buffer the whole archive in memory.
      */
-    private AttendanceRecord createAttendanceRecord(String employeeId, String employeeName,
-                                                  double totalWorkHours, double totalOTHours, 
-                                                  int presentDays, int absentDays,
-                                                  int weeklyOffDays, double lateHours, int lateDays) {
-        
-        AttendanceRecord record = new AttendanceRecord();
-        record.setEmployeeId(employeeId);
-        record.setEmployeeName(employeeName);
-        record.setDate(LocalDate.now()); // Current date as reference
-        record.setStatus(presentDays > 0 ? "P" : "A"); // Set as Present if there are present days
-        record.setHoursWorked(totalWorkHours);
-        record.setOvertime(totalOTHours);
-        record.setPresentDays(presentDays);
-        record.setAbsentDays(absentDays);
-        record.setWeeklyOffDays(weeklyOffDays);
-        record.setLateHours(lateHours);
-        record.setLateDays(lateDays);
-        record.setLate(lateDays > 0);
-        
-        return record;
+    private void parseXlsxStreaming(Path tempFile, MultiStrategyCollector collector,
+                                    Consumer<MonthlyAttendance> listener) throws IOException {
+        try (XlsxStreamingReader reader = new XlsxStreamingReader(tempFile.toFile())) {
+            log.info("Streaming XLSX workbook from {}", tempFile);
+            List<String> sheetNames = reader.getSheetNames();
+            if (sheetExecutor != null && sheetNames.size() > 1) {
+                parseSheetsInParallel(sheetNames, reader::readSheet, collector, listener);
+            } else {
+                reader.read(collector);
+            }
+        }
     }
-    
+
     /**
-     * Extract combined text content of all cells in a row
+     * Replay an .xls upload record by record through the HSSF event API, which only
+     * rebuilds the text of summary rows instead of materializing every cell.
      */
-    private String getFullRowContent(Row row) {
-        StringBuilder content = new StringBuilder();
-        for (int i = 0; i < row.getLastCellNum(); i++) {
-            Cell cell = row.getCell(i);
-            if (cell != null) {
-                content.append(getCellStringValue(cell)).append(" ");
+    private void parseXlsEvents(Path tempFile, MultiStrategyCollector collector) throws IOException {
+        log.info("Reading XLS workbook records from {}", tempFile);
+        new XlsEventReader().read(tempFile.toFile(), collector);
+    }
+
+    /**
+     * Read a .csv export through a memory-mapped view of the spooled upload. Fields are
+     * located in the mapped bytes and only rows a strategy needs are decoded into Strings.
+     */
+    private void parseCsv(Path tempFile, MultiStrategyCollector collector) throws IOException {
+        log.info("Reading CSV attendance from {}", tempFile);
+        new CsvAttendanceReader().read(tempFile.toFile(), collector);
+    }
+
+    /**
+     * Move an upload to a temp file under the upload directory so it can be read from disk
+     * instead of from a byte array. The servlet container has already written the request body
+     * to the same directory, so this is normally a rename rather than a copy.
+     */
+    private Path spoolToTempFile(MultipartFile file, String suffix) throws IOException {
+        Path tempFile = Files.createTempFile(uploadPath, "attendance-", suffix);
+        try {
+            file.transferTo(tempFile.toFile());
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return tempFile;
+    }
+
+    /**
+     * Extension of the reader for a file name: .csv, .xlsx, or .xls for anything else
+     */
+    private static String suffixOf(String fileName) {
+        String name = fileName == null ? "" : fileName.toLowerCase();
+        return name.endsWith(".csv") ? ".csv" : name.endsWith(".xlsx") ? ".xlsx" : ".xls";
+    }
+
+    private void deleteTempFile(Path tempFile) {
+        if (tempFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            log.warn("Could not delete temp file {}: {}", tempFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Hash the spooled upload in one sequential read, as the key of the parse result cache
+     * @return The SHA-256 of the file as lowercase hex
+     */
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
             }
         }
-        return content.toString().trim();
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
     }
-    
+
     /**
-     * Extract hours from a duration string like "130:23"
+     * Load the workbook model and feed its rows to the collector. The workbook is opened read-only
+     * from the spooled file, so POI reads the package from disk instead of buffering the upload.
      */
-    private double extractHoursFromDuration(String text, Pattern pattern) {
-        Matcher matcher = pattern.matcher(text);
-        if (matcher.find()) {
-            String duration = matcher.group(1).trim();
-            log.debug("Found duration: {}", duration);
-            String[] parts = duration.split(":");
-            try {
-                if (parts.length == 2) {
-                    int hours = Integer.parseInt(parts[0]);
-                    int minutes = Integer.parseInt(parts[1]);
-                    
-                    // Calculate exactly: HH.MM format (not dividing by 60)
-                    // For example: 128:37 should be 128.37, not 128.61666
-                    double result = hours;
-                    if (minutes > 0) {
-                        // Convert minutes to hundredths of an hour (37 minutes = 0.37, not 0.616666)
-                        result += minutes / 100.0;
-                    }
-                    
-                    log.debug("Converted duration {}:{} to {} hours", hours, minutes, result);
-                    return result;
-                }
-            } catch (NumberFormatException e) {
-                log.warn("Failed to parse duration: {}", duration);
+    private void parseWorkbook(Path tempFile, MultiStrategyCollector collector) throws IOException {
+        // Always one sheet at a time: a POI Workbook and its style and format tables are not thread-safe
+        try (Workbook workbook = WorkbookFactory.create(tempFile.toFile(), null, true)) {
+            for (int sheetIndex = 0; sheetIndex < workbook.getNumberOfSheets(); sheetIndex++) {
+                parseSheet(workbook.getSheetAt(sheetIndex), collector);
             }
         }
-        return 0.0;
     }
-    
+
     /**
-     * Extract a numeric value using a regex pattern
+     * Feed the rows of one in-memory sheet to the handler
      */
-    private int extractNumber(String text, Pattern pattern) {
-        Matcher matcher = pattern.matcher(text);
-        if (matcher.find()) {
-            try {
-                return Integer.parseInt(matcher.group(1).trim());
-            } catch (NumberFormatException e) {
-                // Try parsing as a double and convert to int
-                try {
-                    return (int) Double.parseDouble(matcher.group(1).trim());
-                } catch (NumberFormatException ex) {
-                    log.warn("Failed to parse number: {}", matcher.group(1));
+    private void parseSheet(Sheet sheet, SheetRowHandler handler) {
+        log.info("Processing sheet: {}", sheet.getSheetName());
+
+        // Visit every defined row; counting to getPhysicalNumberOfRows() missed the tail of sparse sheets
+        for (Row row : sheet) {
+            handler.acceptRow(row.getRowNum(), getRowCellValues(row));
+        }
+        handler.endSheet();
+    }
+
+    /**
+     * Parse each sheet on the worker pool into its own partial result, then merge the partials in
+     * workbook order so duplicate employee IDs resolve exactly as in a sequential parse
+     * (the last sheet wins). Each sheet's employees are buffered and passed to the listener on the
+     * calling thread as that sheet is merged, so the listener also sees them in workbook order.
+     * Only used with the SAX reader, which opens an independent stream per sheet.
+     */
+    private void parseSheetsInParallel(List<String> sheetNames, SheetParser sheetParser,
+                                       MultiStrategyCollector collector,
+                                       Consumer<MonthlyAttendance> listener) throws IOException {
+        log.info("Parsing {} sheets in parallel", sheetNames.size());
+        List<Future<MultiStrategyCollector>> partials = new ArrayList<>(sheetNames.size());
+        // Employees extracted from each sheet, each list only written by its sheet's task
+        List<List<MonthlyAttendance>> sheetEmployees = new ArrayList<>(sheetNames.size());
+        for (int sheetIndex = 0; sheetIndex < sheetNames.size(); sheetIndex++) {
+            int index = sheetIndex;
+            List<MonthlyAttendance> employees = new ArrayList<>();
+            sheetEmployees.add(employees);
+            partials.add(sheetExecutor.submit(() -> {
+                MultiStrategyCollector partial = newCollector(index, listener != null ? employees::add : null);
+                sheetParser.parse(index, partial);
+                return partial;
+            }));
+        }
+
+        try {
+            for (int sheetIndex = 0; sheetIndex < partials.size(); sheetIndex++) {
+                collector.merge(partials.get(sheetIndex).get(), sheetNames.get(sheetIndex));
+                if (listener != null) {
+                    sheetEmployees.get(sheetIndex).forEach(listener);
                 }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing sheets", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Error parsing sheet: " + cause.getMessage(), cause);
+        } finally {
+            for (Future<MultiStrategyCollector> partial : partials) {
+                partial.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Create the strategies for a parse that starts at the given sheet
+     * @param listener Receives each summary employee as it is extracted, or null
+     */
+    private MultiStrategyCollector newCollector(int firstSheetIndex, Consumer<MonthlyAttendance> listener) {
+        MultiStrategyCollector collector = new MultiStrategyCollector(
+                new EmployeeSummaryCollector(planCache, fingerprintRows),
+                new ColonPatternCollector(firstSheetIndex));
+        collector.setSummaryListener(listener);
+        return collector;
+    }
+
+    /**
+     * Extract the text content of all cells in a row, in column order
+     */
+    private List<String> getRowCellValues(Row row) {
+        List<String> cellValues = new ArrayList<>();
+        for (int i = 0; i < row.getLastCellNum(); i++) {
+            Cell cell = row.getCell(i);
+            if (cell != null) {
+                cellValues.add(getCellStringValue(cell));
+            }
         }
-        return 0;
+        return cellValues;
     }
-    
+
     /**
      * Get string value from a cell, handling different cell types
      */
@@ -0,0 +1,382 @@
+package com.salaryprocessor.service;
+
+import com.salaryprocessor.service.LayoutFingerprint.LabelPosition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Extraction plan compiled from a {@link LayoutFingerprint}. It reads the ID, name and metrics
+ * straight from the cells the fingerprint located instead of scanning the whole row text.
+ * <p>
+ * The plan only accepts rows it can read without searching the row: each label in its planned
+ * cell and in its planned order there, no ':' in any unplanned cell, and in the planned cells no
+ * label besides the planned ones. Every label ends with ':', so counting the labels that end at
+ * each ':' of a planned cell rules out a stray label elsewhere in the block that the scan would
+ * have picked up first. A value runs up to the next label of its cell; what follows the value
+ * there, such as the "Holidays: 0" of a WorkDurationReport, is ignored as it is by the scan. Any
+ * other row is rejected so the caller can fall back to {@link SummaryRowScanner}, and the result
+ * is the same either way.
+ */
+final class ExtractionPlan {
+
+    private static final Logger log = LoggerFactory.getLogger(ExtractionPlan.class);
+
+    // Slots of LayoutFingerprint.LABELS
+    private static final int EMPLOYEE_SLOT = 0;
+    private static final int WORK_DURATION_SLOT = 1;
+    private static final int OT_SLOT = 2;
+    private static final int PRESENT_SLOT = 3;
+    private static final int ABSENT_SLOT = 4;
+    private static final int WEEKLY_OFF_SLOT = 5;
+    private static final int LATE_HRS_SLOT = 6;
+    private static final int LATE_DAYS_SLOT = 7;
+
+    private final LayoutFingerprint fingerprint;
+
+    // Label and value cells of the employee row and of the row after it
+    private final boolean[][] plannedCells = new boolean[2][];
+
+    // Number of labels planned in each cell of the two rows
+    private final int[][] labelCounts = new int[2][];
+
+    // Slot of the label that follows each label in its cell, or -1 for the last one
+    private final int[] nextSlots = new int[LayoutFingerprint.LABELS.length];
+
+    private ExtractionPlan(LayoutFingerprint fingerprint) {
+        this.fingerprint = fingerprint;
+
+        int[] cellCounts = new int[2];
+        for (int slot = 0; slot < LayoutFingerprint.LABELS.length; slot++) {
+            LabelPosition position = fingerprint.getPosition(slot);
+            cellCounts[position.rowOffset] = Math.max(cellCounts[position.rowOffset],
+                    position.cellIndex + position.valueOffset + 1);
+        }
+        for (int rowOffset = 0; rowOffset < 2; rowOffset++) {
+            plannedCells[rowOffset] = new boolean[cellCounts[rowOffset]];
+            labelCounts[rowOffset] = new int[cellCounts[rowOffset]];
+        }
+        for (int slot = 0; slot < LayoutFingerprint.LABELS.length; slot++) {
+            LabelPosition position = fingerprint.getPosition(slot);
+            plannedCells[position.rowOffset][position.cellIndex] = true;
+            plannedCells[position.rowOffset][position.cellIndex + position.valueOffset] = true;
+            labelCounts[position.rowOffset][position.cellIndex]++;
+
+            nextSlots[slot] = -1;
+            for (int other = 0; other < LayoutFingerprint.LABELS.length; other++) {
+                LabelPosition otherPosition = fingerprint.getPosition(other);
+                if (otherPosition.rowOffset == position.rowOffset && otherPosition.cellIndex == position.cellIndex
+                        && otherPosition.order == position.order + 1) {
+                    nextSlots[slot] = other;
+                }
+            }
+        }
+    }
+
+    /**
+     * Compile a plan for a layout
+     * @return The plan, or null if the layout is not plannable
+     */
+    static ExtractionPlan compile(LayoutFingerprint fingerprint) {
+        return fingerprint.isPlannable() ? new ExtractionPlan(fingerprint) : null;
+    }
+
+    /**
+     * Extract the summary of an employee block that follows this plan's layout
+     * @param rowCells Cell values of the employee row
+     * @param nextRowCells Cell values of the following row, or null if there is none
+     * @return The summary, or null if the row does not fit the plan
+     */
+    EmployeeSummary extract(List<String> rowCells, List<String> nextRowCells) {
+        if (!hasOnlyPlannedLabels(rowCells, 0) || (nextRowCells != null && !hasOnlyPlannedLabels(nextRowCells, 1))) {
+            return null;
+        }
+        int[] labelStarts = locateLabels(rowCells, nextRowCells);
+        if (labelStarts == null) {
+            return null;
+        }
+
+        EmployeeSummary summary = new EmployeeSummary();
+        if (!extractIdAndName(rowCells, labelStarts, summary)) {
+            return null;
+        }
+
+        double workHours = readDuration(WORK_DURATION_SLOT, rowCells, nextRowCells, labelStarts);
+        double otHours = readDuration(OT_SLOT, rowCells, nextRowCells, labelStarts);
+        int presentDays = readNumber(PRESENT_SLOT, rowCells, nextRowCells, labelStarts);
+        int absentDays = readNumber(ABSENT_SLOT, rowCells, nextRowCells, labelStarts);
+        int weeklyOffDays = readNumber(WEEKLY_OFF_SLOT, rowCells, nextRowCells, labelStarts);
+        double lateHours = readDuration(LATE_HRS_SLOT, rowCells, nextRowCells, labelStarts);
+        int lateDays = readNumber(LATE_DAYS_SLOT, rowCells, nextRowCells, labelStarts);
+        if (workHours < 0 || otHours < 0 || presentDays < 0 || absentDays < 0 || weeklyOffDays < 0
+                || lateHours < 0 || lateDays < 0) {
+            return null;
+        }
+
+        summary.setTotalWorkHours(workHours);
+        summary.setTotalOTHours(otHours);
+        summary.setPresentDays(presentDays);
+        summary.setAbsentDays(absentDays);
+        summary.setWeeklyOffDays(weeklyOffDays);
+        summary.setLateHours(lateHours);
+        summary.setLateDays(lateDays);
+        return summary;
+    }
+
+    /**
+     * Find each label in its planned cell. Together with {@link #hasOnlyPlannedLabels} this is
+     * the only occurrence of the label in the block.
+     * @return The start of each label within its cell, or null if a label is missing or out of order
+     */
+    private int[] locateLabels(List<String> rowCells, List<String> nextRowCells) {
+        int[] labelStarts = new int[LayoutFingerprint.LABELS.length];
+        for (int slot = 0; slot < LayoutFingerprint.LABELS.length; slot++) {
+            LabelPosition position = fingerprint.getPosition(slot);
+            String labelCell = cellAt(position.rowOffset == 0 ? rowCells : nextRowCells, position.cellIndex);
+            if (labelCell == null) {
+                return null;
+            }
+            int start = labelCell.indexOf(LayoutFingerprint.LABELS[slot]);
+            if (start < 0 || (position.order == 0 && start != LayoutFingerprint.skipSpaces(labelCell, 0))) {
+                return null;
+            }
+            labelStarts[slot] = start;
+        }
+        for (int slot = 0; slot < LayoutFingerprint.LABELS.length; slot++) {
+            int next = nextSlots[slot];
+            if (next >= 0 && labelStarts[next] < labelStarts[slot] + LayoutFingerprint.LABELS[slot].length()) {
+                return null;
+            }
+        }
+        return labelStarts;
+    }
+
+    /**
+     * Read "&lt;id&gt; : &lt;name&gt;" from the value of the "Employee:" label. The scan ends the
+     * name where "Total Work" follows after a space, or at the end of the row, so the name must be
+     * followed by the "Total Work Duration:" label of its cell, by a cell starting with "Total
+     * Work", or by nothing.
+     */
+    private boolean extractIdAndName(List<String> rowCells, int[] labelStarts, EmployeeSummary summary) {
+        LabelPosition position = fingerprint.getPosition(EMPLOYEE_SLOT);
+        String value = valueText(EMPLOYEE_SLOT, rowCells, labelStarts);
+        if (value == null) {
+            return false;
+        }
+        int idStart = LayoutFingerprint.skipSpaces(value, 0);
+        int idEnd = idStart;
+        while (idEnd < value.length() && SummaryRowScanner.isDigit(value.charAt(idEnd))) {
+            idEnd++;
+        }
+        int colon = LayoutFingerprint.skipSpaces(value, idEnd);
+        if (idEnd == idStart || colon >= value.length() || value.charAt(colon) != ':') {
+            return false;
+        }
+
+        String name = value.substring(colon + 1).trim();
+        if (name.length() < 2 || name.indexOf(':') >= 0 || name.contains(SummaryRowScanner.TOTAL)
+                || containsLineTerminator(name)) {
+            return false;
+        }
+        int next = nextSlots[EMPLOYEE_SLOT];
+        if (next >= 0) {
+            if (next != WORK_DURATION_SLOT || !SummaryRowScanner.isSpace(value.charAt(value.length() - 1))) {
+                return false;
+            }
+        } else {
+            for (int i = position.cellIndex + position.valueOffset + 1; i < rowCells.size(); i++) {
+                String cell = rowCells.get(i);
+                if (cell == null || isBlank(cell, 0)) {
+                    continue;
+                }
+                if (!startsWithTotalWork(cell)) {
+                    return false;
+                }
+                break;
+            }
+        }
+
+        summary.setEmployeeId(value.substring(idStart, idEnd));
+        summary.setEmployeeName(SummaryRowScanner.stripTrailingSpaceAndDots(name));
+        return true;
+    }
+
+    /**
+     * Read an "HH:MM" value, optionally followed by "Hrs" in the same or the next cell
+     * @return The hours, or -1 if the value is not in the planned form
+     */
+    private double readDuration(int slot, List<String> rowCells, List<String> nextRowCells, int[] labelStarts) {
+        LabelPosition position = fingerprint.getPosition(slot);
+        List<String> cells = position.rowOffset == 0 ? rowCells : nextRowCells;
+        String value = valueText(slot, cells, labelStarts);
+        if (value == null) {
+            return -1;
+        }
+
+        int start = LayoutFingerprint.skipSpaces(value, 0);
+        int end = start;
+        while (end < value.length() && (SummaryRowScanner.isDigit(value.charAt(end)) || value.charAt(end) == ':')) {
+            end++;
+        }
+        if (end == start) {
+            return -1;
+        }
+
+        int unit = LayoutFingerprint.skipSpaces(value, end);
+        if (slot != LATE_HRS_SLOT && !value.startsWith(SummaryRowScanner.HRS, unit)) {
+            // Work duration and OT only count when the unit follows; it may be in the next cell
+            if (unit < value.length() || nextSlots[slot] >= 0) {
+                return -1;
+            }
+            String unitCell = cellAt(cells, position.cellIndex + position.valueOffset + 1);
+            if (unitCell == null || !SummaryRowScanner.HRS.equals(unitCell.trim())) {
+                return -1;
+            }
+        }
+        return toHours(value.substring(start, end));
+    }
+
+    /**
+     * Read a plain number
+     * @return The value truncated to an int, or -1 if the value is not in the planned form
+     */
+    private int readNumber(int slot, List<String> rowCells, List<String> nextRowCells, int[] labelStarts) {
+        LabelPosition position = fingerprint.getPosition(slot);
+        String value = valueText(slot, position.rowOffset == 0 ? rowCells : nextRowCells, labelStarts);
+        if (value == null) {
+            return -1;
+        }
+
+        int start = LayoutFingerprint.skipSpaces(value, 0);
+        int end = start;
+        while (end < value.length() && (SummaryRowScanner.isDigit(value.charAt(end)) || value.charAt(end) == '.')) {
+            end++;
+        }
+        if (end == start) {
+            return -1;
+        }
+        return toInt(value.substring(start, end));
+    }
+
+    /**
+     * Text that follows the label in the given slot: up to the next label of its cell or the end
+     * of the cell, or for a label at the end of its cell the whole value cell
+     * @return The value text, or null if the cells between the label and its value are not blank
+     */
+    private String valueText(int slot, List<String> cells, int[] labelStarts) {
+        LabelPosition position = fingerprint.getPosition(slot);
+        String labelCell = cells.get(position.cellIndex);
+        int valueStart = labelStarts[slot] + LayoutFingerprint.LABELS[slot].length();
+        if (position.inlineValue) {
+            int next = nextSlots[slot];
+            return labelCell.substring(valueStart, next >= 0 ? labelStarts[next] : labelCell.length());
+        }
+
+        if (!isBlank(labelCell, valueStart)) {
+            return null;
+        }
+        for (int i = position.cellIndex + 1; i < position.cellIndex + position.valueOffset; i++) {
+            String between = cellAt(cells, i);
+            if (between != null && !isBlank(between, 0)) {
+                return null;
+            }
+        }
+        return cellAt(cells, position.cellIndex + position.valueOffset);
+    }
+
+    /**
+     * Same conversion as the scanner: "130:23" -> 130.23
+     */
+    private static double toHours(String duration) {
+        String[] parts = duration.split(":");
+        if (parts.length != 2) {
+            return 0.0;
+        }
+        try {
+            int hours = Integer.parseInt(parts[0]);
+            int minutes = Integer.parseInt(parts[1]);
+            return minutes > 0 ? hours + minutes / 100.0 : hours;
+        } catch (NumberFormatException e) {
+            log.warn("Failed to parse duration: {}", duration);
+            return 0.0;
+        }
+    }
+
+    /**
+     * Same conversion as the scanner: Integer.parseInt, falling back to (int) Double.parseDouble
+     */
+    private static int toInt(String number) {
+        try {
+            return Integer.parseInt(number);
+        } catch (NumberFormatException e) {
+            try {
+                return (int) Double.parseDouble(number);
+            } catch (NumberFormatException ex) {
+                log.warn("Failed to parse number: {}", number);
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Check that no unplanned cell of a row contains ':' and that each planned cell holds exactly
+     * the labels planned there
+     */
+    private boolean hasOnlyPlannedLabels(List<String> cells, int rowOffset) {
+        boolean[] planned = plannedCells[rowOffset];
+        for (int i = 0; i < cells.size(); i++) {
+            String value = cells.get(i);
+            if (value == null || value.indexOf(':') < 0) {
+                continue;
+            }
+            if (i >= planned.length || !planned[i] || countLabels(value) != labelCounts[rowOffset][i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Count the labels in a cell by checking which label, if any, ends at each ':'
+     */
+    private static int countLabels(String value) {
+        int count = 0;
+        for (int colon = value.indexOf(':'); colon >= 0; colon = value.indexOf(':', colon + 1)) {
+            for (String label : LayoutFingerprint.LABELS) {
+                int start = colon + 1 - label.length();
+                if (start >= 0 && value.startsWith(label, start)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static boolean startsWithTotalWork(String value) {
+        int total = LayoutFingerprint.skipSpaces(value, 0);
+        if (!value.startsWith(SummaryRowScanner.TOTAL, total)) {
+            return false;
+        }
+        int afterTotal = total + SummaryRowScanner.TOTAL.length();
+        int work = LayoutFingerprint.skipSpaces(value, afterTotal);
+        return work > afterTotal && value.startsWith(SummaryRowScanner.WORK, work);
+    }
+
+    private static boolean containsLineTerminator(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (SummaryRowScanner.isLineTerminator(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBlank(String value, int from) {
+        return LayoutFingerprint.skipSpaces(value, from) == value.length();
+    }
+
+    private static String cellAt(List<String> cells, int index) {
+        return cells != null && index < cells.size() ? cells.get(index) : null;
+    }
+}
@@ -0,0 +1,59 @@
+package com.salaryprocessor.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of extraction plans keyed by layout fingerprint. Shared by all uploads
+ * (and by the sheets of one upload parsed in parallel), so access is synchronized.
+ */
+final class ExtractionPlanCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ExtractionPlanCache.class);
+
+    private final Map<LayoutFingerprint, ExtractionPlan> plans;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param maxPlans Number of layouts to remember; the least recently used one is evicted first
+     */
+    ExtractionPlanCache(int maxPlans) {
+        this.plans = new LinkedHashMap<LayoutFingerprint, ExtractionPlan>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LayoutFingerprint, ExtractionPlan> eldest) {
+                if (size() > maxPlans) {
+                    log.info("Evicting extraction plan for layout {}", eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the plan for a layout, compiling and registering one if the layout has not been seen
+     * @return The plan, or null if the layout is not plannable
+     */
+    synchronized ExtractionPlan getOrCompile(LayoutFingerprint fingerprint) {
+        if (!fingerprint.isPlannable()) {
+            return null;
+        }
+
+        ExtractionPlan plan = plans.get(fingerprint);
+        if (plan != null) {
+            hits++;
+            log.info("Using cached extraction plan for layout {} (hits={}, misses={})", fingerprint, hits, misses);
+            return plan;
+        }
+
+        misses++;
+        plan = ExtractionPlan.compile(fingerprint);
+        plans.put(fingerprint, plan);
+        log.info("Registered extraction plan for new layout {} (hits={}, misses={})", fingerprint, hits, misses);
+        return plan;
+    }
+}
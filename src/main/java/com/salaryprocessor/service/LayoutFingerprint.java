@@ -0,0 +1,197 @@
+package com.salaryprocessor.service;
+
+import java.util.List;
+
+/**
+ * Where the labels of an "Employee:" summary block sit: for each label, the row (the employee row
+ * or the one after it), the position of the label cell within that row, the order of the label
+ * among the labels sharing that cell, and whether the value follows the label in the same cell or
+ * in a later one. WorkDurationReport exports put every metric in one cell, one label after the
+ * other; other layouts give each label a cell of its own.
+ * <p>
+ * Exports produced from the same report template share a fingerprint, which is what the
+ * {@link ExtractionPlanCache} is keyed on. A block that is missing a label, repeats one, does not
+ * start a label cell with a label, or has a label directly followed by the next one cannot be
+ * described this way and is marked unplannable.
+ */
+final class LayoutFingerprint {
+
+    // Label order is the slot order used by ExtractionPlan
+    static final String[] LABELS = {
+            SummaryRowScanner.EMPLOYEE,
+            SummaryRowScanner.WORK_DURATION,
+            SummaryRowScanner.OT,
+            SummaryRowScanner.PRESENT,
+            SummaryRowScanner.ABSENT,
+            SummaryRowScanner.WEEKLY_OFF,
+            SummaryRowScanner.LATE_HRS,
+            SummaryRowScanner.LATE_DAYS
+    };
+
+    private static final LayoutFingerprint UNPLANNABLE = new LayoutFingerprint(null, "unplannable");
+
+    private final LabelPosition[] positions;
+    private final String key;
+
+    private LayoutFingerprint(LabelPosition[] positions, String key) {
+        this.positions = positions;
+        this.key = key;
+    }
+
+    /**
+     * Fingerprint one employee block
+     * @param rowCells Cell values of the employee row
+     * @param nextRowCells Cell values of the following row, or null if there is none
+     */
+    static LayoutFingerprint of(List<String> rowCells, List<String> nextRowCells) {
+        LabelPosition[] positions = new LabelPosition[LABELS.length];
+        if (!locateLabels(rowCells, 0, positions) || positions[0] == null
+                || (nextRowCells != null && !locateLabels(nextRowCells, 1, positions))) {
+            return UNPLANNABLE;
+        }
+
+        StringBuilder key = new StringBuilder();
+        for (LabelPosition position : positions) {
+            if (position == null) {
+                // A label split across cells is still found by the generic scan
+                return UNPLANNABLE;
+            }
+            key.append(position.rowOffset).append('.').append(position.cellIndex).append('.').append(position.order);
+            if (position.inlineValue) {
+                key.append('i');
+            } else {
+                key.append('n').append(position.valueOffset);
+            }
+            key.append(';');
+        }
+        return new LayoutFingerprint(positions, key.toString());
+    }
+
+    /**
+     * Record the label cells of one row, and the order of the labels that share a cell
+     * @return false if a cell does not start with its first label, a label has no value before the
+     * next one, or a label is found more than once
+     */
+    private static boolean locateLabels(List<String> cells, int rowOffset, LabelPosition[] positions) {
+        int[] labelStarts = new int[LABELS.length];
+        int[] cellLabels = new int[LABELS.length];
+        for (int cellIndex = 0; cellIndex < cells.size(); cellIndex++) {
+            String value = cells.get(cellIndex);
+            if (value == null || value.indexOf(':') < 0) {
+                continue;
+            }
+
+            // Labels of this cell in text order
+            int labelCount = 0;
+            for (int slot = 0; slot < LABELS.length; slot++) {
+                String label = LABELS[slot];
+                int found = value.indexOf(label);
+                if (found < 0) {
+                    continue;
+                }
+                if (positions[slot] != null || value.indexOf(label, found + 1) >= 0) {
+                    return false;
+                }
+                labelStarts[slot] = found;
+                int insertAt = labelCount++;
+                while (insertAt > 0 && labelStarts[cellLabels[insertAt - 1]] > found) {
+                    cellLabels[insertAt] = cellLabels[insertAt - 1];
+                    insertAt--;
+                }
+                cellLabels[insertAt] = slot;
+            }
+
+            int cursor = skipSpaces(value, 0);
+            for (int order = 0; order < labelCount; order++) {
+                int slot = cellLabels[order];
+                int start = labelStarts[slot];
+                if (order == 0 ? start != cursor : start < cursor) {
+                    return false;
+                }
+                int labelEnd = start + LABELS[slot].length();
+                boolean lastInCell = order == labelCount - 1;
+                int valueEnd = lastInCell ? value.length() : labelStarts[cellLabels[order + 1]];
+                boolean inlineValue = skipSpaces(value, labelEnd) < valueEnd;
+                if (!inlineValue && !lastInCell) {
+                    return false;
+                }
+                int valueOffset = inlineValue ? 0 : nextValueOffset(cells, cellIndex);
+                positions[slot] = new LabelPosition(rowOffset, cellIndex, order, inlineValue, valueOffset);
+                cursor = labelEnd;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Distance from a label cell to the first non-blank cell after it, where its value is read from
+     */
+    private static int nextValueOffset(List<String> cells, int cellIndex) {
+        for (int i = cellIndex + 1; i < cells.size(); i++) {
+            String value = cells.get(i);
+            if (value != null && skipSpaces(value, 0) < value.length()) {
+                return i - cellIndex;
+            }
+        }
+        return 1;
+    }
+
+    static int skipSpaces(String value, int from) {
+        int p = from;
+        while (p < value.length() && SummaryRowScanner.isSpace(value.charAt(p))) {
+            p++;
+        }
+        return p;
+    }
+
+    boolean isPlannable() {
+        return positions != null;
+    }
+
+    /**
+     * Position of the label in the given slot of {@link #LABELS}; only valid for plannable layouts
+     */
+    LabelPosition getPosition(int slot) {
+        return positions[slot];
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof LayoutFingerprint && key.equals(((LayoutFingerprint) o).key);
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+
+    /**
+     * Location of one label relative to the employee row
+     */
+    static final class LabelPosition {
+        final int rowOffset;
+        final int cellIndex;
+        // Index of the label among the labels of its cell, in text order
+        final int order;
+        final boolean inlineValue;
+        // Cells from the label cell to its value cell, 0 for an inline value
+        final int valueOffset;
+
+        LabelPosition(int rowOffset, int cellIndex, int order, boolean inlineValue, int valueOffset) {
+            this.rowOffset = rowOffset;
+            this.cellIndex = cellIndex;
+            this.order = order;
+            this.inlineValue = inlineValue;
+            this.valueOffset = valueOffset;
+        }
+    }
+}
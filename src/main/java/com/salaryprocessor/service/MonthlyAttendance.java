@@ -0,0 +1,350 @@
+package com.salaryprocessor.service;
+
+import com.salaryprocessor.model.AttendanceRecord;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One employee's attendance for a month in a compact primitive encoding, indexed by day of month:
+ * the status of each day packed 2 bits per day into a long, the recorded and late days as bit
+ * masks, in/out times as minutes of the day in a short[] and worked hours in hundredths in an
+ * int[]. The arrays are only allocated once a day carries times or hours, so an employee costs
+ * about as much as a single AttendanceRecord instead of one per day.
+ * <p>
+ * The parsers fill it directly and the salary computation reads it without creating records.
+ * {@link #toRecords()} and {@link #fromRecords(String, List)} convert from and to the
+ * AttendanceRecord model for the APIs that still use it. Records may span a month boundary, as
+ * in a 26th-to-25th pay cycle: their days are then counted from the earliest record's date
+ * instead of the first of the month, for up to 31 days.
+ */
+public class MonthlyAttendance {
+
+    // Status codes; any status other than P, A and WOP is stored as a week off
+    static final int WEEK_OFF = 0;
+    static final int PRESENT = 1;
+    static final int ABSENT = 2;
+    static final int WEEK_OFF_PRESENT = 3;
+
+    private static final String[] STATUS_NAMES = {"WO", "P", "A", "WOP"};
+
+    // Minutes value of a day without an in or out time
+    private static final short NO_TIME = -1;
+
+    // Days that fit the bit masks
+    private static final int MAX_DAYS = 31;
+
+    private final String employeeId;
+    private final String employeeName;
+    private final YearMonth period;
+    // Date of day 1 and the number of days that can be recorded
+    private final LocalDate firstDate;
+    private final int dayCount;
+
+    // 2-bit status of day d at bits 2(d-1) and 2(d-1)+1
+    private long statuses;
+    // Bit d-1 is set for each day with a record, and in lateDays for each late one
+    private int recordedDays;
+    private int lateDays;
+    // Day of the first record, whose hours carry the month's reported hours
+    private int firstDay;
+
+    // In and out minutes of day d at 2(d-1) and 2(d-1)+1, or null if no day has times
+    private short[] inOutMinutes;
+    // Worked hours of day d at d-1 in hundredths, or null if no day has hours
+    private int[] workedHundredths;
+
+    // Month totals from an "Employee:" summary row
+    private int overtimeHundredths;
+    private int presentDays;
+    private int absentDays;
+    private int weeklyOffDays;
+    private int lateHundredths;
+    private int lateDayCount;
+
+    MonthlyAttendance(String employeeId, String employeeName, YearMonth period) {
+        this(employeeId, employeeName, period, period == null ? null : period.atDay(1),
+                period == null ? 0 : period.lengthOfMonth());
+    }
+
+    private MonthlyAttendance(String employeeId, String employeeName, YearMonth period, LocalDate firstDate,
+                              int dayCount) {
+        this.employeeId = employeeId;
+        this.employeeName = employeeName;
+        this.period = period;
+        this.firstDate = firstDate;
+        this.dayCount = dayCount;
+    }
+
+    /**
+     * Record one day
+     * @param date Date of the record
+     * @param status Status code of the day
+     * @param hundredths Worked hours of the day in hundredths
+     * @param late Whether the employee was late that day
+     * @return False if the date is outside this month and the day was not recorded
+     */
+    boolean setDay(LocalDate date, int status, int hundredths, boolean late) {
+        int day = dayOf(date);
+        if (day == 0) {
+            return false;
+        }
+        int bit = 1 << (day - 1);
+        if (recordedDays == 0) {
+            firstDay = day;
+        }
+        recordedDays |= bit;
+        lateDays = late ? lateDays | bit : lateDays & ~bit;
+
+        int shift = 2 * (day - 1);
+        statuses = (statuses & ~(3L << shift)) | ((long) status << shift);
+
+        if (hundredths != 0 && workedHundredths == null) {
+            workedHundredths = new int[dayCount];
+        }
+        if (workedHundredths != null) {
+            workedHundredths[day - 1] = hundredths;
+        }
+        return true;
+    }
+
+    /**
+     * Day of a date, 1 for the first date that can be recorded, or 0 if it is outside them
+     */
+    int dayOf(LocalDate date) {
+        long day = ChronoUnit.DAYS.between(firstDate, date) + 1;
+        return day >= 1 && day <= dayCount ? (int) day : 0;
+    }
+
+    /**
+     * Set the in and out time of a recorded day; either may be null
+     */
+    void setTimes(int day, LocalTime inTime, LocalTime outTime) {
+        if (inOutMinutes == null) {
+            if (inTime == null && outTime == null) {
+                return;
+            }
+            inOutMinutes = new short[2 * dayCount];
+            Arrays.fill(inOutMinutes, NO_TIME);
+        }
+        inOutMinutes[2 * (day - 1)] = toMinutes(inTime);
+        inOutMinutes[2 * (day - 1) + 1] = toMinutes(outTime);
+    }
+
+    /**
+     * Set the month totals reported by an "Employee:" summary row
+     */
+    void setSummary(int overtimeHundredths, int presentDays, int absentDays, int weeklyOffDays,
+                    int lateHundredths, int lateDayCount) {
+        this.overtimeHundredths = overtimeHundredths;
+        this.presentDays = presentDays;
+        this.absentDays = absentDays;
+        this.weeklyOffDays = weeklyOffDays;
+        this.lateHundredths = lateHundredths;
+        this.lateDayCount = lateDayCount;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public String getEmployeeName() {
+        return employeeName;
+    }
+
+    /**
+     * Month of the attendance; for records spanning a month boundary, the month they start in
+     */
+    public YearMonth getPeriod() {
+        return period;
+    }
+
+    /**
+     * Number of days with a record
+     */
+    public int getRecordedDayCount() {
+        return Integer.bitCount(recordedDays);
+    }
+
+    /**
+     * Number of recorded days with the given status code
+     */
+    int countStatus(int status) {
+        int count = 0;
+        for (int days = recordedDays; days != 0; days &= days - 1) {
+            int shift = 2 * Integer.numberOfTrailingZeros(days);
+            if ((int) (statuses >>> shift & 3) == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Number of recorded days marked late
+     */
+    public int getLateMarks() {
+        return Integer.bitCount(lateDays);
+    }
+
+    /**
+     * Worked hours of the first recorded day in hundredths. For an upload with "Employee:" summary
+     * rows this is the total for the month, which is what the salary computation reads.
+     */
+    public int getReportedWorkedHundredths() {
+        return recordedDays == 0 ? 0 : getWorkedHundredths(firstDay);
+    }
+
+    /**
+     * Worked hours of a day in hundredths; day 1 is the first of the month, or the earliest record's
+     * date for records spanning a month boundary
+     */
+    public int getWorkedHundredths(int day) {
+        return workedHundredths == null ? 0 : workedHundredths[day - 1];
+    }
+
+    public int getOvertimeHundredths() {
+        return overtimeHundredths;
+    }
+
+    /**
+     * Convert to the AttendanceRecord model: one record per recorded day, the first recorded day
+     * first (with the summary totals) and the others in date order
+     */
+    public List<AttendanceRecord> toRecords() {
+        List<AttendanceRecord> records = new ArrayList<>(getRecordedDayCount());
+        if (recordedDays == 0) {
+            return records;
+        }
+        records.add(toRecord(firstDay));
+        for (int days = recordedDays & ~(1 << (firstDay - 1)); days != 0; days &= days - 1) {
+            records.add(toRecord(Integer.numberOfTrailingZeros(days) + 1));
+        }
+
+        AttendanceRecord first = records.get(0);
+        first.setOvertime(overtimeHundredths / 100.0);
+        first.setPresentDays(presentDays);
+        first.setAbsentDays(absentDays);
+        first.setWeeklyOffDays(weeklyOffDays);
+        first.setLateHours(lateHundredths / 100.0);
+        first.setLateDays(lateDayCount);
+        return records;
+    }
+
+    private AttendanceRecord toRecord(int day) {
+        AttendanceRecord record = new AttendanceRecord();
+        record.setEmployeeId(employeeId);
+        record.setEmployeeName(employeeName);
+        record.setDate(firstDate.plusDays(day - 1));
+        record.setStatus(STATUS_NAMES[(int) (statuses >>> 2 * (day - 1) & 3)]);
+        record.setHoursWorked(getWorkedHundredths(day) / 100.0);
+        record.setLate((lateDays & 1 << (day - 1)) != 0);
+        if (inOutMinutes != null) {
+            record.setInTime(toTime(inOutMinutes[2 * (day - 1)]));
+            record.setOutTime(toTime(inOutMinutes[2 * (day - 1) + 1]));
+        }
+        return record;
+    }
+
+    /**
+     * Encode attendance records of one employee, e.g. records posted to the API. Records within one
+     * month are kept by day of that month; records spanning a month boundary by day from the
+     * earliest date. The summary totals are read from the first record.
+     * @throws IllegalArgumentException if two records have the same date or the records span more
+     * than 31 days, which cannot be encoded without losing days or late marks
+     */
+    public static MonthlyAttendance fromRecords(String employeeId, List<AttendanceRecord> records) {
+        AttendanceRecord first = records.get(0);
+        LocalDate defaultDate = first.getDate() != null ? first.getDate() : LocalDate.now();
+        LocalDate earliest = defaultDate;
+        LocalDate latest = defaultDate;
+        for (AttendanceRecord record : records) {
+            LocalDate date = record.getDate() != null ? record.getDate() : defaultDate;
+            earliest = date.isBefore(earliest) ? date : earliest;
+            latest = date.isAfter(latest) ? date : latest;
+        }
+
+        MonthlyAttendance attendance;
+        YearMonth period = YearMonth.from(earliest);
+        if (period.equals(YearMonth.from(latest))) {
+            attendance = new MonthlyAttendance(employeeId, first.getEmployeeName(), period);
+        } else {
+            long span = ChronoUnit.DAYS.between(earliest, latest) + 1;
+            if (span > MAX_DAYS) {
+                throw new IllegalArgumentException("Attendance records of employee " + employeeId + " span " + span
+                        + " days, from " + earliest + " to " + latest + "; at most " + MAX_DAYS + " are supported");
+            }
+            attendance = new MonthlyAttendance(employeeId, first.getEmployeeName(), period, earliest, (int) span);
+        }
+
+        for (AttendanceRecord record : records) {
+            LocalDate date = record.getDate() != null ? record.getDate() : defaultDate;
+            int day = attendance.dayOf(date);
+            if ((attendance.recordedDays & 1 << (day - 1)) != 0) {
+                throw new IllegalArgumentException("Employee " + employeeId + " has more than one attendance record for "
+                        + date);
+            }
+            attendance.setDay(date, statusCode(record.getStatus()), toHundredths(record.getHoursWorked()),
+                    record.isLate());
+            attendance.setTimes(day, record.getInTime(), record.getOutTime());
+        }
+        attendance.setSummary(toHundredths(first.getOvertime()), first.getPresentDays(), first.getAbsentDays(),
+                first.getWeeklyOffDays(), toHundredths(first.getLateHours()), first.getLateDays());
+        return attendance;
+    }
+
+    /**
+     * Status code of a status name such as "P", ignoring case
+     */
+    static int statusCode(String status) {
+        if ("P".equalsIgnoreCase(status)) {
+            return PRESENT;
+        } else if ("A".equalsIgnoreCase(status)) {
+            return ABSENT;
+        } else if ("WOP".equalsIgnoreCase(status)) {
+            return WEEK_OFF_PRESENT;
+        }
+        return WEEK_OFF;
+    }
+
+    /**
+     * Hours in hundredths. Parsed hours are in HH.MM form ("128:37" is 128.37) and API hours have
+     * at most two decimals, so nothing is lost and / 100.0 converts back to the same hours.
+     */
+    static int toHundredths(double hours) {
+        return (int) Math.round(hours * 100);
+    }
+
+    private static short toMinutes(LocalTime time) {
+        return time == null ? NO_TIME : (short) (time.getHour() * 60 + time.getMinute());
+    }
+
+    private static LocalTime toTime(short minutes) {
+        return minutes == NO_TIME ? null : LocalTime.of(minutes / 60, minutes % 60);
+    }
+
+    /**
+     * Rough heap size in bytes, excluding the ID and name strings
+     */
+    long estimateBytes() {
+        long bytes = 96;
+        if (workedHundredths != null) {
+            bytes += 16 + 4L * workedHundredths.length;
+        }
+        if (inOutMinutes != null) {
+            bytes += 16 + 2L * inOutMinutes.length;
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "MonthlyAttendance{id=" + employeeId + ", name='" + employeeName + "', period=" + period
+                + ", days=" + getRecordedDayCount() + ", late=" + getLateMarks() + "}";
+    }
+}
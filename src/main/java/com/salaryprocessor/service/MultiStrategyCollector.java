@@ -0,0 +1,111 @@
+package com.salaryprocessor.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Runs the "Employee:" summary strategy and, optionally, the colon pattern fallback over the same
+ * rows, so an upload is read once whichever of them matches. The summary strategy wins whenever
+ * it finds any employee, so the fallback stops looking at rows as soon as it does. Time spent in
+ * each strategy is accumulated for the parse report.
+ */
+class MultiStrategyCollector implements SheetRowHandler {
+
+    private final EmployeeSummaryCollector summaryStrategy;
+    private final ColonPatternCollector colonStrategy;
+
+    private long summaryNanos;
+    private long colonNanos;
+
+    /**
+     * @param summaryStrategy The "Employee:" summary strategy
+     * @param colonStrategy The colon pattern fallback, or null to run the summary strategy alone
+     */
+    MultiStrategyCollector(EmployeeSummaryCollector summaryStrategy, ColonPatternCollector colonStrategy) {
+        this.summaryStrategy = summaryStrategy;
+        this.colonStrategy = colonStrategy;
+    }
+
+    /**
+     * Pass each employee the summary strategy extracts to the listener as soon as it is found
+     */
+    void setSummaryListener(Consumer<MonthlyAttendance> listener) {
+        summaryStrategy.setListener(listener);
+    }
+
+    @Override
+    public void acceptRow(int rowIndex, List<String> cellValues) {
+        long start = System.nanoTime();
+        summaryStrategy.acceptRow(rowIndex, cellValues);
+        long summaryDone = System.nanoTime();
+        summaryNanos += summaryDone - start;
+
+        if (colonStrategyActive()) {
+            colonStrategy.acceptRow(rowIndex, cellValues);
+            colonNanos += System.nanoTime() - summaryDone;
+        }
+    }
+
+    @Override
+    public boolean needsRowText(int rowIndex) {
+        return summaryStrategy.needsRowText(rowIndex) || (colonStrategyActive() && colonStrategy.needsRowText(rowIndex));
+    }
+
+    @Override
+    public void endSheet() {
+        long start = System.nanoTime();
+        summaryStrategy.endSheet();
+        long summaryDone = System.nanoTime();
+        summaryNanos += summaryDone - start;
+
+        if (colonStrategy != null) {
+            colonStrategy.endSheet();
+            colonNanos += System.nanoTime() - summaryDone;
+        }
+    }
+
+    /**
+     * Merge the results collected for another sheet. Sheets must be merged in workbook order.
+     * @param partial Collector that processed a single sheet
+     * @param sheetName Name of that sheet, for logging
+     */
+    void merge(MultiStrategyCollector partial, String sheetName) {
+        summaryStrategy.merge(partial.summaryStrategy, sheetName);
+        summaryNanos += partial.summaryNanos;
+        if (colonStrategy != null) {
+            colonStrategy.merge(partial.colonStrategy);
+            colonNanos += partial.colonNanos;
+        }
+    }
+
+    /**
+     * Pick the strategy that matched and report the timings
+     * @param totalTime Wall-clock time of the whole parse
+     */
+    AttendanceParseResult toResult(Duration totalTime) {
+        Map<String, Duration> timings = new LinkedHashMap<>();
+        timings.put(AttendanceParseResult.SUMMARY_STRATEGY, Duration.ofNanos(summaryNanos));
+        if (colonStrategy != null) {
+            timings.put(AttendanceParseResult.COLON_STRATEGY, Duration.ofNanos(colonNanos));
+        }
+
+        Map<String, MonthlyAttendance> attendance = summaryStrategy.getAttendance();
+        String strategy = AttendanceParseResult.SUMMARY_STRATEGY;
+        if (attendance.isEmpty()) {
+            if (colonStrategy != null && !colonStrategy.getAttendance().isEmpty()) {
+                attendance = colonStrategy.getAttendance();
+                strategy = AttendanceParseResult.COLON_STRATEGY;
+            } else {
+                strategy = null;
+            }
+        }
+        return new AttendanceParseResult(attendance, strategy, timings, totalTime);
+    }
+
+    private boolean colonStrategyActive() {
+        return colonStrategy != null && summaryStrategy.getAttendance().isEmpty();
+    }
+}
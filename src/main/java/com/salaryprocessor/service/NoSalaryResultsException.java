@@ -0,0 +1,18 @@
+package com.salaryprocessor.service;
+
+/**
+ * Thrown when an upload yields no employee with a salary, e.g. an unknown layout or only unknown
+ * employee IDs. It is an {@link IllegalArgumentException}, so the controller answers it with 400
+ * like any other bad upload, while callers that word this case themselves can tell it apart.
+ */
+public class NoSalaryResultsException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param fileName Name of the upload the salaries were computed from
+     */
+    public NoSalaryResultsException(String fileName) {
+        super("No salary results computed from " + fileName);
+    }
+}
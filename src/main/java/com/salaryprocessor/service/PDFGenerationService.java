@@ -1,27 +1,43 @@
 package com.salaryprocessor.service;
 
 import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
 import com.itextpdf.kernel.geom.PageSize;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
 import com.itextpdf.layout.borders.Border;
 import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.element.Text;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
+import com.salaryprocessor.model.PayrollRules;
 import com.salaryprocessor.model.SalaryResult;
+import com.salaryprocessor.util.Money;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.text.DecimalFormat;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -29,9 +45,65 @@ import java.util.zip.ZipOutputStream;
 public class PDFGenerationService {
 
     private static final Logger log = LoggerFactory.getLogger(PDFGenerationService.class);
-    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("#,##0.00");
-    private static final DecimalFormat PERCENTAGE_FORMAT = new DecimalFormat("0.00%");
-    private static final DeviceRgb HEADER_BACKGROUND = new DeviceRgb(220, 220, 220);
+    static final DeviceRgb HEADER_BACKGROUND = new DeviceRgb(220, 220, 220);
+    private static final DateTimeFormatter MONTH_YEAR = DateTimeFormatter.ofPattern("MMMM yyyy");
+
+    // Styles shared by every slip; fonts are per document and set on the elements
+    private static final Style TITLE_STYLE = new Style().setFontSize(20).setTextAlignment(TextAlignment.CENTER);
+    private static final Style PERIOD_STYLE = new Style().setFontSize(12).setTextAlignment(TextAlignment.CENTER);
+    private static final Style HEADER_CELL_STYLE = new Style().setBackgroundColor(HEADER_BACKGROUND);
+
+    // Slips rendered ahead of the ZIP writer per render thread
+    private static final int RENDER_AHEAD_PER_THREAD = 4;
+
+    @Value("${pdf.render.parallel:false}")
+    private boolean parallelRender;
+
+    // 0 means one thread per available processor
+    @Value("${pdf.render.pool-size:0}")
+    private int renderPoolSize;
+
+    private ExecutorService renderExecutor;
+
+    // Stamp each slip's values onto a prebuilt page instead of laying it out
+    @Value("${pdf.render.template:false}")
+    private boolean templateRender;
+
+    private SalarySlipTemplate slipTemplate;
+
+    private PdfFontPool fontPool;
+
+    /**
+     * Load the slip fonts and build the slip template, which also renders the combined PDF, and the
+     * bounded worker pool used for parallel slip rendering, if enabled
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        fontPool = new PdfFontPool();
+        slipTemplate = new SalarySlipTemplate(fontPool);
+        if (templateRender) {
+            log.info("Salary slips are rendered from a prebuilt template");
+        }
+        if (parallelRender) {
+            if (renderPoolSize <= 0) {
+                renderPoolSize = Runtime.getRuntime().availableProcessors();
+            }
+            AtomicInteger threadCount = new AtomicInteger();
+            renderExecutor = Executors.newFixedThreadPool(renderPoolSize, runnable -> {
+                Thread thread = new Thread(runnable, "pdf-render-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            log.info("Parallel salary slip rendering enabled with {} threads", renderPoolSize);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (renderExecutor != null) {
+            renderExecutor.shutdownNow();
+        }
+    }
 
     /**
      * Generate a salary slip PDF for an employee
@@ -58,106 +130,13 @@ public class PDFGenerationService {
             salaryResult.setEmployeeName("Employee " + salaryResult.getEmployeeId());
         }
         
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        
+        String monthYear = LocalDate.now().format(MONTH_YEAR);
+        byte[] pdfData;
         try {
-            // Create a new PDF document
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdf = new PdfDocument(writer);
-            Document document = new Document(pdf, PageSize.A4);
-            
-            log.debug("Created PDF document structure for employee: {}", salaryResult.getEmployeeId());
-            
-            // Add title
-            Paragraph title = new Paragraph("SALARY SLIP")
-                    .setFontSize(20)
-                    .setBold()
-                    .setTextAlignment(TextAlignment.CENTER);
-            document.add(title);
-            
-            // Add month and year
-            LocalDate now = LocalDate.now();
-            String monthYear = now.format(DateTimeFormatter.ofPattern("MMMM yyyy"));
-            Paragraph period = new Paragraph("For the month of " + monthYear)
-                    .setFontSize(12)
-                    .setTextAlignment(TextAlignment.CENTER);
-            document.add(period);
-            
-            document.add(new Paragraph("\n"));
-            
-            // Create employee info table
-            Table employeeTable = new Table(UnitValue.createPercentArray(new float[]{30, 70}));
-            employeeTable.setWidth(UnitValue.createPercentValue(100));
-            
-            employeeTable.addCell(createHeaderCell("Employee ID:"));
-            employeeTable.addCell(createValueCell(salaryResult.getEmployeeId()));
-            
-            employeeTable.addCell(createHeaderCell("Employee Name:"));
-            employeeTable.addCell(createValueCell(salaryResult.getEmployeeName()));
-            
-            document.add(employeeTable);
-            document.add(new Paragraph("\n"));
-            
-            // Create salary details table
-            Table salaryTable = new Table(UnitValue.createPercentArray(new float[]{50, 50}));
-            salaryTable.setWidth(UnitValue.createPercentValue(100));
-            
-            salaryTable.addCell(createHeaderCell("Monthly Salary:"));
-            salaryTable.addCell(createValueCell("₹ " + DECIMAL_FORMAT.format(salaryResult.getMonthlySalary())));
-            
-            salaryTable.addCell(createHeaderCell("Expected Hours:"));
-            salaryTable.addCell(createValueCell(DECIMAL_FORMAT.format(salaryResult.getExpectedHours()) + " hours"));
-            
-            salaryTable.addCell(createHeaderCell("Actual Worked Hours:"));
-            salaryTable.addCell(createValueCell(DECIMAL_FORMAT.format(salaryResult.getActualWorkedHours()) + " hours"));
-            
-            salaryTable.addCell(createHeaderCell("Late Marks:"));
-            salaryTable.addCell(createValueCell(String.valueOf(salaryResult.getLateMarks())));
-            
-            salaryTable.addCell(createHeaderCell("Coefficient:"));
-            salaryTable.addCell(createValueCell(PERCENTAGE_FORMAT.format(salaryResult.getCoefficient())));
-            
-            // Add late mark penalty if there are late marks
-            if (salaryResult.getLateMarks() > 0) {
-                salaryTable.addCell(createHeaderCell("Late Mark Penalty:"));
-                salaryTable.addCell(createValueCell(PERCENTAGE_FORMAT.format(salaryResult.getLateMarkPenalty())));
-            }
-            
-            salaryTable.addCell(createHeaderCell("Final Payable Salary:").setBold());
-            salaryTable.addCell(createValueCell("₹ " + DECIMAL_FORMAT.format(salaryResult.getFinalPayableSalary())).setBold());
-            
-            document.add(salaryTable);
-            
-            // Add late marks explanation if applicable
-            if (salaryResult.getLateMarks() > 0) {
-                document.add(new Paragraph("\n"));
-                Paragraph lateMarksInfo = new Paragraph("Late Marks Information:")
-                        .setBold()
-                        .setFontSize(12);
-                document.add(lateMarksInfo);
-                
-                String lateMarkText = "You have " + salaryResult.getLateMarks() + " late mark(s). ";
-                if (salaryResult.getLateMarks() <= 3) {
-                    lateMarkText += "First 3 late marks result in a 0.5 day salary deduction.";
-                } else {
-                    lateMarkText += "First 3 late marks result in a 0.5 day salary deduction. " +
-                            "Each additional late mark results in a 0.5/3 day salary deduction.";
-                }
-                
-                document.add(new Paragraph(lateMarkText));
-            }
-            
-            // Add signature section
-            document.add(new Paragraph("\n\n"));
-            Table signatureTable = new Table(2).useAllAvailableWidth();
-            signatureTable.addCell(new Cell().add(new Paragraph("Employee Signature")).setBorder(Border.NO_BORDER));
-            signatureTable.addCell(new Cell().add(new Paragraph("Employer Signature")).setBorder(Border.NO_BORDER));
-            document.add(signatureTable);
-            
-            // Close document
-            document.close();
+            pdfData = templateRender
+                    ? slipTemplate.render(salaryResult, monthYear)
+                    : renderLayout(salaryResult, monthYear);
             log.info("PDF generation completed successfully for employee: {}", salaryResult.getEmployeeId());
-            
         } catch (Exception e) {
             log.error("Error generating PDF for employee {}: {}", 
                     salaryResult.getEmployeeId(), e.getMessage(), e);
@@ -165,6 +144,110 @@ public class PDFGenerationService {
                     salaryResult.getEmployeeId() + ": " + e.getMessage(), e);
         }
         
+        return pdfData;
+    }
+
+    /**
+     * Lay the slip out with the layout engine
+     */
+    byte[] renderLayout(SalaryResult salaryResult, String monthYear) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        
+        // Create a new PDF document
+        PdfWriter writer = new PdfWriter(baos);
+        PdfDocument pdf = new PdfDocument(writer);
+        Document document = new Document(pdf, PageSize.A4);
+        PdfFontPool.DocumentFonts fonts = fontPool.documentFonts();
+        PdfFont bold = fonts.bold;
+        document.setFont(fonts.regular);
+        
+        log.debug("Created PDF document structure for employee: {}", salaryResult.getEmployeeId());
+        
+        // Add title
+        Paragraph title = new Paragraph("SALARY SLIP")
+                .addStyle(TITLE_STYLE)
+                .setFont(bold);
+        document.add(title);
+        
+        // Add month and year
+        Paragraph period = createParagraph(fonts, fonts.regular, "For the month of " + monthYear)
+                .addStyle(PERIOD_STYLE);
+        document.add(period);
+        
+        document.add(new Paragraph("\n"));
+        
+        // Create employee info table
+        Table employeeTable = new Table(UnitValue.createPercentArray(new float[]{30, 70}));
+        employeeTable.setWidth(UnitValue.createPercentValue(100));
+        
+        employeeTable.addCell(createHeaderCell(bold, "Employee ID:"));
+        employeeTable.addCell(createValueCell(fonts, salaryResult.getEmployeeId()));
+        
+        employeeTable.addCell(createHeaderCell(bold, "Employee Name:"));
+        employeeTable.addCell(createValueCell(fonts, salaryResult.getEmployeeName()));
+        
+        document.add(employeeTable);
+        document.add(new Paragraph("\n"));
+        
+        // Create salary details table. Amounts are formatted from exact paise into one buffer.
+        StringBuilder text = new StringBuilder(32);
+        Table salaryTable = new Table(UnitValue.createPercentArray(new float[]{50, 50}));
+        salaryTable.setWidth(UnitValue.createPercentValue(100));
+        
+        salaryTable.addCell(createHeaderCell(bold, "Monthly Salary:"));
+        salaryTable.addCell(createValueCell(fonts, formatRupees(text, salaryResult.getMonthlySalary())));
+        
+        salaryTable.addCell(createHeaderCell(bold, "Expected Hours:"));
+        salaryTable.addCell(createValueCell(fonts, formatHours(text, salaryResult.getExpectedHours())));
+        
+        salaryTable.addCell(createHeaderCell(bold, "Actual Worked Hours:"));
+        salaryTable.addCell(createValueCell(fonts, formatHours(text, salaryResult.getActualWorkedHours())));
+        
+        salaryTable.addCell(createHeaderCell(bold, "Late Marks:"));
+        salaryTable.addCell(createValueCell(fonts, String.valueOf(salaryResult.getLateMarks())));
+        
+        salaryTable.addCell(createHeaderCell(bold, "Coefficient:"));
+        salaryTable.addCell(createValueCell(fonts, formatPercent(text, salaryResult.getCoefficient())));
+        
+        // Add late mark penalty if there are late marks
+        if (salaryResult.getLateMarks() > 0) {
+            salaryTable.addCell(createHeaderCell(bold, "Late Mark Penalty:"));
+            salaryTable.addCell(createValueCell(fonts, formatRupees(text, salaryResult.getLateMarkPenalty())));
+        }
+        
+        salaryTable.addCell(createHeaderCell(bold, "Final Payable Salary:"));
+        salaryTable.addCell(new Cell().add(
+                createParagraph(fonts, bold, formatRupees(text, salaryResult.getFinalPayableSalary()))));
+        
+        document.add(salaryTable);
+        
+        // Add late marks explanation if applicable
+        if (salaryResult.getLateMarks() > 0) {
+            document.add(new Paragraph("\n"));
+            Paragraph lateMarksInfo = new Paragraph("Late Marks Information:")
+                    .setFont(bold)
+                    .setFontSize(12);
+            document.add(lateMarksInfo);
+            
+            PayrollRules rules = rulesOf(salaryResult);
+            String lateMarkText = "You have " + salaryResult.getLateMarks() + " late mark(s). " + lateMarkRule(rules);
+            if (showsAdditionalLateMarkRule(rules, salaryResult.getLateMarks())) {
+                lateMarkText += " " + additionalLateMarkRule(rules);
+            }
+            
+            document.add(new Paragraph(lateMarkText));
+        }
+        
+        // Add signature section
+        document.add(new Paragraph("\n\n"));
+        Table signatureTable = new Table(2).useAllAvailableWidth();
+        signatureTable.addCell(new Cell().add(new Paragraph("Employee Signature")).setBorder(Border.NO_BORDER));
+        signatureTable.addCell(new Cell().add(new Paragraph("Employer Signature")).setBorder(Border.NO_BORDER));
+        document.add(signatureTable);
+        
+        // Close document
+        document.close();
+        
         return baos.toByteArray();
     }
     
@@ -174,6 +257,19 @@ public class PDFGenerationService {
      * @return ZIP file content as byte array
      */
     public byte[] generateSalarySlipsZip(List<SalaryResult> salaryResults) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeSalarySlipsZip(salaryResults, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Write a ZIP file containing PDF salary slips for all employees to a stream, one slip at a
+     * time, so only the slips being rendered are held in memory whatever the headcount
+     * @param salaryResults List of salary computation results
+     * @param out Receives the ZIP; it is finished but not closed
+     * @return Number of slips added to the ZIP
+     */
+    public int writeSalarySlipsZip(List<SalaryResult> salaryResults, OutputStream out) throws IOException {
         log.info("Starting ZIP generation for {} salary results", salaryResults.size());
         
         // Validate salary results
@@ -191,77 +287,288 @@ public class PDFGenerationService {
                     result.getMonthlySalary(), result.getFinalPayableSalary());
         }
         
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ZipOutputStream zipOut = new ZipOutputStream(baos);
+        ZipOutputStream zipOut = new ZipOutputStream(out);
         
         int successCount = 0;
-        int failureCount = 0;
+        if (renderExecutor != null && salaryResults.size() > 1) {
+            successCount = addSalarySlipsInParallel(zipOut, salaryResults);
+        } else {
+            for (SalaryResult result : salaryResults) {
+                if (addSalarySlip(zipOut, result)) {
+                    successCount++;
+                }
+            }
+        }
+        int failureCount = salaryResults.size() - successCount;
+        
+        log.info("ZIP file generation completed. Success: {}, Failures: {}", successCount, failureCount);
+        
+        zipOut.finish();
+        return successCount;
+    }
+
+    /**
+     * Write the salary slips of all employees as the pages of one PDF document, with a bookmark per
+     * employee. The pages share their fonts and static content, so the document is much smaller
+     * than a ZIP of separate slips and is written faster. Salaries without an employee ID are left out.
+     * @param salaryResults List of salary computation results, one page each
+     * @param out Receives the PDF; it is not closed
+     * @return Number of slips written
+     */
+    public int writeSalarySlipsPdf(List<SalaryResult> salaryResults, OutputStream out) {
+        if (salaryResults == null || salaryResults.isEmpty()) {
+            log.error("No salary results provided for PDF generation");
+            throw new IllegalArgumentException("Salary results cannot be null or empty");
+        }
+        log.info("Starting combined PDF generation for {} salary results", salaryResults.size());
         
+        List<SalaryResult> slips = new ArrayList<>(salaryResults.size());
         for (SalaryResult result : salaryResults) {
-            try {
-                // Skip null results
-                if (result == null) {
-                    log.warn("Skipping null salary result");
-                    failureCount++;
-                    continue;
+            if (result.getEmployeeId() == null || result.getEmployeeId().isEmpty()) {
+                log.error("Skipping salary result without an employee ID");
+                continue;
+            }
+            if (result.getEmployeeName() == null || result.getEmployeeName().isEmpty()) {
+                log.warn("Employee name is null or empty for ID: {}, using default name", result.getEmployeeId());
+                result.setEmployeeName("Employee " + result.getEmployeeId());
+            }
+            slips.add(result);
+        }
+        if (slips.isEmpty()) {
+            throw new IllegalArgumentException("No salary result has an employee ID");
+        }
+        
+        slipTemplate.renderDocument(slips, LocalDate.now().format(MONTH_YEAR), out);
+        log.info("Combined PDF generation completed. Pages: {}, skipped: {}",
+                slips.size(), salaryResults.size() - slips.size());
+        return slips.size();
+    }
+
+    /**
+     * Generate the salary slip of one employee and add it to a ZIP as Salary_Slip_{employeeId}.pdf
+     * @param zipOut The ZIP being written
+     * @param result The salary computation result
+     * @return True if the slip was added, false if it was skipped or failed
+     */
+    public boolean addSalarySlip(ZipOutputStream zipOut, SalaryResult result) {
+        byte[] pdfData = renderSlip(result);
+        return pdfData != null && writeSlip(zipOut, result, pdfData);
+    }
+
+    /**
+     * Render the slips on the worker pool and add them to the ZIP from the calling thread, in
+     * the order of the results. At most a few slips per worker are rendered ahead of the writer,
+     * so a large run does not hold all its PDFs in memory at once.
+     * @return Number of slips added
+     */
+    private int addSalarySlipsInParallel(ZipOutputStream zipOut, List<SalaryResult> salaryResults)
+            throws IOException {
+        int count = salaryResults.size();
+        int window = RENDER_AHEAD_PER_THREAD * renderPoolSize;
+        log.info("Rendering {} salary slips on {} threads", count, renderPoolSize);
+        
+        Deque<Future<byte[]>> rendering = new ArrayDeque<>(window);
+        int successCount = 0;
+        int next = 0;
+        try {
+            for (int written = 0; written < count; written++) {
+                while (next < count && next - written < window) {
+                    SalaryResult result = salaryResults.get(next++);
+                    rendering.add(renderExecutor.submit(() -> renderSlip(result)));
                 }
-                
-                // Ensure employeeId is not null
-                if (result.getEmployeeId() == null || result.getEmployeeId().isEmpty()) {
-                    log.warn("Skipping salary result with null or empty employee ID");
-                    failureCount++;
-                    continue;
+                SalaryResult result = salaryResults.get(written);
+                byte[] pdfData;
+                try {
+                    pdfData = rendering.poll().get();
+                } catch (ExecutionException e) {
+                    log.error("Error generating PDF for employee {}: {}", 
+                            result != null ? result.getEmployeeId() : "unknown", e.getCause().getMessage(), e.getCause());
+                    pdfData = null;
                 }
-                
-                // Create PDF file name
-                String fileName = "Salary_Slip_" + result.getEmployeeId() + ".pdf";
-                log.info("Generating PDF for employee: {}, name: {}", result.getEmployeeId(), 
-                        result.getEmployeeName() != null ? result.getEmployeeName() : "Unknown");
-                
-                // Generate PDF
-                byte[] pdfData = generateSalarySlip(result);
-                
-                // Verify PDF data is not null or empty
-                if (pdfData == null || pdfData.length == 0) {
-                    log.error("Failed to generate PDF for employee {}: Empty PDF data", result.getEmployeeId());
-                    failureCount++;
-                    continue;
+                if (pdfData != null && writeSlip(zipOut, result, pdfData)) {
+                    successCount++;
                 }
-                
-                // Add PDF to ZIP
-                ZipEntry zipEntry = new ZipEntry(fileName);
-                zipOut.putNextEntry(zipEntry);
-                zipOut.write(pdfData);
-                zipOut.closeEntry();
-                log.info("Successfully added {} to ZIP file ({} bytes)", fileName, pdfData.length);
-                successCount++;
-            } catch (Exception e) {
-                failureCount++;
-                log.error("Error generating PDF for employee {}: {}", 
-                        result != null ? result.getEmployeeId() : "unknown", e.getMessage(), e);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering salary slips", e);
+        } finally {
+            // Only left over if the writer was interrupted
+            rendering.forEach(future -> future.cancel(true));
         }
-        
-        log.info("ZIP file generation completed. Success: {}, Failures: {}", successCount, failureCount);
-        
-        zipOut.close();
-        return baos.toByteArray();
+        return successCount;
+    }
+
+    /**
+     * Render the slip of one result
+     * @return The PDF, or null if the result was skipped or rendering failed
+     */
+    private byte[] renderSlip(SalaryResult result) {
+        try {
+            // Skip null results
+            if (result == null) {
+                log.warn("Skipping null salary result");
+                return null;
+            }
+            
+            // Ensure employeeId is not null
+            if (result.getEmployeeId() == null || result.getEmployeeId().isEmpty()) {
+                log.warn("Skipping salary result with null or empty employee ID");
+                return null;
+            }
+            
+            log.info("Generating PDF for employee: {}, name: {}", result.getEmployeeId(), 
+                    result.getEmployeeName() != null ? result.getEmployeeName() : "Unknown");
+            
+            // Generate PDF
+            byte[] pdfData = generateSalarySlip(result);
+            
+            // Verify PDF data is not null or empty
+            if (pdfData == null || pdfData.length == 0) {
+                log.error("Failed to generate PDF for employee {}: Empty PDF data", result.getEmployeeId());
+                return null;
+            }
+            return pdfData;
+        } catch (Exception e) {
+            log.error("Error generating PDF for employee {}: {}", 
+                    result != null ? result.getEmployeeId() : "unknown", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Add a rendered slip to the ZIP as Salary_Slip_{employeeId}.pdf
+     * @return True if it was added
+     */
+    private boolean writeSlip(ZipOutputStream zipOut, SalaryResult result, byte[] pdfData) {
+        String fileName = "Salary_Slip_" + result.getEmployeeId() + ".pdf";
+        try {
+            ZipEntry zipEntry = new ZipEntry(fileName);
+            zipOut.putNextEntry(zipEntry);
+            zipOut.write(pdfData);
+            zipOut.closeEntry();
+            log.info("Successfully added {} to ZIP file ({} bytes)", fileName, pdfData.length);
+            return true;
+        } catch (IOException e) {
+            log.error("Error adding PDF for employee {} to ZIP: {}", result.getEmployeeId(), e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Format a rupee amount as "₹ 12,345.67" from its exact paise
+     */
+    static String formatRupees(StringBuilder text, double rupees) {
+        text.setLength(0);
+        return Money.appendRupees(text.append("₹ "), Money.fromRupees(rupees)).toString();
+    }
+
+    /**
+     * Format hours with two decimals and thousands separators
+     */
+    static String formatHours(StringBuilder text, double hours) {
+        text.setLength(0);
+        return Money.appendHundredths(text, Math.round(hours * 100), true).append(" hours").toString();
+    }
+
+    /**
+     * Format a ratio as a percentage with two decimals
+     */
+    static String formatPercent(StringBuilder text, double ratio) {
+        text.setLength(0);
+        return Money.appendPercent(text, Math.round(ratio * Money.RATIO_SCALE)).toString();
+    }
+
+    /**
+     * Rule set of a salary result, the standard one for results that do not carry theirs
+     */
+    static PayrollRules rulesOf(SalaryResult salaryResult) {
+        return salaryResult.getRules() != null ? salaryResult.getRules() : PayrollRules.DEFAULT;
+    }
+
+    /**
+     * The late mark rule of a rule set, e.g. "First 3 late marks result in a 0.5 day salary deduction."
+     */
+    static String lateMarkRule(PayrollRules rules) {
+        int firstPenalized = rules.getForgivenLateMarks() + 1;
+        StringBuilder text = new StringBuilder(64);
+        text.append(firstPenalized == 1 ? "The first late mark results in " : "First " + firstPenalized + " late marks result in ");
+        if (rules.getLateMarkPenaltyParts() == 0) {
+            text.append("no salary deduction.");
+        } else {
+            appendDays(text.append("a "), rules.getLateMarkPenaltyParts()).append(" day salary deduction.");
+        }
+        return text.toString();
+    }
+
+    /**
+     * The rule for the late marks after the first penalized one, with the monthly limit if the rule
+     * set has one, e.g. "Each additional late mark results in a 0.5/3 day salary deduction."
+     * @return The rule, or null if those late marks cost nothing more and there is no limit
+     */
+    static String additionalLateMarkRule(PayrollRules rules) {
+        int additionalParts = rules.getAdditionalLateMarkPenaltyParts();
+        int maxParts = rules.getMaxLateMarkPenaltyParts();
+        if (additionalParts == 0 && maxParts == 0) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder(80);
+        if (additionalParts > 0) {
+            appendDays(text.append("Each additional late mark results in a "), additionalParts)
+                    .append(" day salary deduction");
+        }
+        if (maxParts > 0) {
+            text.append(additionalParts > 0 ? ", up to " : "Deductions are limited to ");
+            appendDays(text, maxParts).append(maxParts > PayrollRules.PENALTY_PARTS_PER_DAY ? " days" : " day")
+                    .append(" a month");
+        }
+        return text.append('.').toString();
+    }
+
+    /**
+     * Whether a slip with the given late marks explains the additional late mark rule as well
+     */
+    static boolean showsAdditionalLateMarkRule(PayrollRules rules, int lateMarks) {
+        return lateMarks > rules.getForgivenLateMarks() + 1 && additionalLateMarkRule(rules) != null;
+    }
+
+    /**
+     * Append sixths of a day as days: in halves where they divide evenly ("0.5", "1.5"), otherwise
+     * as halves over three ("0.5/3", "1/3")
+     */
+    private static StringBuilder appendDays(StringBuilder text, int parts) {
+        boolean wholeHalves = parts % 3 == 0;
+        int halves = wholeHalves ? parts / 3 : parts;
+        text.append(halves / 2);
+        if (halves % 2 != 0) {
+            text.append(".5");
+        }
+        return wholeHalves ? text : text.append("/3");
     }
 
     /**
      * Create a header cell for the salary slip tables
      */
-    private Cell createHeaderCell(String text) {
+    private Cell createHeaderCell(PdfFont bold, String text) {
         Cell cell = new Cell();
-        cell.setBackgroundColor(HEADER_BACKGROUND);
-        cell.add(new Paragraph(text).setBold());
+        cell.addStyle(HEADER_CELL_STYLE);
+        cell.add(new Paragraph(text).setFont(bold));
         return cell;
     }
 
     /**
      * Create a value cell for the salary slip tables
      */
-    private Cell createValueCell(String text) {
-        return new Cell().add(new Paragraph(text));
+    private Cell createValueCell(PdfFontPool.DocumentFonts fonts, String text) {
+        return new Cell().add(createParagraph(fonts, fonts.regular, text));
+    }
+
+    /**
+     * Create a paragraph in the given font, with the characters it cannot show in its fallback font
+     */
+    private static Paragraph createParagraph(PdfFontPool.DocumentFonts fonts, PdfFont font, String text) {
+        Paragraph paragraph = new Paragraph();
+        fonts.forEachRun(font, text, (runFont, run) -> paragraph.add(new Text(run).setFont(runFont)));
+        return paragraph;
     }
 }
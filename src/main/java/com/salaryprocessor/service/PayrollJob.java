@@ -0,0 +1,121 @@
+package com.salaryprocessor.service;
+
+import com.salaryprocessor.model.PayrollContext;
+import com.salaryprocessor.model.SalaryResult;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A payroll run submitted through {@link PayrollJobService}: its parameters, how far the
+ * pipeline has got, and once it is done the computed salaries and the ZIP of salary slips on disk.
+ * The job worker updates it while request threads read it.
+ */
+public class PayrollJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final String fileName;
+    private final PayrollContext context;
+    private final PipelineProgress progress = new PipelineProgress();
+    private final Instant submittedAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile List<SalaryResult> results = Collections.emptyList();
+    private volatile Path zipFile;
+    private volatile String error;
+
+    PayrollJob(String id, String fileName, PayrollContext context) {
+        this.id = id;
+        this.fileName = fileName;
+        this.context = context;
+    }
+
+    void start() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void complete(List<SalaryResult> results, Path zipFile) {
+        this.results = Collections.unmodifiableList(results);
+        this.zipFile = zipFile;
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    void fail(String error) {
+        this.error = error;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+
+    /**
+     * Whether the job finished before the given time, successfully or not
+     */
+    boolean finishedBefore(Instant time) {
+        Instant finished = finishedAt;
+        return finished != null && finished.isBefore(time);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public PayrollContext getContext() {
+        return context;
+    }
+
+    public PipelineProgress getProgress() {
+        return progress;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * The computed salaries sorted by employee ID, empty until the job has completed
+     */
+    public List<SalaryResult> getResults() {
+        return results;
+    }
+
+    /**
+     * The ZIP of salary slips, or null until the job has completed
+     */
+    public Path getZipFile() {
+        return zipFile;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "PayrollJob{id=" + id + ", file=" + fileName + ", status=" + status + ", " + progress + "}";
+    }
+}
@@ -0,0 +1,188 @@
+package com.salaryprocessor.service;
+
+import com.salaryprocessor.model.PayrollContext;
+import com.salaryprocessor.model.SalaryResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs payroll uploads in the background so a request only has to wait for the upload itself.
+ * Submitting moves the upload to disk and queues a job; a fixed pool of workers runs each job
+ * through the salary pipeline and writes its ZIP of slips to a file in the upload directory.
+ * The queue is bounded, so a burst of uploads is rejected instead of piling up. A job whose
+ * upload yields no salary fails rather than completing with an empty ZIP. Finished jobs are kept
+ * for the retention time and removed, with their ZIP, on a later submit or lookup.
+ */
+@Service
+public class PayrollJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(PayrollJobService.class);
+
+    private final ExcelParserService excelParserService;
+    private final SalaryPipelineService salaryPipelineService;
+
+    // Jobs that run at once, each with its own parse and compute threads
+    @Value("${salary.jobs.pool-size:2}")
+    private int poolSize;
+
+    // Jobs that may wait for a worker before submits are rejected
+    @Value("${salary.jobs.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${salary.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Value("${file.upload.dir:uploads}")
+    private String uploadDir;
+
+    private Path jobPath;
+
+    private ThreadPoolExecutor jobExecutor;
+
+    private final Map<String, PayrollJob> jobs = new ConcurrentHashMap<>();
+
+    public PayrollJobService(ExcelParserService excelParserService, SalaryPipelineService salaryPipelineService) {
+        this.excelParserService = excelParserService;
+        this.salaryPipelineService = salaryPipelineService;
+    }
+
+    /**
+     * Create the directory for job ZIPs and the bounded worker pool
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        jobPath = Paths.get(uploadDir).toAbsolutePath();
+        Files.createDirectories(jobPath);
+        AtomicInteger threadCount = new AtomicInteger();
+        jobExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "payroll-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        log.info("Payroll jobs run on {} workers with a queue of {}; finished jobs are kept for {} minutes",
+                poolSize, queueCapacity, retentionMinutes);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (jobExecutor != null) {
+            jobExecutor.shutdownNow();
+        }
+        jobs.values().forEach(job -> deleteFile(job.getZipFile()));
+        jobs.clear();
+    }
+
+    /**
+     * Queue a payroll run for an upload
+     * @param file The Excel file with attendance data
+     * @param context Parameters of this payroll run
+     * @return The queued job
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    public PayrollJob submit(MultipartFile file, PayrollContext context) throws IOException {
+        purgeExpiredJobs();
+        Path upload = excelParserService.spoolUpload(file);
+        PayrollJob job = new PayrollJob(UUID.randomUUID().toString(), file.getOriginalFilename(), context);
+        jobs.put(job.getId(), job);
+        try {
+            jobExecutor.execute(() -> runJob(job, upload));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            deleteFile(upload);
+            throw e;
+        }
+        log.info("Queued payroll job {} for {} ({} jobs waiting)", job.getId(), job.getFileName(),
+                jobExecutor.getQueue().size());
+        return job;
+    }
+
+    /**
+     * Look up a job by ID
+     * @return The job, or null if it is unknown or has expired
+     */
+    public PayrollJob getJob(String jobId) {
+        purgeExpiredJobs();
+        return jobs.get(jobId);
+    }
+
+    private void runJob(PayrollJob job, Path upload) {
+        job.start();
+        log.info("Starting payroll job {} for {}", job.getId(), job.getFileName());
+        Path zipFile = null;
+        try {
+            zipFile = Files.createTempFile(jobPath, "salary-slips-", ".zip");
+            List<SalaryResult> results;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(zipFile))) {
+                results = salaryPipelineService.run(upload, job.getContext(), out, job.getProgress());
+            }
+            job.complete(results, zipFile);
+            log.info("Payroll job {} completed: {} salaries, {} slips", job.getId(), results.size(),
+                    job.getProgress().getRendered());
+        } catch (NoSalaryResultsException e) {
+            // The pipeline names the spooled copy; report the upload's own name
+            log.warn("Payroll job {} failed: {}", job.getId(), e.getMessage());
+            deleteFile(zipFile);
+            job.fail("No salary results computed from " + job.getFileName());
+        } catch (IllegalArgumentException e) {
+            log.warn("Payroll job {} failed: {}", job.getId(), e.getMessage());
+            deleteFile(zipFile);
+            job.fail(e.getMessage());
+        } catch (Exception e) {
+            log.error("Payroll job {} failed: {}", job.getId(), e.getMessage(), e);
+            deleteFile(zipFile);
+            job.fail(e.getMessage());
+        } finally {
+            deleteFile(upload);
+        }
+    }
+
+    /**
+     * Remove jobs that finished more than the retention time ago, with their ZIPs
+     */
+    private void purgeExpiredJobs() {
+        Instant cutoff = Instant.now().minus(retentionMinutes, ChronoUnit.MINUTES);
+        jobs.values().removeIf(job -> {
+            if (!job.finishedBefore(cutoff)) {
+                return false;
+            }
+            log.info("Removing expired payroll job {}", job.getId());
+            deleteFile(job.getZipFile());
+            return true;
+        });
+    }
+
+    private void deleteFile(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.salaryprocessor.service;
+
+import com.salaryprocessor.config.PayrollRulesProperties;
+import com.salaryprocessor.model.PayrollRules;
+import com.salaryprocessor.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compiles the payroll rule sets declared in configuration into {@link PayrollRules}, whose late
+ * mark ladder is evaluated once into a penalty table, and hands them out by name. Each rule set is
+ * compiled once at startup and carries its version, so every run shares the same compiled rules.
+ * Runs that do not name a rule set get the configured default, or the standard rules if it is
+ * not declared.
+ */
+@Service
+public class PayrollRuleEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(PayrollRuleEngine.class);
+
+    private final PayrollRulesProperties properties;
+
+    private volatile Map<String, PayrollRules> ruleSets = Collections.emptyMap();
+
+    public PayrollRuleEngine(PayrollRulesProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Compile the declared rule sets; an invalid rule set fails the startup
+     */
+    @PostConstruct
+    public void init() {
+        Map<String, PayrollRules> compiled = new LinkedHashMap<>();
+        for (Map.Entry<String, PayrollRulesProperties.RuleSet> entry : properties.getRules().entrySet()) {
+            compiled.put(entry.getKey(), compile(entry.getKey(), entry.getValue()));
+        }
+        compiled.putIfAbsent(properties.getDefaultRuleSet(), PayrollRules.DEFAULT);
+        ruleSets = Collections.unmodifiableMap(compiled);
+        log.info("Payroll rule sets: {} (default: {})", ruleSets.values(), properties.getDefaultRuleSet());
+    }
+
+    /**
+     * Compiled rules of a rule set
+     * @param ruleSet Name of the rule set, or null for the default one
+     * @return The compiled rules
+     * @throws IllegalArgumentException if no rule set has that name
+     */
+    public PayrollRules getRules(String ruleSet) {
+        String name = ruleSet == null || ruleSet.trim().isEmpty() ? properties.getDefaultRuleSet() : ruleSet.trim();
+        PayrollRules rules = ruleSets.get(name);
+        if (rules == null) {
+            throw new IllegalArgumentException("Unknown payroll rule set: " + name);
+        }
+        return rules;
+    }
+
+    /**
+     * All rule sets by name
+     */
+    public Map<String, PayrollRules> getRuleSets() {
+        return ruleSets;
+    }
+
+    private PayrollRules compile(String name, PayrollRulesProperties.RuleSet ruleSet) {
+        long maxCoefficient = ruleSet.getMaxCoefficient() > 0
+                ? Math.round(ruleSet.getMaxCoefficient() * Money.RATIO_SCALE)
+                : PayrollRules.NO_COEFFICIENT_CAP;
+        PayrollRules rules = new PayrollRules(name, ruleSet.getVersion(), ruleSet.getHoursPerDay(),
+                ruleSet.getSalaryDaysPerMonth(), ruleSet.getForgivenLateMarks(),
+                ruleSet.getLateMarkPenaltyParts(), ruleSet.getAdditionalLateMarkPenaltyParts(),
+                ruleSet.getMaxLateMarkPenaltyParts(), maxCoefficient);
+        log.info("Compiled payroll rule set {}", rules);
+        return rules;
+    }
+}
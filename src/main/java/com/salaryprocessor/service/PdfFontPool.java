@@ -0,0 +1,146 @@
+package com.salaryprocessor.service;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.TrueTypeFont;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Fonts of the salary slips, loaded and parsed once and shared by every rendering thread. Text is
+ * shown in the standard Helvetica, which PDF viewers have built in, so it is never embedded. The
+ * characters Helvetica cannot show, above all the rupee sign, fall back to DejaVu Sans from the
+ * classpath (reduced to the Latin characters and common punctuation), and only those glyphs are
+ * embedded in a document. A PdfFont belongs to the document it is used in, so each document gets
+ * its own {@link DocumentFonts} over the shared font programs.
+ */
+final class PdfFontPool {
+
+    static final String FALLBACK_FONT = "fonts/DejaVuSans-Latin.ttf";
+    static final String BOLD_FALLBACK_FONT = "fonts/DejaVuSans-Bold-Latin.ttf";
+
+    // Fallback subsets kept per font; documents with other glyphs are subset without the cache
+    private static final int MAX_CACHED_SUBSETS = 64;
+
+    private final FontProgram regular;
+    private final FontProgram bold;
+    private final TrueTypeFont regularFallback;
+    private final TrueTypeFont boldFallback;
+
+    PdfFontPool() throws IOException {
+        regular = FontProgramFactory.createFont(StandardFonts.HELVETICA);
+        bold = FontProgramFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        regularFallback = loadFont(FALLBACK_FONT);
+        boldFallback = loadFont(BOLD_FALLBACK_FONT);
+    }
+
+    /**
+     * New fonts for one document
+     */
+    DocumentFonts documentFonts() {
+        return new DocumentFonts(PdfFontFactory.createFont(regular, PdfEncodings.WINANSI),
+                PdfFontFactory.createFont(bold, PdfEncodings.WINANSI),
+                createFallbackFont(regularFallback), createFallbackFont(boldFallback));
+    }
+
+    private static PdfFont createFallbackFont(TrueTypeFont fontProgram) {
+        // Identity-H with embedding, so any character of the font can be shown
+        return PdfFontFactory.createFont(fontProgram, PdfEncodings.IDENTITY_H,
+                PdfFontFactory.EmbeddingStrategy.FORCE_EMBEDDED);
+    }
+
+    private static TrueTypeFont loadFont(String path) throws IOException {
+        try (InputStream in = PdfFontPool.class.getClassLoader().getResourceAsStream(path)) {
+            if (in == null) {
+                throw new FileNotFoundException("Font not found on the classpath: " + path);
+            }
+            return new SubsetCachingFont(in.readAllBytes());
+        }
+    }
+
+    /**
+     * The regular and bold fonts of one document, with their fallbacks
+     */
+    static final class DocumentFonts {
+        final PdfFont regular;
+        final PdfFont bold;
+        private final PdfFont regularFallback;
+        private final PdfFont boldFallback;
+
+        private DocumentFonts(PdfFont regular, PdfFont bold, PdfFont regularFallback, PdfFont boldFallback) {
+            this.regular = regular;
+            this.bold = bold;
+            this.regularFallback = regularFallback;
+            this.boldFallback = boldFallback;
+        }
+
+        /**
+         * Split text into runs of characters the font can show and runs that need its fallback
+         * @param font The regular or bold font of this document
+         * @param text The text to show
+         * @param run Called with the font and text of each run, in order
+         */
+        void forEachRun(PdfFont font, String text, BiConsumer<PdfFont, String> run) {
+            PdfFont fallback = font == bold ? boldFallback : regularFallback;
+            int start = 0;
+            while (start < text.length()) {
+                boolean shown = font.containsGlyph(text.codePointAt(start));
+                int end = start;
+                while (end < text.length() && font.containsGlyph(text.codePointAt(end)) == shown) {
+                    end += Character.charCount(text.codePointAt(end));
+                }
+                run.accept(shown ? font : fallback, text.substring(start, end));
+                start = end;
+            }
+        }
+
+        /**
+         * Width of text shown with {@link #forEachRun}
+         */
+        float getWidth(PdfFont font, String text, float fontSize) {
+            float[] width = new float[1];
+            forEachRun(font, text, (runFont, run) -> width[0] += runFont.getWidth(run, fontSize));
+            return width[0];
+        }
+    }
+
+    /**
+     * A TrueType font that reuses the subsets it embeds. Cutting a subset out of the font file is
+     * most of the cost of embedding it, and nearly every slip needs the same few fallback glyphs.
+     */
+    private static final class SubsetCachingFont extends TrueTypeFont {
+
+        private final Map<Set<Integer>, byte[]> subsets = new ConcurrentHashMap<>();
+
+        SubsetCachingFont(byte[] fontProgram) throws IOException {
+            super(fontProgram);
+        }
+
+        @Override
+        public byte[] getSubset(Set<Integer> glyphs, boolean subset) {
+            if (!subset) {
+                return super.getSubset(glyphs, false);
+            }
+            byte[] fontData = subsets.get(glyphs);
+            if (fontData == null) {
+                fontData = super.getSubset(glyphs, true);
+                if (subsets.size() < MAX_CACHED_SUBSETS) {
+                    subsets.putIfAbsent(Collections.unmodifiableSet(new HashSet<>(glyphs)), fontData);
+                }
+            }
+            return fontData;
+        }
+    }
+}
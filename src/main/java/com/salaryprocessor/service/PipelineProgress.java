@@ -0,0 +1,43 @@
+package com.salaryprocessor.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts of employees that passed each stage of a salary pipeline run. The stages update it from
+ * their own threads, so it can be read while the run is still going.
+ */
+public class PipelineProgress {
+
+    private final AtomicInteger parsed = new AtomicInteger();
+    private final AtomicInteger computed = new AtomicInteger();
+    private final AtomicInteger rendered = new AtomicInteger();
+
+    void employeeParsed() {
+        parsed.incrementAndGet();
+    }
+
+    void employeeComputed() {
+        computed.incrementAndGet();
+    }
+
+    void employeeRendered() {
+        rendered.incrementAndGet();
+    }
+
+    public int getParsed() {
+        return parsed.get();
+    }
+
+    public int getComputed() {
+        return computed.get();
+    }
+
+    public int getRendered() {
+        return rendered.get();
+    }
+
+    @Override
+    public String toString() {
+        return "PipelineProgress{parsed=" + parsed + ", computed=" + computed + ", rendered=" + rendered + "}";
+    }
+}
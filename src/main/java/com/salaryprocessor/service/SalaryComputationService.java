@@ -2,36 +2,124 @@ package com.salaryprocessor.service;
 
 import com.salaryprocessor.model.AttendanceRecord;
 import com.salaryprocessor.model.Employee;
+import com.salaryprocessor.model.PayrollContext;
+import com.salaryprocessor.model.PayrollRules;
 import com.salaryprocessor.model.SalaryResult;
+import com.salaryprocessor.model.ScenarioSweepResult;
+import com.salaryprocessor.util.Money;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
 
 @Service
 public class SalaryComputationService {
     
     private static final Logger log = LoggerFactory.getLogger(SalaryComputationService.class);
 
-    // Default total working days in a month
-    private int totalWorkingDays = 30;
+    // Smallest number of employees a compute task is split into
+    private static final int MIN_TASK_SIZE = 64;
+
+    /**
+     * Order of the results: numeric employee IDs by value ("2" and "007" before "10"), IDs of the
+     * same value ("7", "007") by their text, then any other IDs alphabetically
+     */
+    static final Comparator<String> EMPLOYEE_ID_ORDER = (a, b) -> {
+        boolean aNumeric = isNumeric(a);
+        boolean bNumeric = isNumeric(b);
+        if (aNumeric != bNumeric) {
+            return aNumeric ? -1 : 1;
+        }
+        if (aNumeric) {
+            // Without leading zeros more digits is a larger value, and equal lengths compare as text,
+            // so IDs longer than a long still order by value
+            int aStart = firstSignificantDigit(a);
+            int bStart = firstSignificantDigit(b);
+            int aDigits = a.length() - aStart;
+            int bDigits = b.length() - bStart;
+            if (aDigits != bDigits) {
+                return Integer.compare(aDigits, bDigits);
+            }
+            int byValue = a.substring(aStart).compareTo(b.substring(bStart));
+            if (byValue != 0) {
+                return byValue;
+            }
+        }
+        return a.compareTo(b);
+    };
+
+    // Default total working days in a month, for runs that do not specify their own
+    private volatile int totalWorkingDays = 30;
     
     private final ContentfulService contentfulService;
     
-    public SalaryComputationService(ContentfulService contentfulService) {
+    private final PayrollRuleEngine payrollRuleEngine;
+
+    @Value("${salary.compute.parallel:false}")
+    private boolean parallelCompute;
+
+    // Headcount from which the computation is split into fork/join tasks
+    @Value("${salary.compute.parallel-threshold:2000}")
+    private int parallelThreshold;
+
+    // 0 means one thread per available processor
+    @Value("${salary.compute.pool-size:0}")
+    private int computePoolSize;
+
+    private ForkJoinPool computePool;
+    
+    public SalaryComputationService(ContentfulService contentfulService, PayrollRuleEngine payrollRuleEngine) {
         this.contentfulService = contentfulService;
+        this.payrollRuleEngine = payrollRuleEngine;
+    }
+
+    /**
+     * Create the fork/join pool used for parallel salary computation
+     */
+    @PostConstruct
+    public void init() {
+        if (parallelCompute) {
+            int poolSize = computePoolSize > 0 ? computePoolSize : Runtime.getRuntime().availableProcessors();
+            startComputePool(poolSize, parallelThreshold);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (computePool != null) {
+            computePool.shutdownNow();
+        }
+    }
+
+    /**
+     * Compute with the given number of threads from the given headcount on
+     */
+    void startComputePool(int parallelism, int threshold) {
+        this.parallelThreshold = threshold;
+        this.computePool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("salary-compute-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        log.info("Parallel salary computation enabled with {} threads from {} employees", parallelism, threshold);
     }
     
     /**
-     * Set the total working days for salary calculations
+     * Set the default total working days for salary calculations that do not specify their own
      * @param days Total working days in the month
      */
     public void setTotalWorkingDays(int days) {
@@ -45,7 +133,7 @@ public class SalaryComputationService {
     }
     
     /**
-     * Get the current total working days setting
+     * Get the current default total working days setting
      * @return Current total working days value
      */
     public int getTotalWorkingDays() {
@@ -53,235 +141,454 @@ public class SalaryComputationService {
     }
     
     /**
-     * Compute salaries based on attendance data
+     * Create the context of a payroll run for the current month with the default rule set
+     * @param totalDays Total working days requested for this run, or null to use the default setting
+     * @return Context with the default rule set's hours and penalty rules
+     */
+    public PayrollContext createContext(Integer totalDays) {
+        return createContext(totalDays, null);
+    }
+    
+    /**
+     * Create the context of a payroll run for the current month
+     * @param totalDays Total working days requested for this run, or null to use the default setting
+     * @param ruleSet Payroll rule set of the run, or null for the default one
+     * @return Context with the rule set's hours and penalty rules
+     * @throws IllegalArgumentException if the rule set is not declared
+     */
+    public PayrollContext createContext(Integer totalDays, String ruleSet) {
+        PayrollRules rules = payrollRuleEngine.getRules(ruleSet);
+        int days = this.totalWorkingDays;
+        if (totalDays != null) {
+            if (totalDays < 1 || totalDays > 31) {
+                log.warn("Invalid total working days value: {}. Using default value of {}.", totalDays, days);
+            } else {
+                days = totalDays;
+            }
+        }
+        return new PayrollContext(YearMonth.now(), days, rules);
+    }
+    
+    /**
+     * Create the contexts of a what-if sweep: every combination of the given working days, rule
+     * sets and hours per day, in that order of nesting. An empty list takes the current default.
+     * @param totalDays Total working days to try
+     * @param ruleSets Payroll rule sets to try
+     * @param hoursPerDay Standard hours per day to try, overriding the rule set's
+     * @param maxScenarios Most combinations allowed, checked before any context is created
+     * @return One context per combination; the first is the baseline
+     * @throws IllegalArgumentException if there are more combinations than allowed, a value is
+     * missing or out of range, a full month has no hours or a rule set is not declared
+     */
+    public List<PayrollContext> createScenarios(List<Integer> totalDays, List<String> ruleSets,
+                                                List<Double> hoursPerDay, int maxScenarios) {
+        List<Integer> days = totalDays == null || totalDays.isEmpty()
+                ? Collections.singletonList(this.totalWorkingDays) : totalDays;
+        List<String> names = ruleSets == null || ruleSets.isEmpty()
+                ? Collections.singletonList(null) : ruleSets;
+        long combinations = (long) days.size() * names.size()
+                * (hoursPerDay == null || hoursPerDay.isEmpty() ? 1 : hoursPerDay.size());
+        if (combinations > maxScenarios) {
+            throw new IllegalArgumentException("What-if sweep asks for " + combinations
+                    + " scenarios, at most " + maxScenarios + " are allowed");
+        }
+        // Empty list entries ("totalDays=,30") arrive as nulls
+        for (Integer dayCount : days) {
+            if (dayCount == null || dayCount < 1 || dayCount > 31) {
+                throw new IllegalArgumentException("Total working days must be between 1 and 31: " + dayCount);
+            }
+        }
+        if (hoursPerDay != null) {
+            for (Double hours : hoursPerDay) {
+                if (hours == null || !(hours > 0) || hours.isInfinite()) {
+                    throw new IllegalArgumentException("Hours per day must be a positive number: " + hours);
+                }
+            }
+        }
+        YearMonth period = YearMonth.now();
+        List<PayrollContext> scenarios = new ArrayList<>((int) combinations);
+        for (Integer dayCount : days) {
+            for (String name : names) {
+                PayrollRules rules = payrollRuleEngine.getRules(name);
+                if (hoursPerDay == null || hoursPerDay.isEmpty()) {
+                    scenarios.add(checkFullMonth(new PayrollContext(period, dayCount, rules)));
+                    continue;
+                }
+                for (Double hours : hoursPerDay) {
+                    scenarios.add(checkFullMonth(new PayrollContext(period, dayCount, rules.withHoursPerDay(hours))));
+                }
+            }
+        }
+        return scenarios;
+    }
+    
+    /**
+     * Reject a scenario whose full month rounds to no hundredths of an hour, which every salary
+     * of the scenario would be divided by
+     */
+    private static PayrollContext checkFullMonth(PayrollContext context) {
+        if (context.getFullMonthHundredths() <= 0) {
+            throw new IllegalArgumentException("Full month of " + context.getTotalWorkingDays() + " days at "
+                    + context.getHoursPerDay() + " hours per day is too short to compute salaries");
+        }
+        return context;
+    }
+    
+    /**
+     * Compute salaries based on attendance data, with the default total working days
      * @param attendanceRecords Map of employee IDs to their attendance records
      * @return List of salary computation results
+     * @throws IllegalArgumentException if an employee has two records for a date or records spanning more than 31 days
      */
     public List<SalaryResult> computeSalaries(Map<String, List<AttendanceRecord>> attendanceRecords) {
-        log.info("Computing salaries for {} employees from attendance records", attendanceRecords.size());
-        
-        // Initialize list of results
-        List<SalaryResult> results = new ArrayList<>();
+        return computeSalaries(attendanceRecords, createContext(null));
+    }
+    
+    /**
+     * Compute salaries based on attendance data
+     * @param attendanceRecords Map of employee IDs to their attendance records
+     * @param context Parameters of this payroll run
+     * @return List of salary computation results
+     * @throws IllegalArgumentException if an employee has two records for a date or records spanning more than 31 days
+     */
+    public List<SalaryResult> computeSalaries(Map<String, List<AttendanceRecord>> attendanceRecords,
+                                              PayrollContext context) {
+        log.info("Computing salaries for {} employees from attendance records with {}",
+                attendanceRecords.size(), context);
         
-        // Get all employees from Contentful
-        List<Employee> employees = contentfulService.getAllEmployees();
-        log.info("Retrieved {} employees from Contentful", employees.size());
-        log.info("Available employee IDs in Contentful: {}", 
-            employees.stream().map(Employee::getEmployeeId).collect(Collectors.toList()));
+        // Look employees up in the index Contentful already keeps instead of rebuilding one per call
+        Map<String, Employee> employeeIndex = contentfulService.getEmployeeIndex();
+        log.info("Retrieved {} employees from Contentful", employeeIndex.size());
         
-        // Create a map of Employee ID to Employee for easy lookup
-        Map<String, Employee> employeeMap = employees.stream()
-                .collect(Collectors.toMap(Employee::getEmployeeId, e -> e));
+        return computeSalaries(attendanceRecords, employeeIndex, context);
+    }
+    
+    /**
+     * Compute salaries from the compact attendance the parser produces, without creating AttendanceRecords
+     * @param attendance Map of employee IDs to their attendance for the month
+     * @param context Parameters of this payroll run
+     * @return List of salary computation results
+     */
+    public List<SalaryResult> computeMonthlySalaries(Map<String, MonthlyAttendance> attendance,
+                                                     PayrollContext context) {
+        log.info("Computing salaries for {} employees with {}", attendance.size(), context);
         
-        // Find matching employee IDs between attendance records and Contentful
-        Set<String> matchingEmployeeIds = new HashSet<>(attendanceRecords.keySet());
-        matchingEmployeeIds.retainAll(employeeMap.keySet());
-        log.info("Found {} matching employee IDs between attendance records and Contentful: {}", 
-            matchingEmployeeIds.size(), matchingEmployeeIds);
+        Map<String, Employee> employeeIndex = contentfulService.getEmployeeIndex();
+        log.info("Retrieved {} employees from Contentful", employeeIndex.size());
         
-        // If no matching employee IDs, return empty result
-        if (matchingEmployeeIds.isEmpty()) {
-            log.warn("No matching employees found in Contentful for the provided attendance records");
-            return results;
+        return computeMonthlySalaries(attendance, employeeIndex, context);
+    }
+    
+    /**
+     * Compute the salary of one employee as soon as its attendance is known, for pipelined runs
+     * @param attendance The employee's attendance for the month
+     * @param context Parameters of this payroll run
+     * @return The result, or null if the employee is not in Contentful or has no attendance
+     */
+    public SalaryResult computeSalary(MonthlyAttendance attendance, PayrollContext context) {
+        Employee employee = contentfulService.getEmployeeIndex().get(attendance.getEmployeeId());
+        if (employee == null) {
+            log.debug("Employee with ID {} not found in Contentful. Skipping salary computation.",
+                    attendance.getEmployeeId());
+            return null;
         }
-        
-        // Process each employee's attendance records, but only for employees that exist in Contentful
-        for (String employeeId : matchingEmployeeIds) {
-            List<AttendanceRecord> records = attendanceRecords.get(employeeId);
+        if (attendance.getRecordedDayCount() == 0) {
+            log.warn("No attendance records found for employee ID: {}", attendance.getEmployeeId());
+            return null;
+        }
+        return computeSalary(employee, attendance, context);
+    }
+    
+    /**
+     * Encode the records of each employee and compute their salaries
+     */
+    List<SalaryResult> computeSalaries(Map<String, List<AttendanceRecord>> attendanceRecords,
+                                       Map<String, Employee> employeeIndex, PayrollContext context) {
+        Map<String, MonthlyAttendance> attendance = new HashMap<>(attendanceRecords.size() * 2);
+        for (Map.Entry<String, List<AttendanceRecord>> entry : attendanceRecords.entrySet()) {
+            List<AttendanceRecord> records = entry.getValue();
             if (records == null || records.isEmpty()) {
-                log.warn("No attendance records found for employee ID: {}", employeeId);
+                log.warn("No attendance records found for employee ID: {}", entry.getKey());
                 continue;
             }
+            attendance.put(entry.getKey(), MonthlyAttendance.fromRecords(entry.getKey(), records));
+        }
+        return computeMonthlySalaries(attendance, employeeIndex, context);
+    }
+    
+    /**
+     * Compute salaries for the employees that have both attendance and an entry in the index.
+     * Each employee's attendance is read from its packed days and counters, so the cost per
+     * employee is a few bit counts and one SalaryResult. From the configured headcount on, the
+     * employees are split into fork/join tasks; either way the results are sorted by employee ID.
+     * @param attendance Map of employee IDs to their attendance for the month
+     * @param employeeIndex Employees keyed by employee ID
+     * @param context Parameters of this payroll run; workers only read it, so runs need no locking
+     * @return List of salary computation results, sorted by employee ID
+     */
+    List<SalaryResult> computeMonthlySalaries(Map<String, MonthlyAttendance> attendance,
+                                              Map<String, Employee> employeeIndex, PayrollContext context) {
+        // Match the employees first and sort them, so each result has a fixed slot however the work is scheduled
+        List<Map.Entry<String, MonthlyAttendance>> matched = matchEmployees(attendance, employeeIndex);
+        
+        int count = matched.size();
+        Employee[] employees = new Employee[count];
+        MonthlyAttendance[] employeeAttendance = new MonthlyAttendance[count];
+        for (int i = 0; i < count; i++) {
+            employees[i] = employeeIndex.get(matched.get(i).getKey());
+            employeeAttendance[i] = matched.get(i).getValue();
+        }
+        
+        SalaryResult[] results = new SalaryResult[count];
+        if (computePool != null && count >= parallelThreshold) {
+            int taskSize = Math.max(MIN_TASK_SIZE, count / (computePool.getParallelism() * 8));
+            log.info("Computing {} salaries in parallel in tasks of up to {} employees", count, taskSize);
+            computePool.invoke(new ComputeTask(employeeAttendance, employees, results, context, 0, count, taskSize));
+        } else {
+            for (int i = 0; i < count; i++) {
+                results[i] = computeSalary(employees[i], employeeAttendance[i], context);
+            }
+        }
+        
+        log.info("Computed salaries for {} employees", count);
+        return new ArrayList<>(Arrays.asList(results));
+    }
+    
+    /**
+     * Evaluate several payroll scenarios over one parsed month
+     * @param attendance Map of employee IDs to their attendance for the month
+     * @param scenarios Contexts to compare; the first is the baseline the deltas are taken against
+     * @return Totals per scenario and each employee's final pay per scenario
+     */
+    public ScenarioSweepResult sweepScenarios(Map<String, MonthlyAttendance> attendance,
+                                              List<PayrollContext> scenarios) {
+        log.info("Sweeping {} scenarios over {} employees", scenarios.size(), attendance.size());
+        return sweepScenarios(attendance, contentfulService.getEmployeeIndex(), scenarios);
+    }
+    
+    /**
+     * Evaluate the scenarios employee by employee: each employee's attendance and salary are read
+     * once and run through every scenario before the next employee, so the cost is scenarios ×
+     * employees money computations on data that is already in cache, and nothing is parsed or
+     * looked up again per scenario. Only amounts in paise are produced, no SalaryResults.
+     */
+    ScenarioSweepResult sweepScenarios(Map<String, MonthlyAttendance> attendance,
+                                       Map<String, Employee> employeeIndex, List<PayrollContext> scenarios) {
+        long start = System.nanoTime();
+        List<Map.Entry<String, MonthlyAttendance>> matched = matchEmployees(attendance, employeeIndex);
+        PayrollContext[] contexts = scenarios.toArray(new PayrollContext[0]);
+        int scenarioCount = contexts.length;
+        long[] grossTotals = new long[scenarioCount];
+        long[] penaltyTotals = new long[scenarioCount];
+        
+        List<ScenarioSweepResult.EmployeeOutcome> outcomes = new ArrayList<>(matched.size());
+        for (Map.Entry<String, MonthlyAttendance> entry : matched) {
+            Employee employee = employeeIndex.get(entry.getKey());
+            MonthlyAttendance employeeAttendance = entry.getValue();
+            long monthlyPaise = Money.fromRupees(employee.getMonthlySalary());
+            long actualHundredths = (long) employeeAttendance.getReportedWorkedHundredths()
+                    + employeeAttendance.getOvertimeHundredths();
+            int lateMarks = employeeAttendance.getLateMarks();
             
-            log.info("Processing employee ID: {} with {} attendance records", employeeId, records.size());
-            Employee employee = employeeMap.get(employeeId);
-            
-            if (employee == null) {
-                // This shouldn't happen because we filtered for matching IDs, but just in case
-                log.warn("Employee with ID {} not found in Contentful. Skipping salary computation.", employeeId);
+            long[] finalPaise = new long[scenarioCount];
+            for (int i = 0; i < scenarioCount; i++) {
+                long grossPaise = grossPaise(monthlyPaise, actualHundredths, contexts[i]);
+                long penaltyPaise = penaltyPaise(monthlyPaise, lateMarks, contexts[i]);
+                grossTotals[i] += grossPaise;
+                penaltyTotals[i] += penaltyPaise;
+                finalPaise[i] = grossPaise - penaltyPaise;
+            }
+            outcomes.add(new ScenarioSweepResult.EmployeeOutcome(entry.getKey(), employee.getName(), finalPaise));
+        }
+        
+        List<ScenarioSweepResult.ScenarioTotals> totals = new ArrayList<>(scenarioCount);
+        for (int i = 0; i < scenarioCount; i++) {
+            totals.add(new ScenarioSweepResult.ScenarioTotals(contexts[i], grossTotals[i], penaltyTotals[i],
+                    grossTotals[i] - penaltyTotals[i], grossTotals[0] - penaltyTotals[0]));
+        }
+        log.info("Evaluated {} scenarios for {} employees in {} ms", scenarioCount, outcomes.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return new ScenarioSweepResult(totals, outcomes);
+    }
+    
+    /**
+     * The employees that have both attendance and an entry in the index, sorted by employee ID
+     */
+    private List<Map.Entry<String, MonthlyAttendance>> matchEmployees(Map<String, MonthlyAttendance> attendance,
+                                                                     Map<String, Employee> employeeIndex) {
+        List<Map.Entry<String, MonthlyAttendance>> matched = new ArrayList<>(attendance.size());
+        int unmatched = 0;
+        for (Map.Entry<String, MonthlyAttendance> entry : attendance.entrySet()) {
+            String employeeId = entry.getKey();
+            if (!employeeIndex.containsKey(employeeId)) {
+                unmatched++;
+                log.debug("Employee with ID {} not found in Contentful. Skipping salary computation.", employeeId);
                 continue;
             }
             
-            log.info("Found employee in Contentful: ID={}, Name={}", employee.getEmployeeId(), employee.getName());
-            
-            // Count different attendance statuses
-            long presentCount = records.stream()
-                    .filter(r -> "P".equalsIgnoreCase(r.getStatus()))
-                    .count();
-            
-            long absentCount = records.stream()
-                    .filter(r -> "A".equalsIgnoreCase(r.getStatus()))
-                    .count();
-            
-            long weekOffPresentCount = records.stream()
-                    .filter(r -> "WOP".equalsIgnoreCase(r.getStatus()))
-                    .count();
-            
-            // We're ignoring WO (Week Off) records as per requirements
-            
-            // Count paid leaves (assuming all absences are paid leaves for simplicity)
-            long paidLeaves = absentCount;
-            
-            // Calculate expected hours: (WOP + P + A - paidLeaves) × 8
-            double expectedHours = (weekOffPresentCount + presentCount + absentCount - paidLeaves) * 8;
-            
-            // Calculate worked hours
-            // We'll calculate this directly from the record below            
-            // This line is now obsolete since we use actualHours from the record directly
-            
-            // Calculate late marks
-            long lateMarks = records.stream()
-                    .filter(AttendanceRecord::isLate)
-                    .count();
-            
-            // Get the actual hours worked and overtime from Excel data
-            double regularHours = records.isEmpty() ? 0 : records.get(0).getHoursWorked();
-            double overtimeHours = records.isEmpty() ? 0 : records.get(0).getOvertime();
-            
-            // Calculate total actual hours (regular + overtime)
-            double actualHours = regularHours + overtimeHours;
-            
-            log.info("Employee {} hours calculation: Regular Hours={}, Overtime={}, Total Hours={}", 
-                     employeeId, regularHours, overtimeHours, actualHours);
-            
-            // Use the standard working hours - typically 8 hours per day
-            double expectedHoursPerDay = 8.0;
-            
-            // Full month standard hours (totalWorkingDays × 8 hours)
-            double fullMonthHours = totalWorkingDays * expectedHoursPerDay;
-            
-            log.info("Using totalWorkingDays={} for employee {} calculation, expected hours={}", 
-                     totalWorkingDays, employeeId, fullMonthHours);
-            
-            // Calculate ratio based on Excel data - actual hours worked / standard month hours
-            double workRatio = actualHours / fullMonthHours;
-            
-            // If worked more than expected, don't cap at 100%
-            // double adjustedRatio = Math.min(1.0, workRatio); // Old code with cap
-            double adjustedRatio = workRatio; // Allow ratios above 1.0 if overtime exceeds expectations
-            
-            // Calculate percentage for display
-            double workPercentage = adjustedRatio * 100;
-            
-            // Round to 2 decimal places for clean display
-            workPercentage = Math.round(workPercentage * 100) / 100.0;
-            
-            log.info("Employee {} work ratio from Excel: {} hours / {} expected = {}% (ratio: {})", 
-                     employeeId, actualHours, fullMonthHours, workPercentage, adjustedRatio);
-            
-            // Calculate final salary based on work ratio from Excel data
-            double finalSalary = employee.getMonthlySalary() * adjustedRatio;
-            
-            // Apply any late mark penalties based on business rules
-            double lateMarkPenalty = 0;
-            if (lateMarks > 0) {
-                // Calculate daily salary based on monthly salary
-                // Always use 30 days as per business requirement
-                double dailySalary = employee.getMonthlySalary() / 30;
-                double halfDaySalary = dailySalary / 2;
-                
-                // Business rule: First two late marks are forgiven
-                // Third late mark incurs half day salary deduction
-                // Each additional late mark: (half day's salary / 3)
-                if (lateMarks < 3) {
-                    // First two late marks are forgiven
-                    lateMarkPenalty = 0;
-                    log.info("First two late marks forgiven, no penalty applied");
-                } else if (lateMarks == 3) {
-                    // Only third late mark incurs half day salary deduction
-                    lateMarkPenalty = halfDaySalary;
-                } else {
-                    // Third late mark: half day's salary
-                    // Each additional late mark after third: (half day's salary / 3)
-                    long additionalLateMarks = lateMarks - 3;
-                    double additionalPenalty = (halfDaySalary / 3) * additionalLateMarks;
-                    lateMarkPenalty = halfDaySalary + additionalPenalty;
-                }
-                
-                finalSalary -= lateMarkPenalty;
-                log.info("Applied late mark penalty of {} for {} late marks (half day salary: {})", 
-                         lateMarkPenalty, lateMarks, halfDaySalary);
+            if (entry.getValue().getRecordedDayCount() == 0) {
+                log.warn("No attendance records found for employee ID: {}", employeeId);
+                continue;
             }
-            
-            log.info("Calculating final salary: base={}, work ratio={}%, final={}", 
-                     employee.getMonthlySalary(), workPercentage, finalSalary);
-            
-            // Add to results
-            SalaryResult result = new SalaryResult();
-            result.setEmployeeId(employeeId);
-            result.setEmployeeName(employee.getName());
-            result.setMonthlySalary(employee.getMonthlySalary());
-            result.setExpectedHours(fullMonthHours); // Total expected hours (days * 8)
-            result.setActualWorkedHours(actualHours);     // From Excel data
-            
-            // Set coefficient as the actual ratio between worked hours and expected hours
-            // For 149.2 hours worked in a standard 240h month (30 days × 8h), coefficient would be 0.6217 or 62.17%
-            result.setCoefficient(adjustedRatio);
-            
-            // Late marks affect final salary but aren't part of the coefficient display
-            result.setLateMarkPenalty(lateMarkPenalty);
-            result.setLateMarks((int) lateMarks);
-            result.setFinalPayableSalary(finalSalary);
-            results.add(result);
-            
-            log.info("Calculated salary for employee {}: monthly={}, final={}, work ratio={}%", 
-                    employeeId, employee.getMonthlySalary(), finalSalary, workPercentage);
+            matched.add(entry);
         }
+        matched.sort(Map.Entry.comparingByKey(EMPLOYEE_ID_ORDER));
         
-        return results;
+        if (matched.isEmpty()) {
+            log.warn("No matching employees found in Contentful for the provided attendance records");
+        }
+        log.info("Matched {} employees ({} attendance IDs not found in Contentful)", matched.size(), unmatched);
+        return matched;
+    }
+
+    /**
+     * Computes the salaries of a range of the sorted employees, splitting it in halves down to the task size
+     */
+    private class ComputeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final MonthlyAttendance[] attendance;
+        private final Employee[] employees;
+        private final SalaryResult[] results;
+        private final PayrollContext context;
+        private final int from;
+        private final int to;
+        private final int taskSize;
+
+        ComputeTask(MonthlyAttendance[] attendance, Employee[] employees, SalaryResult[] results,
+                    PayrollContext context, int from, int to, int taskSize) {
+            this.attendance = attendance;
+            this.employees = employees;
+            this.results = results;
+            this.context = context;
+            this.from = from;
+            this.to = to;
+            this.taskSize = taskSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= taskSize) {
+                for (int i = from; i < to; i++) {
+                    results[i] = computeSalary(employees[i], attendance[i], context);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ComputeTask(attendance, employees, results, context, from, middle, taskSize),
+                    new ComputeTask(attendance, employees, results, context, middle, to, taskSize));
+        }
     }
     
     /**
-     * Calculate coefficient based on attendance and late marks
-     * 
-     * @param presentCount Number of present days
-     * @param absentCount Number of absent days
-     * @param weekOffPresentCount Number of week-off days worked
-     * @param lateMarks Number of late marks
-     * @param totalWorkingDays Total number of working days in the month
-     * @return Performance coefficient for salary calculation
+     * Compute the salary of one employee from its attendance for the month
      */
-    private double calculateCoefficient(long presentCount, long absentCount, long weekOffPresentCount, long lateMarks, int totalWorkingDays) {
-        // For Excel data compatibility, return the coefficient directly from the attendance data
-        // Parse coefficient from Excel data - use presentDays / expectedDays
-        double expectedDays = totalWorkingDays;
-        double actualDays = presentCount + weekOffPresentCount;
+    private SalaryResult computeSalary(Employee employee, MonthlyAttendance attendance, PayrollContext context) {
+        String employeeId = employee.getEmployeeId();
+        int lateMarks = attendance.getLateMarks();
+        
+        // Get the actual hours worked and overtime from Excel data, in hundredths of an hour.
+        // For summary uploads the first recorded day carries the month's hours.
+        long actualHundredths = (long) attendance.getReportedWorkedHundredths() + attendance.getOvertimeHundredths();
+        double actualHours = actualHundredths / 100.0;
+        
+        // The money math runs on whole paise and hundredths, so every amount is rounded exactly once.
+        // Ratios above 1.0 are allowed if overtime exceeds expectations, unless the rule set caps them.
+        long monthlyPaise = Money.fromRupees(employee.getMonthlySalary());
+        long coefficient = coefficient(actualHundredths, context);
         
-        // Calculate coefficient (actual work / expected work)
-        double coefficient = actualDays / expectedDays;
+        // Calculate final salary based on work ratio from Excel data
+        long grossPaise = grossPaise(monthlyPaise, actualHundredths, context);
+        long penaltyPaise = penaltyPaise(monthlyPaise, lateMarks, context);
+        long finalPaise = grossPaise - penaltyPaise;
         
-        // Convert to percentage representation for display
-        log.debug("Raw coefficient calculation: {} days / {} days = {}", actualDays, expectedDays, coefficient);
+        if (log.isDebugEnabled()) {
+            // WO (Week Off) days are ignored as per requirements
+            log.debug("Employee {} ({}): P={}, A={}, WOP={}, late marks={}, hours={} + {} OT of {} expected "
+                            + "= {}, penalty={}, salary {} -> {}",
+                    employeeId, employee.getName(), attendance.countStatus(MonthlyAttendance.PRESENT),
+                    attendance.countStatus(MonthlyAttendance.ABSENT),
+                    attendance.countStatus(MonthlyAttendance.WEEK_OFF_PRESENT), lateMarks,
+                    attendance.getReportedWorkedHundredths() / 100.0, attendance.getOvertimeHundredths() / 100.0,
+                    context.getFullMonthHours(),
+                    Money.appendPercent(new StringBuilder(), coefficient),
+                    Money.appendRupees(new StringBuilder(), penaltyPaise),
+                    Money.appendRupees(new StringBuilder(), monthlyPaise),
+                    Money.appendRupees(new StringBuilder(), finalPaise));
+        }
+        
+        SalaryResult result = new SalaryResult();
+        result.setEmployeeId(employeeId);
+        result.setEmployeeName(employee.getName());
+        result.setMonthlySalary(Money.toRupees(monthlyPaise));
+        result.setExpectedHours(context.getFullMonthHours()); // Total expected hours (days * 8)
+        result.setActualWorkedHours(actualHours);     // From Excel data
         
-        // Round to 2 decimal places for display (this won't affect calculations)
-        coefficient = Math.round(coefficient * 100) / 100.0;
+        // Set coefficient as the actual ratio between worked hours and expected hours
+        // For 149.2 hours worked in a standard 240h month (30 days × 8h), coefficient would be 0.621667 or 62.17%
+        result.setCoefficient(coefficient / (double) Money.RATIO_SCALE);
         
-        return coefficient;
+        // Late marks affect final salary but aren't part of the coefficient display
+        result.setLateMarkPenalty(Money.toRupees(penaltyPaise));
+        result.setLateMarks(lateMarks);
+        result.setFinalPayableSalary(Money.toRupees(finalPaise));
+        result.setRules(context.getRules());
+        return result;
+    }
+    
+    /**
+     * Ratio of worked to expected hours in millionths, up to the rule set's cap
+     */
+    private static long coefficient(long actualHundredths, PayrollContext context) {
+        long coefficient = Money.scale(actualHundredths, Money.RATIO_SCALE, context.getFullMonthHundredths());
+        return Math.min(coefficient, context.getRules().getMaxCoefficient());
     }
     
     /**
-     * Calculate late mark penalty based on the business rules:
-     * - First 3 late marks = 0.5 day salary cut (0.5/30 = 0.01667 coefficient reduction)
-     * - From 4th onward: 0.5/3 day cut per late mark (0.5/3/30 = 0.00556 coefficient reduction per mark)
-     * 
-     * @param lateMarks Number of late marks
-     * @return Penalty as a coefficient reduction
+     * Monthly salary scaled by worked over expected hours, or by the rule set's cap if the
+     * ratio is above it
      */
-    private double calculateLateMarkPenalty(long lateMarks) {
-        if (lateMarks <= 0) {
-            return 0;
+    private static long grossPaise(long monthlyPaise, long actualHundredths, PayrollContext context) {
+        long expectedHundredths = context.getFullMonthHundredths();
+        long maxCoefficient = context.getRules().getMaxCoefficient();
+        if (Money.scale(actualHundredths, Money.RATIO_SCALE, expectedHundredths) > maxCoefficient) {
+            return Money.scale(monthlyPaise, maxCoefficient, Money.RATIO_SCALE);
         }
-        
-        // Assuming 30 days in a month
-        double penaltyPerDay = 1.0 / 30.0;
-        
-        if (lateMarks <= 3) {
-            // First 3 late marks = 0.5 day salary cut
-            return 0.5 * penaltyPerDay;
-        } else {
-            // First 3 late marks = 0.5 day salary cut
-            // Each additional mark = 0.5/3 day salary cut
-            return 0.5 * penaltyPerDay + ((lateMarks - 3) * 0.5 / 3.0) * penaltyPerDay;
+        return Money.scale(monthlyPaise, actualHundredths, expectedHundredths);
+    }
+    
+    /**
+     * Late mark penalty from the rule set's compiled table, in sixths of a day. The daily salary
+     * uses the rule set's salary days, so the penalty is monthly × sixths of a day / (salary days × 6).
+     */
+    private static long penaltyPaise(long monthlyPaise, int lateMarks, PayrollContext context) {
+        PayrollRules rules = context.getRules();
+        return Money.scale(monthlyPaise, rules.getLateMarkPenaltyParts(lateMarks),
+                (long) rules.getSalaryDaysPerMonth() * PayrollRules.PENALTY_PARTS_PER_DAY);
+    }
+    
+    /**
+     * Index of the first digit that is not a leading zero; the last digit if all are zeros
+     */
+    private static int firstSignificantDigit(String digits) {
+        int start = 0;
+        while (start < digits.length() - 1 && digits.charAt(start) == '0') {
+            start++;
+        }
+        return start;
+    }
+
+    private static boolean isNumeric(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
         }
+        return true;
     }
 }
@@ -0,0 +1,240 @@
+package com.salaryprocessor.service;
+
+import com.salaryprocessor.model.PayrollContext;
+import com.salaryprocessor.model.SalaryResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Runs parse, compute and render as a pipeline instead of one phase after the other. The parser
+ * hands each employee from an "Employee:" summary row to the compute stage as soon as it is
+ * extracted, and each SalaryResult goes to the render stage as soon as it is computed. The stages
+ * are connected by bounded queues, so a fast stage blocks instead of piling up work for a slow
+ * one, and the first slip is rendered while the file is still being read. Uploads in another
+ * layout, such as the colon pattern, are only complete once the parse has finished, so their
+ * employees enter the compute stage then.
+ * <p>
+ * Parse and compute run on pooled worker threads, two per run; rendering runs on the calling
+ * thread, which owns the output stream. The pool is not bounded: a run whose compute stage
+ * waited for a free thread behind other runs' parse stages could never finish. The number of
+ * concurrent runs is bounded by the request threads and payroll job workers instead. Each slip
+ * is written to the ZIP as soon as it is rendered, in the order employees are parsed, so neither
+ * the slips nor the ZIP are held in memory. A slip that has been written cannot be replaced, so
+ * if a summary employee ID appears more than once the first entry is kept and the later ones are
+ * skipped with a warning, where a plain parse keeps the last. The ZIP is only started with the
+ * first result, so an upload without any employee writes nothing and is rejected.
+ */
+@Service
+public class SalaryPipelineService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalaryPipelineService.class);
+
+    // Marks the end of the parsed employees and of the computed results
+    private static final MonthlyAttendance END_OF_ATTENDANCE = new MonthlyAttendance(null, null, null);
+    private static final SalaryResult END_OF_RESULTS = new SalaryResult();
+
+    private final ExcelParserService excelParserService;
+    private final SalaryComputationService salaryComputationService;
+    private final PDFGenerationService pdfGenerationService;
+
+    // Capacity of each queue between two stages
+    @Value("${salary.pipeline.queue-capacity:64}")
+    private int queueCapacity;
+
+    private ExecutorService pipelineExecutor;
+
+    public SalaryPipelineService(ExcelParserService excelParserService,
+                                 SalaryComputationService salaryComputationService,
+                                 PDFGenerationService pdfGenerationService) {
+        this.excelParserService = excelParserService;
+        this.salaryComputationService = salaryComputationService;
+        this.pdfGenerationService = pdfGenerationService;
+    }
+
+    /**
+     * Create the worker pool for the parse and compute stages
+     */
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        pipelineExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "salary-pipeline-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Salary pipeline ready with queues of {}", queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pipelineExecutor != null) {
+            pipelineExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Parse an attendance upload, compute each salary and write its slip to a ZIP, all three
+     * stages running at once
+     * @param file The Excel file with attendance data
+     * @param context Parameters of this payroll run
+     * @param out Receives the ZIP of salary slips; it is finished but not closed
+     * @return The computed salaries, sorted by employee ID
+     * @throws NoSalaryResultsException if no salary could be computed from the upload
+     */
+    public List<SalaryResult> run(MultipartFile file, PayrollContext context, OutputStream out) throws IOException {
+        Path upload = excelParserService.spoolUpload(file);
+        try {
+            return run(upload, context, out, new PipelineProgress());
+        } finally {
+            try {
+                Files.deleteIfExists(upload);
+            } catch (IOException e) {
+                log.warn("Could not delete spooled upload {}: {}", upload, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Like {@link #run(MultipartFile, PayrollContext, OutputStream)}, for an upload spooled with
+     * {@link ExcelParserService#spoolUpload(MultipartFile)}
+     * @param file The spooled attendance file; it is left in place
+     * @param context Parameters of this payroll run
+     * @param out Receives the ZIP of salary slips; it is finished but not closed
+     * @param progress Counts the employees as they pass each stage
+     * @return The computed salaries, sorted by employee ID
+     * @throws NoSalaryResultsException if no salary could be computed from the upload
+     */
+    public List<SalaryResult> run(Path file, PayrollContext context, OutputStream out, PipelineProgress progress)
+            throws IOException {
+        long start = System.nanoTime();
+        BlockingQueue<MonthlyAttendance> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<SalaryResult> computed = new ArrayBlockingQueue<>(queueCapacity);
+
+        Future<?> parseStage = pipelineExecutor.submit(() -> {
+            try {
+                AttendanceParseResult result = excelParserService.parseAttendance(file, attendance -> {
+                    put(parsed, attendance);
+                    progress.employeeParsed();
+                });
+                if (!AttendanceParseResult.SUMMARY_STRATEGY.equals(result.getStrategy())) {
+                    // Only summary employees are passed on while parsing; the others are known now
+                    for (MonthlyAttendance attendance : result.getAttendance().values()) {
+                        put(parsed, attendance);
+                        progress.employeeParsed();
+                    }
+                }
+            } finally {
+                put(parsed, END_OF_ATTENDANCE);
+            }
+        });
+        Future<?> computeStage = pipelineExecutor.submit(() -> {
+            try {
+                for (MonthlyAttendance attendance = parsed.take(); attendance != END_OF_ATTENDANCE;
+                     attendance = parsed.take()) {
+                    SalaryResult result = computeSalary(attendance, context);
+                    if (result != null) {
+                        computed.put(result);
+                        progress.employeeComputed();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                put(computed, END_OF_RESULTS);
+            }
+        });
+
+        List<SalaryResult> results = new ArrayList<>();
+        Set<String> employeeIds = new HashSet<>();
+        ZipOutputStream zipOut = null;
+        int written = 0;
+        boolean finished = false;
+        try {
+            for (SalaryResult result = computed.take(); result != END_OF_RESULTS; result = computed.take()) {
+                if (!employeeIds.add(result.getEmployeeId())) {
+                    log.warn("Employee ID {} appears more than once; keeping the first slip", result.getEmployeeId());
+                    continue;
+                }
+                results.add(result);
+                if (zipOut == null) {
+                    zipOut = new ZipOutputStream(out);
+                }
+                if (pdfGenerationService.addSalarySlip(zipOut, result)) {
+                    progress.employeeRendered();
+                    if (++written == 1) {
+                        log.info("First salary slip written {} ms after the run started",
+                                (System.nanoTime() - start) / 1_000_000);
+                    }
+                }
+            }
+
+            // Surface a failure of the parse or compute stage instead of returning a partial ZIP silently
+            parseStage.get();
+            computeStage.get();
+            finished = true;
+            if (zipOut == null) {
+                throw new NoSalaryResultsException(file.getFileName().toString());
+            }
+            zipOut.finish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running the salary pipeline", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Salary pipeline stage failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            if (!finished) {
+                parseStage.cancel(true);
+                computeStage.cancel(true);
+            }
+        }
+
+        results.sort((a, b) -> SalaryComputationService.EMPLOYEE_ID_ORDER.compare(a.getEmployeeId(), b.getEmployeeId()));
+        log.info("Salary pipeline wrote {} slips ({} failures) in {} ms", written, results.size() - written,
+                (System.nanoTime() - start) / 1_000_000);
+        return results;
+    }
+
+    private SalaryResult computeSalary(MonthlyAttendance attendance, PayrollContext context) {
+        try {
+            return salaryComputationService.computeSalary(attendance, context);
+        } catch (RuntimeException e) {
+            log.error("Error computing salary for employee {}: {}", attendance.getEmployeeId(), e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Put an item on a stage queue, waiting while the next stage catches up. A cancelled run
+     * interrupts the waiting stage, which then unwinds with an unchecked exception.
+     */
+    private static <T> void put(BlockingQueue<T> queue, T item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Salary pipeline cancelled", e);
+        }
+    }
+}
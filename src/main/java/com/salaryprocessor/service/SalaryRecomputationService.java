@@ -0,0 +1,150 @@
+package com.salaryprocessor.service;
+
+import com.salaryprocessor.model.PayrollContext;
+import com.salaryprocessor.model.SalaryResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the parsed attendance, salary results and rendered slips of the latest processed upload,
+ * so a change to employee master data only recomputes the employees it affects instead of the
+ * whole file. The next upload replaces the run as a whole. A recompute replaces the results of
+ * the affected employees in place and drops their slips, which are rendered again on their next
+ * download.
+ */
+@Service
+public class SalaryRecomputationService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalaryRecomputationService.class);
+
+    private final SalaryComputationService salaryComputationService;
+    private final PDFGenerationService pdfGenerationService;
+
+    private volatile LatestRun latestRun;
+
+    /**
+     * Attendance and parameters of one run, with its current results and rendered slips
+     */
+    private static final class LatestRun {
+        final Map<String, MonthlyAttendance> attendance;
+        final PayrollContext context;
+        final Map<String, SalaryResult> results = new ConcurrentHashMap<>();
+        final Map<String, RenderedSlip> slips = new ConcurrentHashMap<>();
+
+        LatestRun(Map<String, MonthlyAttendance> attendance, PayrollContext context) {
+            this.attendance = attendance;
+            this.context = context;
+        }
+    }
+
+    /**
+     * A rendered slip and the result it was rendered from, so a slip rendered while its result
+     * was being recomputed is never served for the new result
+     */
+    private static final class RenderedSlip {
+        final SalaryResult source;
+        final byte[] pdf;
+
+        RenderedSlip(SalaryResult source, byte[] pdf) {
+            this.source = source;
+            this.pdf = pdf;
+        }
+    }
+
+    public SalaryRecomputationService(SalaryComputationService salaryComputationService,
+                                      PDFGenerationService pdfGenerationService) {
+        this.salaryComputationService = salaryComputationService;
+        this.pdfGenerationService = pdfGenerationService;
+    }
+
+    /**
+     * Make a run the latest one, replacing the previous run and its slips
+     * @param attendance Map of employee IDs to their attendance for the month; it is not modified
+     * @param context Parameters of the run
+     * @param results The salaries computed for the run
+     */
+    public void recordRun(Map<String, MonthlyAttendance> attendance, PayrollContext context,
+                          List<SalaryResult> results) {
+        LatestRun run = new LatestRun(attendance, context);
+        for (SalaryResult result : results) {
+            run.results.put(result.getEmployeeId(), result);
+        }
+        latestRun = run;
+        log.info("Keeping {} employees and {} salary results of the latest run for recomputation",
+                attendance.size(), results.size());
+    }
+
+    /**
+     * Current salary result of an employee in the latest run
+     * @return The result, or null if there is no run or the employee has no result in it
+     */
+    public SalaryResult getResult(String employeeId) {
+        LatestRun run = latestRun;
+        return run == null ? null : run.results.get(employeeId);
+    }
+
+    /**
+     * Salary slip of an employee in the latest run, rendered on the first request after the run
+     * or after a recompute of the employee
+     * @return PDF content, or null if the employee has no result in the latest run
+     */
+    public byte[] getSalarySlip(String employeeId) throws Exception {
+        LatestRun run = latestRun;
+        if (run == null) {
+            return null;
+        }
+        SalaryResult result = run.results.get(employeeId);
+        if (result == null) {
+            return null;
+        }
+        RenderedSlip slip = run.slips.get(employeeId);
+        if (slip != null && slip.source == result) {
+            log.debug("Serving rendered salary slip for employee {}", employeeId);
+            return slip.pdf;
+        }
+        byte[] pdf = pdfGenerationService.generateSalarySlip(result);
+        run.slips.put(employeeId, new RenderedSlip(result, pdf));
+        return pdf;
+    }
+
+    /**
+     * Recompute the salaries of the given employees in the latest run against the current
+     * employee data, and drop their rendered slips. An employee that is no longer in Contentful
+     * loses its result; one that was added gets one if it has attendance in the run.
+     * @param employeeIds Employees whose master data changed
+     * @return IDs of the employees of the latest run that were recomputed
+     */
+    public Set<String> recompute(Set<String> employeeIds) {
+        LatestRun run = latestRun;
+        if (run == null || employeeIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        long start = System.nanoTime();
+        Set<String> recomputed = new TreeSet<>(SalaryComputationService.EMPLOYEE_ID_ORDER);
+        for (String employeeId : employeeIds) {
+            MonthlyAttendance attendance = run.attendance.get(employeeId);
+            if (attendance == null) {
+                continue;
+            }
+            SalaryResult result = salaryComputationService.computeSalary(attendance, run.context);
+            if (result == null) {
+                run.results.remove(employeeId);
+            } else {
+                run.results.put(employeeId, result);
+            }
+            run.slips.remove(employeeId);
+            recomputed.add(employeeId);
+        }
+        log.info("Recomputed {} of {} changed employees in the latest run in {} µs", recomputed.size(),
+                employeeIds.size(), (System.nanoTime() - start) / 1_000);
+        return recomputed;
+    }
+}
@@ -0,0 +1,314 @@
+package com.salaryprocessor.service;
+
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfOutline;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfResources;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.navigation.PdfExplicitDestination;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.salaryprocessor.model.PayrollRules;
+import com.salaryprocessor.model.SalaryResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * The salary slip drawn at fixed coordinates instead of through the layout engine. Everything
+ * that is the same on every slip (title, table borders and shading, labels and the signature
+ * block) is drawn once, when the template is created, into a page content stream for each of the
+ * three layouts a slip can have: no late marks, late marks with one line of late mark rules, and
+ * late marks with two. A slip is then a new page that gets those bytes as they are, plus the
+ * employee's values and the late mark rules of its {@link PayrollRules} written over them. The regular and bold fonts are registered on each page in the same
+ * order as on the template page, so the font names in the prebuilt content stay valid. Those are
+ * standard fonts that are never embedded; characters they cannot show in the values, such as the
+ * rupee sign, are written in the embedded fallback fonts of the {@link PdfFontPool}.
+ * Instances are immutable and can render slips from several threads at once.
+ */
+final class SalarySlipTemplate {
+
+    private static final float MARGIN = 36;
+    private static final float PAGE_WIDTH = PageSize.A4.getWidth();
+    private static final float CONTENT_WIDTH = PAGE_WIDTH - 2 * MARGIN;
+    private static final float ROW_HEIGHT = 22;
+    private static final float CELL_PADDING = 5;
+    // Baseline of a cell's text above the bottom of its row
+    private static final float TEXT_RISE = 7;
+    private static final float TEXT_SIZE = 12;
+    private static final float TITLE_SIZE = 20;
+
+    private static final float TITLE_BASELINE = 790;
+    private static final float PERIOD_BASELINE = 766;
+    private static final float EMPLOYEE_TABLE_TOP = 735;
+    private static final float EMPLOYEE_LABEL_WIDTH = CONTENT_WIDTH * 0.3f;
+    private static final float SALARY_TABLE_TOP = EMPLOYEE_TABLE_TOP - 2 * ROW_HEIGHT - 24;
+    private static final float SALARY_LABEL_WIDTH = CONTENT_WIDTH * 0.5f;
+
+    private static final String[] EMPLOYEE_LABELS = {"Employee ID:", "Employee Name:"};
+    private static final String[] SALARY_LABELS = {"Monthly Salary:", "Expected Hours:", "Actual Worked Hours:",
+            "Late Marks:", "Coefficient:"};
+    private static final String PENALTY_LABEL = "Late Mark Penalty:";
+    private static final String FINAL_LABEL = "Final Payable Salary:";
+
+    // Layouts by late marks: none, up to the first penalized one, and past it when the rule set
+    // has a rule for those
+    private static final int NO_LATE_MARKS = 0;
+    private static final int FEW_LATE_MARKS = 1;
+    private static final int MANY_LATE_MARKS = 2;
+
+    private final PdfFontPool fontPool;
+    private final byte[][] pageContent = new byte[3][];
+    private final PdfName regularFontName;
+    private final PdfName boldFontName;
+
+    /**
+     * Draw the static content of the three layouts
+     */
+    SalarySlipTemplate(PdfFontPool fontPool) {
+        this.fontPool = fontPool;
+        PdfName[] fontNames = null;
+        for (int layout = NO_LATE_MARKS; layout <= MANY_LATE_MARKS; layout++) {
+            PdfDocument pdf = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+            PdfPage page = pdf.addNewPage(PageSize.A4);
+            PdfFontPool.DocumentFonts fonts = fontPool.documentFonts();
+            fontNames = new PdfName[] {page.getResources().addFont(pdf, fonts.regular),
+                    page.getResources().addFont(pdf, fonts.bold)};
+
+            PdfCanvas canvas = new PdfCanvas(page);
+            canvas.saveState();
+            drawStaticContent(canvas, fonts.regular, fonts.bold, layout);
+            canvas.restoreState();
+            canvas.release();
+            pageContent[layout] = page.getFirstContentStream().getBytes();
+            pdf.close();
+        }
+        regularFontName = fontNames[0];
+        boldFontName = fontNames[1];
+    }
+
+    /**
+     * Render the slip of one employee
+     * @param salaryResult The salary computation result, with its employee name filled in
+     * @param monthYear The month shown under the title, e.g. "July 2025"
+     * @return PDF content as byte array
+     */
+    byte[] render(SalaryResult salaryResult, String monthYear) {
+        int layout = layoutOf(salaryResult);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(4096);
+        PdfDocument pdf = new PdfDocument(new PdfWriter(baos));
+        PdfPage page = pdf.addNewPage(PageSize.A4);
+        PdfFontPool.DocumentFonts fonts = fontPool.documentFonts();
+        addFonts(page.getResources(), pdf, fonts);
+        page.getFirstContentStream().getOutputStream().writeBytes(pageContent[layout]);
+
+        PdfCanvas canvas = new PdfCanvas(page);
+        drawValues(canvas, fonts, salaryResult, layout, monthYear);
+        canvas.release();
+        pdf.close();
+        return baos.toByteArray();
+    }
+
+    /**
+     * Render the slips of several employees as the pages of one document. The static content of
+     * each layout is written once, as a form XObject drawn by every page of that layout, and all
+     * pages share the same fonts. Each page gets a bookmark with the employee's ID and name, and is
+     * flushed to the stream as soon as it is drawn. The document is written with full compression,
+     * so its objects are packed into compressed object streams.
+     * @param salaryResults The salary computation results, one page each, in page order
+     * @param monthYear The month shown under the title, e.g. "July 2025"
+     * @param out Stream the PDF is written to; it is left open
+     */
+    void renderDocument(List<SalaryResult> salaryResults, String monthYear, OutputStream out) {
+        PdfWriter writer = new PdfWriter(out, new WriterProperties().setFullCompressionMode(true));
+        writer.setCloseStream(false);
+        PdfDocument pdf = new PdfDocument(writer);
+        pdf.getCatalog().setPageMode(PdfName.UseOutlines);
+        PdfOutline outlines = pdf.getOutlines(false);
+        PdfFontPool.DocumentFonts fonts = fontPool.documentFonts();
+        PdfFormXObject[] staticContent = new PdfFormXObject[pageContent.length];
+
+        for (SalaryResult salaryResult : salaryResults) {
+            int layout = layoutOf(salaryResult);
+            if (staticContent[layout] == null) {
+                staticContent[layout] = new PdfFormXObject(PageSize.A4);
+                addFonts(staticContent[layout].getResources(), pdf, fonts);
+                staticContent[layout].getPdfObject().getOutputStream().writeBytes(pageContent[layout]);
+            }
+
+            PdfPage page = pdf.addNewPage(PageSize.A4);
+            PdfCanvas canvas = new PdfCanvas(page);
+            canvas.addXObjectAt(staticContent[layout], 0, 0);
+            drawValues(canvas, fonts, salaryResult, layout, monthYear);
+            canvas.release();
+            outlines.addOutline(salaryResult.getEmployeeId() + " - " + salaryResult.getEmployeeName())
+                    .addDestination(PdfExplicitDestination.createFit(page));
+            page.flush();
+        }
+        pdf.close();
+    }
+
+    /**
+     * Register the regular and bold fonts in the resources the prebuilt content is written to,
+     * checking they get the names that content uses
+     */
+    private void addFonts(PdfResources resources, PdfDocument pdf, PdfFontPool.DocumentFonts fonts) {
+        if (!regularFontName.equals(resources.addFont(pdf, fonts.regular))
+                || !boldFontName.equals(resources.addFont(pdf, fonts.bold))) {
+            throw new IllegalStateException("Fonts of the salary slip page do not match its template");
+        }
+    }
+
+    /**
+     * Write the employee's values and the late mark rules over the static content of the layout
+     */
+    private static void drawValues(PdfCanvas canvas, PdfFontPool.DocumentFonts fonts, SalaryResult salaryResult,
+                                   int layout, String monthYear) {
+        PdfFont regular = fonts.regular;
+        int lateMarks = salaryResult.getLateMarks();
+        showCentered(canvas, fonts, regular, TEXT_SIZE, PERIOD_BASELINE, "For the month of " + monthYear);
+        showValue(canvas, fonts, regular, employeeRowBottom(0), EMPLOYEE_LABEL_WIDTH, salaryResult.getEmployeeId());
+        showValue(canvas, fonts, regular, employeeRowBottom(1), EMPLOYEE_LABEL_WIDTH, salaryResult.getEmployeeName());
+
+        StringBuilder text = new StringBuilder(32);
+        int row = 0;
+        showValue(canvas, fonts, regular, salaryRowBottom(row++), SALARY_LABEL_WIDTH,
+                PDFGenerationService.formatRupees(text, salaryResult.getMonthlySalary()));
+        showValue(canvas, fonts, regular, salaryRowBottom(row++), SALARY_LABEL_WIDTH,
+                PDFGenerationService.formatHours(text, salaryResult.getExpectedHours()));
+        showValue(canvas, fonts, regular, salaryRowBottom(row++), SALARY_LABEL_WIDTH,
+                PDFGenerationService.formatHours(text, salaryResult.getActualWorkedHours()));
+        showValue(canvas, fonts, regular, salaryRowBottom(row++), SALARY_LABEL_WIDTH, String.valueOf(lateMarks));
+        showValue(canvas, fonts, regular, salaryRowBottom(row++), SALARY_LABEL_WIDTH,
+                PDFGenerationService.formatPercent(text, salaryResult.getCoefficient()));
+        if (layout != NO_LATE_MARKS) {
+            showValue(canvas, fonts, regular, salaryRowBottom(row++), SALARY_LABEL_WIDTH,
+                    PDFGenerationService.formatRupees(text, salaryResult.getLateMarkPenalty()));
+        }
+        showValue(canvas, fonts, fonts.bold, salaryRowBottom(row), SALARY_LABEL_WIDTH,
+                PDFGenerationService.formatRupees(text, salaryResult.getFinalPayableSalary()));
+
+        if (layout != NO_LATE_MARKS) {
+            PayrollRules rules = PDFGenerationService.rulesOf(salaryResult);
+            float baseline = lateMarkTextBaseline();
+            showText(canvas, fonts, regular, TEXT_SIZE, MARGIN, baseline,
+                    "You have " + lateMarks + " late mark(s). " + PDFGenerationService.lateMarkRule(rules));
+            if (layout == MANY_LATE_MARKS) {
+                showText(canvas, fonts, regular, TEXT_SIZE, MARGIN, baseline - 16,
+                        PDFGenerationService.additionalLateMarkRule(rules));
+            }
+        }
+    }
+
+    private static int layoutOf(SalaryResult salaryResult) {
+        int lateMarks = salaryResult.getLateMarks();
+        if (lateMarks <= 0) {
+            return NO_LATE_MARKS;
+        }
+        return PDFGenerationService.showsAdditionalLateMarkRule(PDFGenerationService.rulesOf(salaryResult), lateMarks)
+                ? MANY_LATE_MARKS : FEW_LATE_MARKS;
+    }
+
+    private static void drawStaticContent(PdfCanvas canvas, PdfFont regular, PdfFont bold, int layout) {
+        String title = "SALARY SLIP";
+        showText(canvas, bold, TITLE_SIZE, (PAGE_WIDTH - bold.getWidth(title, TITLE_SIZE)) / 2, TITLE_BASELINE, title);
+        canvas.setLineWidth(0.5f);
+
+        for (int row = 0; row < EMPLOYEE_LABELS.length; row++) {
+            drawRow(canvas, bold, employeeRowBottom(row), EMPLOYEE_LABEL_WIDTH, EMPLOYEE_LABELS[row]);
+        }
+
+        int row = 0;
+        for (String label : SALARY_LABELS) {
+            drawRow(canvas, bold, salaryRowBottom(row++), SALARY_LABEL_WIDTH, label);
+        }
+        if (layout != NO_LATE_MARKS) {
+            drawRow(canvas, bold, salaryRowBottom(row++), SALARY_LABEL_WIDTH, PENALTY_LABEL);
+        }
+        drawRow(canvas, bold, salaryRowBottom(row), SALARY_LABEL_WIDTH, FINAL_LABEL);
+
+        float signatureBaseline;
+        if (layout == NO_LATE_MARKS) {
+            signatureBaseline = salaryRowBottom(row) - 60;
+        } else {
+            float baseline = lateMarkTextBaseline();
+            showText(canvas, bold, TEXT_SIZE, MARGIN, baseline + 18, "Late Marks Information:");
+            if (layout == MANY_LATE_MARKS) {
+                // Room for the additional late mark rule
+                baseline -= 16;
+            }
+            signatureBaseline = baseline - 50;
+        }
+        showText(canvas, regular, TEXT_SIZE, MARGIN + CELL_PADDING, signatureBaseline, "Employee Signature");
+        showText(canvas, regular, TEXT_SIZE, MARGIN + CONTENT_WIDTH / 2 + CELL_PADDING, signatureBaseline,
+                "Employer Signature");
+    }
+
+    /**
+     * A shaded label cell and an empty value cell spanning the content width
+     */
+    private static void drawRow(PdfCanvas canvas, PdfFont bold, float bottom, float labelWidth, String label) {
+        canvas.saveState()
+                .setFillColor(PDFGenerationService.HEADER_BACKGROUND)
+                .rectangle(MARGIN, bottom, labelWidth, ROW_HEIGHT)
+                .fillStroke()
+                .restoreState();
+        canvas.rectangle(MARGIN + labelWidth, bottom, CONTENT_WIDTH - labelWidth, ROW_HEIGHT).stroke();
+        showText(canvas, bold, TEXT_SIZE, MARGIN + CELL_PADDING, bottom + TEXT_RISE, label);
+    }
+
+    /**
+     * Write a value into the value cell of a row, shrinking it if it is wider than the cell
+     */
+    private static void showValue(PdfCanvas canvas, PdfFontPool.DocumentFonts fonts, PdfFont font, float bottom,
+                                  float labelWidth, String value) {
+        float available = CONTENT_WIDTH - labelWidth - 2 * CELL_PADDING;
+        float width = fonts.getWidth(font, value, TEXT_SIZE);
+        float size = width > available ? TEXT_SIZE * available / width : TEXT_SIZE;
+        showText(canvas, fonts, font, size, MARGIN + labelWidth + CELL_PADDING, bottom + TEXT_RISE, value);
+    }
+
+    private static void showCentered(PdfCanvas canvas, PdfFontPool.DocumentFonts fonts, PdfFont font, float size,
+                                     float baseline, String text) {
+        showText(canvas, fonts, font, size, (PAGE_WIDTH - fonts.getWidth(font, text, size)) / 2, baseline, text);
+    }
+
+    /**
+     * Show text that may hold characters the font cannot show, switching to its fallback for them
+     */
+    private static void showText(PdfCanvas canvas, PdfFontPool.DocumentFonts fonts, PdfFont font, float size,
+                                 float x, float baseline, String text) {
+        canvas.beginText().moveText(x, baseline);
+        fonts.forEachRun(font, text, (runFont, run) -> canvas.setFontAndSize(runFont, size).showText(run));
+        canvas.endText();
+    }
+
+    private static void showText(PdfCanvas canvas, PdfFont font, float size, float x, float baseline, String text) {
+        canvas.beginText()
+                .setFontAndSize(font, size)
+                .moveText(x, baseline)
+                .showText(text)
+                .endText();
+    }
+
+    private static float employeeRowBottom(int row) {
+        return EMPLOYEE_TABLE_TOP - (row + 1) * ROW_HEIGHT;
+    }
+
+    private static float salaryRowBottom(int row) {
+        return SALARY_TABLE_TOP - (row + 1) * ROW_HEIGHT;
+    }
+
+    /**
+     * Baseline of the "You have N late mark(s)" line, below the salary table with its penalty row
+     */
+    private static float lateMarkTextBaseline() {
+        return salaryRowBottom(SALARY_LABELS.length + 1) - 46;
+    }
+}
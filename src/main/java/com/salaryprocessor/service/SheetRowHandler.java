@@ -0,0 +1,31 @@
+package com.salaryprocessor.service;
+
+import java.util.List;
+
+/**
+ * Receives the rows of a workbook sheet by sheet, in the order a reader produces them.
+ * <p>
+ * Each parsing strategy implements this so that all of them can share a single pass over the
+ * upload, whichever reader (in-memory workbook, XLSX SAX or XLS events) supplies the rows.
+ * Date cells arrive as ISO-8601 date-time text, as rendered by {@link WorkbookCellFormatter}.
+ */
+interface SheetRowHandler {
+
+    /**
+     * Accept the next row of the current sheet
+     * @param rowIndex Zero-based row index within the sheet
+     * @param cellValues Cell values of the row in column order; not retained after the call
+     */
+    void acceptRow(int rowIndex, List<String> cellValues);
+
+    /**
+     * Check whether the text of a row is needed. Readers that can tell "Employee:" rows apart
+     * cheaply may pass an empty cell list for any other row for which this returns false.
+     */
+    boolean needsRowText(int rowIndex);
+
+    /**
+     * Signal the end of the current sheet
+     */
+    void endSheet();
+}
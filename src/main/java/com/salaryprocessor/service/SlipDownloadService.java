@@ -0,0 +1,68 @@
+package com.salaryprocessor.service;
+
+import com.salaryprocessor.model.SalaryResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Download handles for the salary slips of a processed run. Only the computed salaries are kept
+ * under the handle; the ZIP is rendered straight into the response when it is downloaded, so no
+ * archive is ever held in memory or on disk. Handles expire after the retention time and are
+ * removed on a later register or lookup.
+ */
+@Service
+public class SlipDownloadService {
+
+    private static final Logger log = LoggerFactory.getLogger(SlipDownloadService.class);
+
+    @Value("${salary.streaming.download-retention-minutes:30}")
+    private long retentionMinutes;
+
+    private final Map<String, SlipDownload> downloads = new ConcurrentHashMap<>();
+
+    /**
+     * Keep the salaries of a run for downloading their slips
+     * @param results The computed salaries
+     * @return The download ID
+     */
+    public String register(List<SalaryResult> results) {
+        purgeExpiredDownloads();
+        String downloadId = UUID.randomUUID().toString();
+        downloads.put(downloadId, new SlipDownload(results));
+        log.info("Registered slip download {} for {} salaries", downloadId, results.size());
+        return downloadId;
+    }
+
+    /**
+     * Salaries registered under a download ID
+     * @return The salaries, or null if the ID is unknown or has expired
+     */
+    public List<SalaryResult> getResults(String downloadId) {
+        purgeExpiredDownloads();
+        SlipDownload download = downloads.get(downloadId);
+        return download != null ? download.results : null;
+    }
+
+    private void purgeExpiredDownloads() {
+        Instant cutoff = Instant.now().minus(retentionMinutes, ChronoUnit.MINUTES);
+        downloads.values().removeIf(download -> download.registeredAt.isBefore(cutoff));
+    }
+
+    private static final class SlipDownload {
+        private final List<SalaryResult> results;
+        private final Instant registeredAt = Instant.now();
+
+        private SlipDownload(List<SalaryResult> results) {
+            this.results = results;
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package com.salaryprocessor.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single-pass scanner for "Employee:" summary rows.
+ * <p>
+ * Replaces the regex cascade that used to run over the concatenated row text. One forward scan
+ * over a {@link SummaryText} dispatches on the first character of each label, picks up the
+ * employee ID/name from the first well-formed "Employee: &lt;id&gt; : &lt;name&gt;" and the first
+ * valid value of each of the seven metrics, exactly where {@code Matcher.find()} would have.
+ * The remaining legacy fallbacks are only tried for rows the main grammar does not match, and are
+ * linear scans as well. SummaryRowScannerTest checks the scanner against the original patterns.
+ */
+final class SummaryRowScanner {
+
+    private static final Logger log = LoggerFactory.getLogger(SummaryRowScanner.class);
+
+    static final String EMPLOYEE = "Employee:";
+    static final String WORK_DURATION = "Total Work Duration:";
+    static final String OT = "Total OT:";
+    static final String PRESENT = "Present:";
+    static final String ABSENT = "Absent:";
+    static final String WEEKLY_OFF = "WeeklyOff:";
+    static final String LATE_HRS = "Late By Hrs:";
+    static final String LATE_DAYS = "Late By Days:";
+    static final String HRS = "Hrs";
+    static final String TOTAL = "Total";
+    static final String WORK = "Work";
+    private static final String TOTAL_WORK = "Total Work";
+
+    private SummaryRowScanner() {
+    }
+
+    /**
+     * Scan an employee row and its continuation
+     * @return The extracted summary, or null if no employee ID/name could be found
+     */
+    static EmployeeSummary scan(SummaryText text) {
+        ScanState state = new ScanState();
+        int length = text.length();
+        int rowLength = text.rowLength();
+
+        for (int i = 0; i < length; i++) {
+            switch (text.charAt(i)) {
+                case 'E':
+                    if (state.employeeId == null && text.regionMatches(i, EMPLOYEE, rowLength)) {
+                        matchIdAndName(text, i + EMPLOYEE.length(), state);
+                    }
+                    break;
+                case 'T':
+                    if (!state.hasWorkDuration && text.regionMatches(i, WORK_DURATION, length)) {
+                        state.hasWorkDuration = scanDuration(text, i + WORK_DURATION.length(), true, state, 0);
+                    } else if (!state.hasOT && text.regionMatches(i, OT, length)) {
+                        state.hasOT = scanDuration(text, i + OT.length(), true, state, 1);
+                    }
+                    break;
+                case 'P':
+                    if (!state.hasPresent && text.regionMatches(i, PRESENT, length)) {
+                        state.hasPresent = scanNumber(text, i + PRESENT.length(), state, 0);
+                    }
+                    break;
+                case 'A':
+                    if (!state.hasAbsent && text.regionMatches(i, ABSENT, length)) {
+                        state.hasAbsent = scanNumber(text, i + ABSENT.length(), state, 1);
+                    }
+                    break;
+                case 'W':
+                    if (!state.hasWeeklyOff && text.regionMatches(i, WEEKLY_OFF, length)) {
+                        state.hasWeeklyOff = scanNumber(text, i + WEEKLY_OFF.length(), state, 2);
+                    }
+                    break;
+                case 'L':
+                    if (!state.hasLateHrs && text.regionMatches(i, LATE_HRS, length)) {
+                        state.hasLateHrs = scanDuration(text, i + LATE_HRS.length(), false, state, 2);
+                    } else if (!state.hasLateDays && text.regionMatches(i, LATE_DAYS, length)) {
+                        state.hasLateDays = scanNumber(text, i + LATE_DAYS.length(), state, 3);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if (state.employeeId == null) {
+            applyFallbacks(text, state);
+        }
+        if (state.employeeId == null) {
+            return null;
+        }
+
+        EmployeeSummary summary = new EmployeeSummary();
+        summary.setEmployeeId(state.employeeId);
+        summary.setEmployeeName(stripTrailingSpaceAndDots(state.employeeName));
+        summary.setTotalWorkHours(state.durations[0]);
+        summary.setTotalOTHours(state.durations[1]);
+        summary.setLateHours(state.durations[2]);
+        summary.setPresentDays(state.numbers[0]);
+        summary.setAbsentDays(state.numbers[1]);
+        summary.setWeeklyOffDays(state.numbers[2]);
+        summary.setLateDays(state.numbers[3]);
+        return summary;
+    }
+
+    /**
+     * Main grammar after an "Employee:" label: \s*(\d+)\s*:\s*([^\s].+?)(?=\s+Total\s+Work|$)
+     */
+    private static void matchIdAndName(SummaryText text, int from, ScanState state) {
+        int rowLength = text.rowLength();
+        int p = skipSpaces(text, from, rowLength);
+        int idEnd = skipDigits(text, p, rowLength);
+        if (idEnd == p) {
+            return;
+        }
+        if (matchColonAndName(text, idEnd, state)) {
+            state.employeeId = text.substring(p, idEnd);
+            log.debug("Main grammar match: ID={}, Name='{}'", state.employeeId, state.employeeName);
+        }
+    }
+
+    /**
+     * Shared tail of the main and fallback grammars: \s*:\s*([^\s].+?)(?=\s+Total\s+Work|$)
+     */
+    private static boolean matchColonAndName(SummaryText text, int from, ScanState state) {
+        int rowLength = text.rowLength();
+        int p = skipSpaces(text, from, rowLength);
+        if (p >= rowLength || text.charAt(p) != ':') {
+            return false;
+        }
+        int nameStart = skipSpaces(text, p + 1, rowLength);
+        if (nameStart >= rowLength) {
+            return false;
+        }
+
+        // Lazy .+? : the shortest name of at least two characters followed by the terminator.
+        // A whitespace run only needs to be examined once for the terminator.
+        int runEnd = -1;
+        boolean runTerminates = false;
+        for (int end = nameStart + 2; end <= rowLength; end++) {
+            if (isLineTerminator(text.charAt(end - 1))) {
+                return false;
+            }
+            if (end == rowLength) {
+                state.employeeName = text.substring(nameStart, end).trim();
+                return true;
+            }
+            if (!isSpace(text.charAt(end))) {
+                continue;
+            }
+            if (end >= runEnd) {
+                runEnd = skipSpaces(text, end, rowLength);
+                runTerminates = isTotalWork(text, runEnd, rowLength);
+            }
+            if (runTerminates) {
+                state.employeeName = text.substring(nameStart, end).trim();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lookahead tail "Total\s+Work" once the leading \s+ has been consumed
+     */
+    private static boolean isTotalWork(SummaryText text, int p, int limit) {
+        if (!text.regionMatches(p, TOTAL, limit)) {
+            return false;
+        }
+        int afterTotal = p + TOTAL.length();
+        int workStart = skipSpaces(text, afterTotal, limit);
+        return workStart > afterTotal && text.regionMatches(workStart, WORK, limit);
+    }
+
+    /**
+     * Legacy fallbacks, in their original order, for rows the main grammar did not match
+     */
+    private static void applyFallbacks(SummaryText text, ScanState state) {
+        int rowLength = text.rowLength();
+
+        // (\d+)\s*:\s*([^\s].+?)(?=\s+Total\s+Work|$) anywhere in the row
+        int p = 0;
+        while (p < rowLength) {
+            if (!isDigit(text.charAt(p))) {
+                p++;
+                continue;
+            }
+            int idEnd = skipDigits(text, p, rowLength);
+            if (matchColonAndName(text, idEnd, state)) {
+                state.employeeId = text.substring(p, idEnd);
+                log.debug("Fallback grammar match: ID={}, Name='{}'", state.employeeId, state.employeeName);
+                return;
+            }
+            p = idEnd;
+        }
+
+        // Employee:\s*([^:]+):([^T]+)
+        int label = text.indexOf(EMPLOYEE, 0, rowLength);
+        while (label >= 0) {
+            int start = label + EMPLOYEE.length();
+            int q = skipSpaces(text, start, rowLength);
+            int idStart = q;
+            if (q < rowLength && text.charAt(q) == ':') {
+                // \s* gives one character back so [^:]+ can match
+                idStart = q > start ? q - 1 : -1;
+            }
+            if (idStart >= 0 && idStart < rowLength) {
+                int colon = indexOfChar(text, ':', idStart, rowLength);
+                if (colon >= 0 && colon + 1 < rowLength && text.charAt(colon + 1) != 'T') {
+                    int nameEnd = indexOfChar(text, 'T', colon + 1, rowLength);
+                    state.employeeId = text.substring(idStart, colon).trim();
+                    state.employeeName = text.substring(colon + 1, nameEnd >= 0 ? nameEnd : rowLength).trim();
+                    log.debug("Simple grammar match: ID={}, Name='{}'", state.employeeId, state.employeeName);
+                    return;
+                }
+            }
+            label = text.indexOf(EMPLOYEE, label + 1, rowLength);
+        }
+
+        // Manual split on the first colon after the first "Employee:"
+        label = text.indexOf(EMPLOYEE, 0, rowLength);
+        if (label >= 0) {
+            int colon = indexOfChar(text, ':', label + EMPLOYEE.length(), rowLength);
+            if (colon >= 0) {
+                state.employeeId = text.substring(label + EMPLOYEE.length(), colon).trim();
+                String rawName = text.substring(colon + 1, rowLength).trim();
+                int endIndex = rawName.indexOf(TOTAL_WORK);
+                state.employeeName = endIndex > 0 ? rawName.substring(0, endIndex).trim() : rawName;
+                log.debug("Manual extraction: ID={}, Name='{}'", state.employeeId, state.employeeName);
+            }
+        }
+    }
+
+    /**
+     * \s*([\d:]+) optionally followed by \s*Hrs, converted like "130:23" -> 130.23
+     * @return true if the value pattern matched at this position
+     */
+    private static boolean scanDuration(SummaryText text, int from, boolean requireHrs, ScanState state, int slot) {
+        int length = text.length();
+        int start = skipSpaces(text, from, length);
+        int end = start;
+        while (end < length && (isDigit(text.charAt(end)) || text.charAt(end) == ':')) {
+            end++;
+        }
+        if (end == start) {
+            return false;
+        }
+        if (requireHrs && !text.regionMatches(skipSpaces(text, end, length), HRS, length)) {
+            return false;
+        }
+        state.durations[slot] = toHours(text, start, end);
+        return true;
+    }
+
+    /**
+     * \s*([\d\.]+), converted with int semantics (fractions are truncated)
+     * @return true if the value pattern matched at this position
+     */
+    private static boolean scanNumber(SummaryText text, int from, ScanState state, int slot) {
+        int length = text.length();
+        int start = skipSpaces(text, from, length);
+        int end = start;
+        while (end < length && (isDigit(text.charAt(end)) || text.charAt(end) == '.')) {
+            end++;
+        }
+        if (end == start) {
+            return false;
+        }
+        state.numbers[slot] = toInt(text, start, end);
+        return true;
+    }
+
+    /**
+     * Same result as splitting on ":" and requiring exactly two parts: hours + minutes / 100
+     */
+    private static double toHours(SummaryText text, int start, int end) {
+        // String.split drops trailing empty parts
+        int effectiveEnd = end;
+        while (effectiveEnd > start && text.charAt(effectiveEnd - 1) == ':') {
+            effectiveEnd--;
+        }
+        int colon = indexOfChar(text, ':', start, effectiveEnd);
+        if (colon < 0 || indexOfChar(text, ':', colon + 1, effectiveEnd) >= 0) {
+            return 0.0;
+        }
+        int hours = parseDigits(text, start, colon);
+        int minutes = parseDigits(text, colon + 1, effectiveEnd);
+        if (hours < 0 || minutes < 0) {
+            log.warn("Failed to parse duration: {}", text.substring(start, end));
+            return 0.0;
+        }
+
+        // HH.MM format: 37 minutes = 0.37, not 0.616666
+        double result = hours;
+        if (minutes > 0) {
+            result += minutes / 100.0;
+        }
+        return result;
+    }
+
+    /**
+     * Same result as Integer.parseInt, falling back to (int) Double.parseDouble
+     */
+    private static int toInt(SummaryText text, int start, int end) {
+        if (indexOfChar(text, '.', start, end) < 0) {
+            int value = parseDigits(text, start, end);
+            // Too large for an int: the double fallback saturates
+            return value >= 0 ? value : Integer.MAX_VALUE;
+        }
+
+        // Fractional values are rare; let Double handle their rounding
+        String number = text.substring(start, end);
+        try {
+            return (int) Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            log.warn("Failed to parse number: {}", number);
+            return 0;
+        }
+    }
+
+    /**
+     * Parse a run of ASCII digits, or return -1 if it is empty or does not fit in an int
+     */
+    private static int parseDigits(SummaryText text, int start, int end) {
+        if (end <= start) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+            if (value > Integer.MAX_VALUE) {
+                return -1;
+            }
+        }
+        return (int) value;
+    }
+
+    private static int skipSpaces(SummaryText text, int from, int limit) {
+        int p = from;
+        while (p < limit && isSpace(text.charAt(p))) {
+            p++;
+        }
+        return p;
+    }
+
+    private static int skipDigits(SummaryText text, int from, int limit) {
+        int p = from;
+        while (p < limit && isDigit(text.charAt(p))) {
+            p++;
+        }
+        return p;
+    }
+
+    private static int indexOfChar(SummaryText text, char c, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Equivalent of replaceAll("[\\s\\.]+$", "")
+     */
+    static String stripTrailingSpaceAndDots(String name) {
+        int end = name.length();
+        while (end > 0 && (isSpace(name.charAt(end - 1)) || name.charAt(end - 1) == '.')) {
+            end--;
+        }
+        return end == name.length() ? name : name.substring(0, end);
+    }
+
+    /**
+     * Regex \s: [ \t\n\x0B\f\r]
+     */
+    static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Regex \d without UNICODE_CHARACTER_CLASS
+     */
+    static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Characters the regex "." does not match
+     */
+    static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * Mutable accumulator for one scan
+     */
+    private static final class ScanState {
+        private String employeeId;
+        private String employeeName;
+
+        // Work duration, OT, late hours
+        private final double[] durations = new double[3];
+        // Present, absent, weekly off, late days
+        private final int[] numbers = new int[4];
+
+        private boolean hasWorkDuration;
+        private boolean hasOT;
+        private boolean hasLateHrs;
+        private boolean hasPresent;
+        private boolean hasAbsent;
+        private boolean hasWeeklyOff;
+        private boolean hasLateDays;
+    }
+}
@@ -0,0 +1,185 @@
+package com.salaryprocessor.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read-only view of an employee row (and optionally the row after it) as the space separated,
+ * trimmed text the summary patterns are defined over, without concatenating the cell values.
+ * <p>
+ * The text is kept as slices of the original cell strings. {@link #charAt(int)} remembers the
+ * last slice it used, so the forward scans done by {@link SummaryRowScanner} cost O(1) per character.
+ */
+final class SummaryText {
+
+    private static final String SEPARATOR = " ";
+
+    private String[] sources = new String[16];
+    private int[] sourceFrom = new int[16];
+    private int[] textStart = new int[17];
+    private int sliceCount;
+    private int length;
+
+    // Length of the employee row alone; the "$" anchor of the name patterns refers to this
+    private final int rowLength;
+
+    private int cursor;
+
+    /**
+     * @param rowCells Cell values of the employee row
+     * @param nextRowCells Cell values of the following row, or null if there is none
+     */
+    SummaryText(List<String> rowCells, List<String> nextRowCells) {
+        appendRow(rowCells);
+        rowLength = length;
+        if (nextRowCells != null) {
+            appendSlice(SEPARATOR, 0, 1);
+            appendRow(nextRowCells);
+        }
+    }
+
+    int length() {
+        return length;
+    }
+
+    int rowLength() {
+        return rowLength;
+    }
+
+    char charAt(int index) {
+        if (index < textStart[cursor] || index >= textStart[cursor + 1]) {
+            cursor = findSlice(index);
+        }
+        return sources[cursor].charAt(sourceFrom[cursor] + index - textStart[cursor]);
+    }
+
+    /**
+     * Check whether the text contains the given literal at the given position, within the first
+     * {@code limit} characters
+     */
+    boolean regionMatches(int index, String literal, int limit) {
+        if (index + literal.length() > limit) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (charAt(index + i) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find the first occurrence of a literal at or after {@code from}, within the first
+     * {@code limit} characters, or -1
+     */
+    int indexOf(String literal, int from, int limit) {
+        char first = literal.charAt(0);
+        for (int i = from; i + literal.length() <= limit; i++) {
+            if (charAt(i) == first && regionMatches(i, literal, limit)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Copy a range of the text into a new String; only used for extracted values
+     */
+    String substring(int from, int to) {
+        StringBuilder builder = new StringBuilder(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            builder.append(charAt(i));
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return substring(0, length);
+    }
+
+    /**
+     * Append the cells of a row joined by single spaces, trimmed like String.trim()
+     */
+    private void appendRow(List<String> cells) {
+        int firstCell = -1;
+        int firstOffset = 0;
+        for (int c = 0; c < cells.size() && firstCell < 0; c++) {
+            String value = valueOf(cells, c);
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) > ' ') {
+                    firstCell = c;
+                    firstOffset = i;
+                    break;
+                }
+            }
+        }
+        if (firstCell < 0) {
+            return;
+        }
+
+        int lastCell = -1;
+        int lastEnd = 0;
+        for (int c = cells.size() - 1; c >= firstCell && lastCell < 0; c--) {
+            String value = valueOf(cells, c);
+            for (int i = value.length() - 1; i >= 0; i--) {
+                if (value.charAt(i) > ' ') {
+                    lastCell = c;
+                    lastEnd = i + 1;
+                    break;
+                }
+            }
+        }
+
+        for (int c = firstCell; c <= lastCell; c++) {
+            String value = valueOf(cells, c);
+            if (c > firstCell) {
+                appendSlice(SEPARATOR, 0, 1);
+            }
+            int from = c == firstCell ? firstOffset : 0;
+            int to = c == lastCell ? lastEnd : value.length();
+            appendSlice(value, from, to);
+        }
+    }
+
+    private void appendSlice(String source, int from, int to) {
+        if (to <= from) {
+            return;
+        }
+        if (sliceCount == sources.length) {
+            int capacity = sliceCount * 2;
+            sources = Arrays.copyOf(sources, capacity);
+            sourceFrom = Arrays.copyOf(sourceFrom, capacity);
+            textStart = Arrays.copyOf(textStart, capacity + 1);
+        }
+        sources[sliceCount] = source;
+        sourceFrom[sliceCount] = from;
+        textStart[sliceCount] = length;
+        length += to - from;
+        sliceCount++;
+        textStart[sliceCount] = length;
+    }
+
+    private int findSlice(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+        int low = 0;
+        int high = sliceCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (textStart[mid] <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static String valueOf(List<String> cells, int index) {
+        String value = cells.get(index);
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,26 @@
+package com.salaryprocessor.service;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+/**
+ * Formats raw numeric cell values exactly like the in-memory workbook path does,
+ * so streaming readers produce the same row text as {@link ExcelParserService}.
+ * <p>
+ * Not thread-safe (neither is {@link DataFormatter}); use one instance per parse.
+ */
+class WorkbookCellFormatter extends DataFormatter {
+
+    @Override
+    public String formatRawCellContents(double value, int formatIndex, String formatString) {
+        if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+            return DateUtil.getLocalDateTime(value).toString();
+        }
+
+        // Handle both integer and decimal numeric values
+        if (value == Math.floor(value)) {
+            return String.valueOf((int) value);
+        }
+        return String.valueOf(value);
+    }
+}
@@ -0,0 +1,198 @@
+package com.salaryprocessor.service;
+
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads legacy .xls (BIFF8) workbooks record by record with the HSSF event API
+ * instead of building an HSSFWorkbook.
+ * <p>
+ * Cell records arrive in row order, so the reader keeps just the current row and forwards it
+ * to a {@link SheetRowHandler} when the row changes. Row text is only rebuilt for "Employee:"
+ * rows and for rows the handler asks for; every other row is passed on empty.
+ */
+class XlsEventReader {
+
+    private static final Logger log = LoggerFactory.getLogger(XlsEventReader.class);
+
+    /**
+     * Replay every worksheet of the workbook into the handler
+     * @param file The .xls file on disk
+     * @param handler Receives the rows of each sheet in order
+     */
+    void read(File file, SheetRowHandler handler) throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(file, true)) {
+            RowRebuildingListener rowListener = new RowRebuildingListener(handler);
+            FormatTrackingHSSFListener formatListener = new FormatTrackingHSSFListener(rowListener);
+            rowListener.formatListener = formatListener;
+
+            HSSFRequest request = new HSSFRequest();
+            request.addListenerForAllRecords(formatListener);
+            new HSSFEventFactory().processWorkbookEvents(request, fs);
+        }
+    }
+
+    /**
+     * Tracks the current sheet and row, buffering cell records until the row is complete
+     */
+    private static class RowRebuildingListener implements HSSFListener {
+
+        private final SheetRowHandler handler;
+        private final WorkbookCellFormatter formatter = new WorkbookCellFormatter();
+        private FormatTrackingHSSFListener formatListener;
+
+        private final List<String> sheetNames = new ArrayList<>();
+        private SSTRecord sharedStrings;
+        private int sheetIndex = -1;
+        private boolean inWorksheet;
+
+        // Cells of the current row: text for string cells, the record itself for numeric ones
+        private final List<Object> rowCells = new ArrayList<>();
+        private int currentRow = -1;
+        private boolean rowHasEmployeeLabel;
+
+        // Index in rowCells of a formula whose string result follows in a StringRecord
+        private int pendingFormulaCell = -1;
+
+        RowRebuildingListener(SheetRowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void processRecord(Record record) {
+            switch (record.getSid()) {
+                case BoundSheetRecord.sid:
+                    sheetNames.add(((BoundSheetRecord) record).getSheetname());
+                    break;
+                case SSTRecord.sid:
+                    sharedStrings = (SSTRecord) record;
+                    break;
+                case BOFRecord.sid:
+                    if (((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET) {
+                        sheetIndex++;
+                        inWorksheet = true;
+                        log.info("Processing sheet: {}",
+                                sheetIndex < sheetNames.size() ? sheetNames.get(sheetIndex) : String.valueOf(sheetIndex));
+                    }
+                    break;
+                case EOFRecord.sid:
+                    if (inWorksheet) {
+                        flushRow();
+                        handler.endSheet();
+                        inWorksheet = false;
+                    }
+                    break;
+                case LabelSSTRecord.sid:
+                    LabelSSTRecord labelSst = (LabelSSTRecord) record;
+                    addText(labelSst, sharedStrings.getString(labelSst.getSSTIndex()).getString());
+                    break;
+                case LabelRecord.sid:
+                    LabelRecord label = (LabelRecord) record;
+                    addText(label, label.getValue());
+                    break;
+                case NumberRecord.sid:
+                    addValue((NumberRecord) record);
+                    break;
+                case FormulaRecord.sid:
+                    FormulaRecord formula = (FormulaRecord) record;
+                    addValue(formula);
+                    if (formula.hasCachedResultString()) {
+                        pendingFormulaCell = rowCells.size() - 1;
+                    }
+                    break;
+                case StringRecord.sid:
+                    if (pendingFormulaCell >= 0) {
+                        String text = ((StringRecord) record).getString();
+                        rowCells.set(pendingFormulaCell, text);
+                        rowHasEmployeeLabel |= EmployeeSummaryCollector.isEmployeeLabelCell(text);
+                        pendingFormulaCell = -1;
+                    }
+                    break;
+                case BoolErrRecord.sid:
+                    BoolErrRecord boolErr = (BoolErrRecord) record;
+                    addText(boolErr, boolErr.isBoolean() ? String.valueOf(boolErr.getBooleanValue()) : "");
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void addText(CellValueRecordInterface cell, String text) {
+            startRow(cell.getRow());
+            rowCells.add(text);
+            rowHasEmployeeLabel |= EmployeeSummaryCollector.isEmployeeLabelCell(text);
+        }
+
+        private void addValue(CellValueRecordInterface cell) {
+            startRow(cell.getRow());
+            rowCells.add(cell);
+        }
+
+        private void startRow(int row) {
+            if (row != currentRow) {
+                flushRow();
+                currentRow = row;
+            }
+        }
+
+        /**
+         * Hand the buffered row to the handler, resolving its text only if it is needed
+         */
+        private void flushRow() {
+            if (currentRow < 0) {
+                return;
+            }
+
+            if (rowHasEmployeeLabel || handler.needsRowText(currentRow)) {
+                List<String> cellValues = new ArrayList<>(rowCells.size());
+                for (Object cell : rowCells) {
+                    cellValues.add(cell instanceof String ? (String) cell : formatValue((CellValueRecordInterface) cell));
+                }
+                handler.acceptRow(currentRow, cellValues);
+            } else {
+                handler.acceptRow(currentRow, Collections.emptyList());
+            }
+
+            rowCells.clear();
+            currentRow = -1;
+            rowHasEmployeeLabel = false;
+            pendingFormulaCell = -1;
+        }
+
+        /**
+         * Format a numeric cell the same way ExcelParserService.getCellStringValue does
+         */
+        private String formatValue(CellValueRecordInterface cell) {
+            if (cell instanceof FormulaRecord) {
+                // Numeric formula results are rendered without any number format
+                return String.valueOf(((FormulaRecord) cell).getValue());
+            }
+            NumberRecord number = (NumberRecord) cell;
+            return formatter.formatRawCellContents(number.getValue(),
+                    formatListener.getFormatIndex(number), formatListener.getFormatString(number));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.salaryprocessor.service;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads .xlsx workbooks with the SAX event API instead of building an XSSFWorkbook.
+ * <p>
+ * Sheets are parsed straight from the OPC package and each row is handed to a
+ * {@link SheetRowHandler} as soon as it ends, so only the current row (plus
+ * the shared strings table) is ever held in memory regardless of sheet size.
+ * <p>
+ * The shared strings and styles are loaded once when the reader is opened and are only read
+ * afterwards, so {@link #readSheet(int, SheetRowHandler)} may be called from several
+ * threads at once; each call opens its own view of the package for the sheet stream.
+ */
+class XlsxStreamingReader implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(XlsxStreamingReader.class);
+
+    private final File file;
+    private final OPCPackage pkg;
+    private final ReadOnlySharedStringsTable strings;
+    private final StylesTable styles;
+    private final List<String> sheetNames = new ArrayList<>();
+
+    /**
+     * Open the workbook and load its shared strings and styles
+     * @param file The .xlsx file on disk
+     */
+    XlsxStreamingReader(File file) throws IOException {
+        this.file = file;
+        this.pkg = openPackage(file);
+        try {
+            XSSFReader xssfReader = new XSSFReader(pkg);
+            this.strings = new ReadOnlySharedStringsTable(pkg);
+            this.styles = xssfReader.getStylesTable();
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            while (sheets.hasNext()) {
+                sheets.next().close();
+                sheetNames.add(sheets.getSheetName());
+            }
+        } catch (OpenXML4JException | SAXException | IOException | RuntimeException e) {
+            pkg.revert();
+            throw e instanceof IOException ? (IOException) e
+                    : new IOException("Error opening XLSX file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Names of the worksheets, in workbook order
+     */
+    List<String> getSheetNames() {
+        return Collections.unmodifiableList(sheetNames);
+    }
+
+    /**
+     * Stream every sheet of the workbook into the handler, in order
+     * @param handler Receives the rows of each sheet in order
+     */
+    void read(SheetRowHandler handler) throws IOException {
+        try {
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheetStream = sheets.next()) {
+                    log.info("Processing sheet: {}", sheets.getSheetName());
+                    parseSheet(sheetStream, handler);
+                }
+                handler.endSheet();
+            }
+        } catch (OpenXML4JException e) {
+            throw new IOException("Error streaming XLSX file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stream a single sheet into the handler. Safe to call concurrently for different sheets.
+     * @param sheetIndex Zero-based sheet index in workbook order
+     * @param handler Receives the rows of the sheet
+     */
+    void readSheet(int sheetIndex, SheetRowHandler handler) throws IOException {
+        OPCPackage sheetPackage = openPackage(file);
+        try {
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(sheetPackage).getSheetsData();
+            for (int i = 0; sheets.hasNext(); i++) {
+                try (InputStream sheetStream = sheets.next()) {
+                    if (i == sheetIndex) {
+                        log.info("Processing sheet: {}", sheets.getSheetName());
+                        parseSheet(sheetStream, handler);
+                        handler.endSheet();
+                        return;
+                    }
+                }
+            }
+            throw new IOException("Sheet index " + sheetIndex + " not found in " + file.getName());
+        } catch (OpenXML4JException e) {
+            throw new IOException("Error streaming XLSX file: " + e.getMessage(), e);
+        } finally {
+            sheetPackage.revert();
+        }
+    }
+
+    @Override
+    public void close() {
+        // Read-only packages must be reverted rather than closed
+        pkg.revert();
+    }
+
+    private void parseSheet(InputStream sheetStream, SheetRowHandler handler) throws IOException {
+        try {
+            XMLReader sheetParser = XMLHelper.newXMLReader();
+            // DataFormatter is not thread-safe, so each sheet gets its own
+            sheetParser.setContentHandler(new XSSFSheetXMLHandler(
+                    styles, strings, new RowCollectingHandler(handler), new WorkbookCellFormatter(), false));
+            sheetParser.parse(new InputSource(sheetStream));
+        } catch (SAXException | ParserConfigurationException e) {
+            throw new IOException("Error streaming XLSX sheet: " + e.getMessage(), e);
+        }
+    }
+
+    private static OPCPackage openPackage(File file) throws IOException {
+        try {
+            return OPCPackage.open(file, PackageAccess.READ);
+        } catch (OpenXML4JException e) {
+            throw new IOException("Invalid XLSX file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Buffers the cells of the current row and forwards the row when it ends
+     */
+    private static class RowCollectingHandler implements SheetContentsHandler {
+
+        private final SheetRowHandler handler;
+        private final List<String> cellValues = new ArrayList<>();
+
+        RowCollectingHandler(SheetRowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cellValues.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!cellValues.isEmpty()) {
+                handler.acceptRow(rowNum, cellValues);
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            cellValues.add(formattedValue);
+        }
+
+        @Override
+        public void headerFooter(String text, boolean isHeader, String tagName) {
+            // Headers and footers never carry attendance data
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.salaryprocessor.util;
+
+/**
+ * Fixed-point arithmetic and formatting for money in paise (1/100 rupee) and ratios in millionths,
+ * all on primitive longs. Every scaling rounds exactly once, half away from zero, so amounts
+ * computed from the same inputs reconcile to the paisa. The append methods write into a caller's
+ * StringBuilder without allocating, rounding like the DecimalFormat patterns they replace.
+ */
+public final class Money {
+
+    public static final long PAISE_PER_RUPEE = 100;
+
+    // Ratios such as the salary coefficient are kept in millionths
+    public static final long RATIO_SCALE = 1_000_000;
+
+    private Money() {
+    }
+
+    /**
+     * Convert a rupee amount from an external source (Contentful, JSON) to paise
+     */
+    public static long fromRupees(double rupees) {
+        return Math.round(rupees * PAISE_PER_RUPEE);
+    }
+
+    /**
+     * Convert paise to rupees for APIs that still expose doubles; exact for any realistic amount
+     */
+    public static double toRupees(long paise) {
+        return paise / (double) PAISE_PER_RUPEE;
+    }
+
+    /**
+     * Compute {@code value × numerator / denominator}, rounded half away from zero
+     * @throws ArithmeticException if the intermediate product overflows a long
+     */
+    public static long scale(long value, long numerator, long denominator) {
+        if (denominator == 0) {
+            throw new ArithmeticException("Division by zero scaling " + value);
+        }
+        long product = Math.multiplyExact(value, numerator);
+        long quotient = product / denominator;
+        long remainder = product % denominator;
+        if (Math.abs(remainder) * 2 >= Math.abs(denominator)) {
+            quotient += (product < 0) == (denominator < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Append an amount in paise like {@code DecimalFormat("#,##0.00")}: 12345670 is written as "123,456.70"
+     */
+    public static StringBuilder appendRupees(StringBuilder out, long paise) {
+        return appendHundredths(out, paise, true);
+    }
+
+    /**
+     * Append a ratio in millionths as a percentage with two decimals, like {@code DecimalFormat("0.00%")}:
+     * rounded half to even, so 31250 is written as "3.12%"
+     */
+    public static StringBuilder appendPercent(StringBuilder out, long ratio) {
+        return appendHundredths(out, divideHalfEven(ratio, RATIO_SCALE / (100 * 100)), false).append('%');
+    }
+
+    /**
+     * Compute {@code value / divisor} for a positive divisor, rounded half to even
+     */
+    private static long divideHalfEven(long value, long divisor) {
+        long quotient = value / divisor;
+        long twiceRemainder = Math.abs(value % divisor) * 2;
+        if (twiceRemainder > divisor || (twiceRemainder == divisor && (quotient & 1) != 0)) {
+            quotient += value < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Append a value held in hundredths with two decimals
+     * @param grouping Whether to separate thousands with commas
+     */
+    public static StringBuilder appendHundredths(StringBuilder out, long hundredths, boolean grouping) {
+        if (hundredths < 0) {
+            out.append('-');
+            hundredths = -hundredths;
+        }
+        appendWhole(out, hundredths / 100, grouping);
+        int fraction = (int) (hundredths % 100);
+        out.append('.');
+        if (fraction < 10) {
+            out.append('0');
+        }
+        return out.append(fraction);
+    }
+
+    private static void appendWhole(StringBuilder out, long value, boolean grouping) {
+        if (!grouping || value < 1000) {
+            out.append(value);
+            return;
+        }
+        appendWhole(out, value / 1000, true);
+        int group = (int) (value % 1000);
+        out.append(',');
+        if (group < 100) {
+            out.append('0');
+        }
+        if (group < 10) {
+            out.append('0');
+        }
+        out.append(group);
+    }
+}
@@ -0,0 +1,93 @@
+package com.salaryprocessor.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Micro-benchmark of the colon pattern strategy on synthetic day-by-day rosters of growing width.
+ * Each row holds an "ID : Name" cell followed by a date, in time, out time and status per day, so
+ * most cells contain ':'. The per-cell cost of the indexed scan should stay flat as the roster
+ * widens, while the old rescan-per-colon-cell approach grows with the width.
+ * This is for development purposes only
+ */
+public class ColonPatternBenchmark {
+
+    private static final int ROWS = 2000;
+    private static final int[] DAYS = {31, 62, 124, 248};
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        System.out.printf("%6s %8s %14s %14s %16s%n", "days", "cells", "rescan (ms)", "indexed (ms)", "indexed ns/cell");
+        for (int days : DAYS) {
+            List<List<String>> rows = buildRoster(days);
+            int cells = rows.get(0).size();
+
+            long rescanNanos = Long.MAX_VALUE;
+            long indexedNanos = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                int rescanEmployees = rescanPerColonCell(rows);
+                rescanNanos = Math.min(rescanNanos, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                ColonPatternCollector collector = new ColonPatternCollector(0);
+                for (int i = 0; i < rows.size(); i++) {
+                    collector.acceptRow(i, rows.get(i));
+                }
+                indexedNanos = Math.min(indexedNanos, System.nanoTime() - start);
+
+                // Same-day cells of one employee now share a day, so compare employees rather than records
+                if (round == 0 && rescanEmployees != collector.getAttendance().size()) {
+                    throw new IllegalStateException("Strategies disagree on the number of employees");
+                }
+            }
+
+            System.out.printf("%6d %8d %14.1f %14.1f %16.1f%n", days, cells, rescanNanos / 1e6, indexedNanos / 1e6,
+                    (double) indexedNanos / ((long) ROWS * cells));
+        }
+    }
+
+    /**
+     * The approach the controller used: every colon cell rescans the whole row for a date
+     */
+    private static int rescanPerColonCell(List<List<String>> rows) {
+        Set<String> employeeIds = new HashSet<>();
+        for (List<String> row : rows) {
+            for (String cellValue : row) {
+                if (cellValue.contains(":") && ColonPatternCollector.parseDate(cellValue) == null) {
+                    LocalDate date = LocalDate.now();
+                    for (String dateCell : row) {
+                        LocalDate cellDate = ColonPatternCollector.parseDate(dateCell);
+                        if (cellDate != null) {
+                            date = cellDate;
+                        }
+                    }
+                    if (date.getYear() > 0) {
+                        employeeIds.add(cellValue.split(":", 2)[0].trim());
+                    }
+                }
+            }
+        }
+        return employeeIds.size();
+    }
+
+    private static List<List<String>> buildRoster(int days) {
+        List<List<String>> rows = new ArrayList<>(ROWS);
+        LocalDate month = LocalDate.of(2025, 6, 1);
+        for (int i = 0; i < ROWS; i++) {
+            List<String> row = new ArrayList<>(1 + days * 4);
+            row.add((i + 1) + " : Employee " + (i + 1));
+            for (int day = 0; day < days; day++) {
+                row.add(month.plusDays(day).atStartOfDay().toString());
+                row.add("09:" + (10 + day % 50));
+                row.add("18:" + (10 + day % 50));
+                row.add(day % 7 == 6 ? "WO" : "P");
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
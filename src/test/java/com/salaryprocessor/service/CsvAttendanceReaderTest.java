@@ -0,0 +1,71 @@
+package com.salaryprocessor.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The CSV reader must hand the strategies the rows Excel would show for the same roster
+ */
+class CsvAttendanceReaderTest {
+
+    @Test
+    void findsTheEmployeesOfTheShippedRoster() throws Exception {
+        ColonPatternCollector collector = new ColonPatternCollector(0);
+        new CsvAttendanceReader().read(new File("test-files/test_attendance.csv"), collector);
+
+        Map<String, MonthlyAttendance> attendance = collector.getAttendance();
+        assertEquals(new TreeSet<>(Arrays.asList("2", "3", "4", "5", "6")), new TreeSet<>(attendance.keySet()));
+        for (MonthlyAttendance employee : attendance.values()) {
+            assertEquals(YearMonth.of(2025, 6), employee.getPeriod(), employee.getEmployeeId());
+        }
+    }
+
+    @Test
+    void rendersDatesAndTimesLikeWorkbookCells(@TempDir Path dir) throws Exception {
+        RowRecorder rows = new RowRecorder();
+        new CsvAttendanceReader().read(new File("test-files/test_attendance.csv"), rows);
+        assertEquals(Arrays.asList("2 : Manjiri Desai", "2025-06-01T00:00", "1899-12-31T09:00", "1899-12-31T18:00",
+                "P", "9.0"), rows.rows.get(1));
+
+        Path csv = dir.resolve("times.csv");
+        Files.write(csv, "9:05,23:59:30,07:15:00,24:00,12:60,1:2,123:45,2 : Asha\n".getBytes(StandardCharsets.UTF_8));
+        RowRecorder times = new RowRecorder();
+        new CsvAttendanceReader().read(csv.toFile(), times);
+        assertEquals(Arrays.asList("1899-12-31T09:05", "1899-12-31T23:59:30", "1899-12-31T07:15", "24:00", "12:60",
+                "1:2", "123:45", "2 : Asha"), times.rows.get(0));
+    }
+
+    /**
+     * Keeps the text of every row
+     */
+    private static final class RowRecorder implements SheetRowHandler {
+        final List<List<String>> rows = new ArrayList<>();
+
+        @Override
+        public void acceptRow(int rowIndex, List<String> cellValues) {
+            rows.add(new ArrayList<>(cellValues));
+        }
+
+        @Override
+        public boolean needsRowText(int rowIndex) {
+            return true;
+        }
+
+        @Override
+        public void endSheet() {
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.salaryprocessor.service;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Throughput of the memory-mapped CSV reader against the streaming XLSX reader on the same
+ * synthetic roster: blocks of one "Employee:" summary row, its continuation row and a month of
+ * day rows (date, in time, out time, status). Both files are read into the same strategies the
+ * upload endpoints use, and the number of employees found must agree.
+ * Usage: CsvIngestionBenchmark [rows] (default 1,000,000)
+ * This is for development purposes only
+ */
+public class CsvIngestionBenchmark {
+
+    private static final int DAYS_PER_BLOCK = 30;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path csv = Files.createTempFile("attendance-benchmark-", ".csv");
+        Path xlsx = Files.createTempFile("attendance-benchmark-", ".xlsx");
+        try {
+            writeCsv(csv, rows);
+            writeXlsx(xlsx, rows);
+            System.out.printf("%,d rows: CSV %,d bytes, XLSX %,d bytes%n", rows, Files.size(csv), Files.size(xlsx));
+            System.out.printf("%6s %12s %14s %10s%n", "format", "best (ms)", "rows/s", "employees");
+
+            long csvNanos = Long.MAX_VALUE;
+            long xlsxNanos = Long.MAX_VALUE;
+            int csvEmployees = 0;
+            int xlsxEmployees = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                MultiStrategyCollector collector = newCollector();
+                long start = System.nanoTime();
+                new CsvAttendanceReader().read(csv.toFile(), collector);
+                csvNanos = Math.min(csvNanos, System.nanoTime() - start);
+                csvEmployees = employees(collector);
+
+                collector = newCollector();
+                start = System.nanoTime();
+                try (XlsxStreamingReader reader = new XlsxStreamingReader(xlsx.toFile())) {
+                    reader.read(collector);
+                }
+                xlsxNanos = Math.min(xlsxNanos, System.nanoTime() - start);
+                xlsxEmployees = employees(collector);
+            }
+            if (csvEmployees != xlsxEmployees) {
+                throw new IllegalStateException("Readers disagree: " + csvEmployees + " vs " + xlsxEmployees + " employees");
+            }
+
+            System.out.printf("%6s %12.1f %,14.0f %10d%n", "csv", csvNanos / 1e6, rows / (csvNanos / 1e9), csvEmployees);
+            System.out.printf("%6s %12.1f %,14.0f %10d%n", "xlsx", xlsxNanos / 1e6, rows / (xlsxNanos / 1e9), xlsxEmployees);
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(xlsx);
+        }
+    }
+
+    private static MultiStrategyCollector newCollector() {
+        return new MultiStrategyCollector(new EmployeeSummaryCollector(), new ColonPatternCollector(0));
+    }
+
+    private static int employees(MultiStrategyCollector collector) {
+        return collector.toResult(Duration.ZERO).getAttendance().size();
+    }
+
+    private static void writeCsv(Path file, int rows) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < rows; i++) {
+                String[] cells = rowCells(i);
+                for (int c = 0; c < cells.length; c++) {
+                    if (c > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(cells[c]);
+                }
+                writer.write("\r\n");
+            }
+        }
+    }
+
+    private static void writeXlsx(Path file, int rows) throws IOException {
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(1000)) {
+            Sheet sheet = workbook.createSheet("Attendance");
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+            for (int i = 0; i < rows; i++) {
+                Row row = sheet.createRow(i);
+                String[] cells = rowCells(i);
+                for (int c = 0; c < cells.length; c++) {
+                    if (c == 0 && isDayRow(i)) {
+                        // A real date cell, as Excel exports it
+                        row.createCell(c).setCellValue(LocalDate.parse(cells[c]));
+                        row.getCell(c).setCellStyle(dateStyle);
+                    } else {
+                        row.createCell(c).setCellValue(cells[c]);
+                    }
+                }
+            }
+            try (OutputStream out = Files.newOutputStream(file)) {
+                workbook.write(out);
+            }
+            workbook.dispose();
+        }
+    }
+
+    private static boolean isDayRow(int rowIndex) {
+        return rowIndex % (DAYS_PER_BLOCK + 2) >= 2;
+    }
+
+    private static String[] rowCells(int rowIndex) {
+        int block = rowIndex / (DAYS_PER_BLOCK + 2);
+        int offset = rowIndex % (DAYS_PER_BLOCK + 2);
+        int employeeId = block + 1;
+        if (offset == 0) {
+            return new String[] {"Employee: " + employeeId + " : Employee " + employeeId,
+                    "Total Work Duration: 180:30 Hrs", "Total OT: 10:15 Hrs", "Present: 22"};
+        }
+        if (offset == 1) {
+            return new String[] {"Absent: 2", "WeeklyOff: 4", "Late By Hrs: 1:45 Hrs", "Late By Days: " + (block % 5)};
+        }
+        int day = offset - 2;
+        return new String[] {LocalDate.of(2025, 6, 1).plusDays(day).toString(), "09:" + (10 + day),
+                "18:" + (10 + day), day % 7 == 6 ? "WO" : "P"};
+    }
+}
@@ -0,0 +1,36 @@
+package com.salaryprocessor.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Order of the salary results by employee ID
+ */
+class EmployeeIdOrderTest {
+
+    @Test
+    void ordersNumericIdsByValueThenOtherIdsAlphabetically() {
+        List<String> expected = Arrays.asList("0", "2", "007", "7", "10", "099", "100", "123456789012345678901",
+                "A1", "B", "E10", "E2");
+        List<String> ids = new ArrayList<>(expected);
+        Collections.shuffle(ids, new Random(12));
+
+        ids.sort(SalaryComputationService.EMPLOYEE_ID_ORDER);
+
+        assertEquals(expected, ids);
+    }
+
+    @Test
+    void breaksTiesBetweenEqualValuesOnTheText() {
+        assertEquals(0, Integer.signum(SalaryComputationService.EMPLOYEE_ID_ORDER.compare("007", "007")));
+        assertEquals(-1, Integer.signum(SalaryComputationService.EMPLOYEE_ID_ORDER.compare("007", "7")));
+        assertEquals(-1, Integer.signum(SalaryComputationService.EMPLOYEE_ID_ORDER.compare("0", "00")));
+    }
+}
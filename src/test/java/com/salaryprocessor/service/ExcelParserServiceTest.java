@@ -0,0 +1,164 @@
+package com.salaryprocessor.service;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Every reader must produce the parse result of the in-memory workbook path: the XLS event
+ * reader, the XLSX streaming reader, and the streaming reader with the sheets parsed in parallel
+ * and merged
+ */
+class ExcelParserServiceTest {
+
+    private static final String[] FIXTURES = {"src/main/resources/WorkDurationReport1.xls", "test_data.xls",
+            "test-files/test_attendance.xlsx"};
+
+    // Splits the reports between two sheets without separating an "Employee:" row from the row after it
+    private static final int SPLIT_ROW = 205;
+
+    @Test
+    void readersAgreeOnTheShippedFixtures(@TempDir Path dir) throws Exception {
+        List<Path> uploads = new ArrayList<>();
+        for (String fixture : FIXTURES) {
+            Path source = new File(fixture).toPath();
+            Path copy = dir.resolve(uploads.size() + "-" + source.getFileName());
+            Files.copy(source, copy);
+            uploads.add(copy);
+            if (fixture.endsWith(".xls")) {
+                // The same reports as .xlsx, in one sheet and split over two
+                uploads.add(toXlsx(source, dir.resolve(uploads.size() + "-one-sheet.xlsx"), Integer.MAX_VALUE));
+                uploads.add(toXlsx(source, dir.resolve(uploads.size() + "-two-sheets.xlsx"), SPLIT_ROW));
+            }
+        }
+
+        for (Path upload : uploads) {
+            Map<String, Object> expected = describe(parse(dir, upload, false, false));
+            assertFalse(((Map<?, ?>) expected.get("employees")).isEmpty(), upload + " has no employees");
+            for (boolean fastReader : new boolean[] {false, true}) {
+                for (boolean parallelSheets : new boolean[] {false, true}) {
+                    assertEquals(expected, describe(parse(dir, upload, fastReader, parallelSheets)),
+                            upload.getFileName() + " with fast reader " + fastReader + ", parallel sheets "
+                                    + parallelSheets);
+                }
+            }
+        }
+    }
+
+    /**
+     * Parse with a parser configured like the application, picking the readers and sheet parallelism
+     * @param fastReader Whether .xls files go through the event reader and .xlsx files through the streaming one
+     */
+    private static AttendanceParseResult parse(Path dir, Path upload, boolean fastReader, boolean parallelSheets)
+            throws Exception {
+        ExcelParserService parser = new ExcelParserService();
+        ReflectionTestUtils.setField(parser, "xlsxStreaming", fastReader);
+        ReflectionTestUtils.setField(parser, "xlsEventModel", fastReader);
+        ReflectionTestUtils.setField(parser, "parallelSheets", parallelSheets);
+        ReflectionTestUtils.setField(parser, "sheetPoolSize", 2);
+        ReflectionTestUtils.setField(parser, "layoutPlans", true);
+        ReflectionTestUtils.setField(parser, "planCacheSize", 32);
+        ReflectionTestUtils.setField(parser, "fingerprintRows", 10);
+        ReflectionTestUtils.setField(parser, "uploadDir", dir.resolve("uploads").toString());
+        parser.init();
+        try {
+            return parser.parseAttendance(upload, null);
+        } finally {
+            parser.shutdown();
+        }
+    }
+
+    /**
+     * The parts of a result that must not depend on the reader, by employee ID
+     */
+    private static Map<String, Object> describe(AttendanceParseResult result) {
+        Map<String, Object> employees = new TreeMap<>();
+        for (MonthlyAttendance attendance : result.getAttendance().values()) {
+            List<Object> fields = new ArrayList<>();
+            fields.add(attendance.getEmployeeName());
+            fields.add(attendance.getPeriod());
+            fields.add(attendance.getLateMarks());
+            fields.add(attendance.getReportedWorkedHundredths());
+            fields.add(attendance.getOvertimeHundredths());
+            fields.add(attendance.toRecords());
+            employees.put(attendance.getEmployeeId(), fields);
+        }
+        Map<String, Object> description = new TreeMap<>();
+        description.put("strategy", result.getStrategy());
+        description.put("employees", employees);
+        return description;
+    }
+
+    /**
+     * Copy the cells of a workbook into a new .xlsx, moving the rows from {@code splitRow} on into
+     * a second sheet at the same row numbers
+     */
+    private static Path toXlsx(Path source, Path target, int splitRow) throws Exception {
+        try (Workbook from = WorkbookFactory.create(source.toFile(), null, true);
+             XSSFWorkbook to = new XSSFWorkbook()) {
+            Map<String, CellStyle> styles = new HashMap<>();
+            for (Sheet sheet : from) {
+                Sheet first = to.createSheet(sheet.getSheetName());
+                Sheet second = null;
+                for (Row row : sheet) {
+                    if (row.getRowNum() >= splitRow && second == null) {
+                        second = to.createSheet(sheet.getSheetName() + " (2)");
+                    }
+                    Row copy = (row.getRowNum() < splitRow ? first : second).createRow(row.getRowNum());
+                    for (Cell cell : row) {
+                        copyCell(cell, copy.createCell(cell.getColumnIndex()), to, styles);
+                    }
+                }
+            }
+            try (OutputStream out = Files.newOutputStream(target)) {
+                to.write(out);
+            }
+        }
+        return target;
+    }
+
+    private static void copyCell(Cell from, Cell to, XSSFWorkbook workbook, Map<String, CellStyle> styles) {
+        switch (from.getCellType()) {
+            case STRING:
+                to.setCellValue(from.getStringCellValue());
+                break;
+            case NUMERIC:
+                to.setCellValue(from.getNumericCellValue());
+                if (DateUtil.isCellDateFormatted(from)) {
+                    String format = from.getCellStyle().getDataFormatString();
+                    to.setCellStyle(styles.computeIfAbsent(format, f -> {
+                        CellStyle style = workbook.createCellStyle();
+                        style.setDataFormat(workbook.createDataFormat().getFormat(f));
+                        return style;
+                    }));
+                }
+                break;
+            case BOOLEAN:
+                to.setCellValue(from.getBooleanCellValue());
+                break;
+            default:
+                break;
+        }
+    }
+}
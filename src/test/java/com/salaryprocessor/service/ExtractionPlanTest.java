@@ -0,0 +1,315 @@
+package com.salaryprocessor.service;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Differential test of {@link ExtractionPlan} against {@link SummaryRowScanner}: wherever a plan
+ * accepts an employee block it must extract what the scan does
+ */
+class ExtractionPlanTest {
+
+    private static final int RANDOM_BLOCKS = 900_000;
+
+    private static final String[] REPORTS = {"src/main/resources/WorkDurationReport1.xls", "test_data.xls"};
+
+    // Fragments the blocks are mutated with: labels, separators, values and near misses
+    private static final String[] FRAGMENTS = {"Employee:", "Total Work Duration:", "Total OT:", "Present:",
+            "Absent:", "WeeklyOff:", "Late By Hrs:", "Late By Days:", "Holidays:", "Early By Hrs:", "Hrs", "Hrs.",
+            " ", "  ", ":", " : ", "12", "007", "3.5", "130:23", "1:2:3", "0:", "99999999999", "Total", "Work",
+            "Total Work", "Total  Work", "T", "L", ".", "\t", "\n", "x:y", "Asha"};
+
+    // Values the random blocks are filled with; the ones after the first few are edge cases, picked less often
+    private static final String[] DURATIONS = {"152:25", "41:05", "00:00", "9:40", "0:", ":30", "1:2:3", "12", "", "x"};
+    private static final String[] NUMBERS = {"20", "4", "0", "10", "3.5", "007", "99999999999", "", "x"};
+    private static final String[] NAMES = {"Sunil Gije", "Asha Rao", "Ravi Kumar.", "A", "Meena Total", "Kiran\n"};
+    private static final int COMMON_VALUES = 3;
+
+    @Test
+    void compilesAPlanForTheShippedReports() throws Exception {
+        for (String report : REPORTS) {
+            File file = new File(report);
+
+            BlockRecorder records = new BlockRecorder();
+            new XlsEventReader().read(file, records);
+            assertAllBlocksPlanned(report + " (records)", records);
+
+            // The workbook model also passes the blank cells between the label and its value
+            BlockRecorder cells = new BlockRecorder();
+            readWorkbookCells(file, cells);
+            assertAllBlocksPlanned(report + " (cells)", cells);
+        }
+    }
+
+    @Test
+    void matchesTheScannerOnRandomBlocks() {
+        Random random = new Random(42);
+        List<Template> templates = Arrays.asList(new SharedCellTemplate(false), new SharedCellTemplate(true),
+                new SplitCellTemplate());
+        int planned = 0;
+        for (int i = 0; i < RANDOM_BLOCKS; i++) {
+            Template template = templates.get(i % templates.size());
+            List<String> row = template.row(random);
+            List<String> next = template.nextRow(random);
+            int mutations = random.nextInt(3) == 0 ? 0 : 1 + random.nextInt(3);
+            for (int m = 0; m < mutations; m++) {
+                mutate(random, random.nextInt(4) == 0 && next != null ? next : row);
+            }
+            if (random.nextInt(10) == 0) {
+                next = null;
+            }
+
+            EmployeeSummary fromPlan = template.plan.extract(row, next);
+            if (fromPlan == null) {
+                continue;
+            }
+            planned++;
+            EmployeeSummary scanned = SummaryRowScanner.scan(new SummaryText(row, next));
+            assertTrue(fromPlan.sameAs(scanned), "Block " + row + " / " + next + ": plan " + fromPlan + ", scanner " + scanned);
+        }
+        assertTrue(planned > RANDOM_BLOCKS / 10, "Too few blocks the plans accepted: " + planned);
+    }
+
+    private static void assertAllBlocksPlanned(String source, BlockRecorder blocks) {
+        assertEquals(41, blocks.rows.size(), source);
+        LayoutFingerprint fingerprint = LayoutFingerprint.of(blocks.rows.get(0), blocks.nextRows.get(0));
+        assertTrue(fingerprint.isPlannable(), source + " is not plannable");
+        ExtractionPlan plan = ExtractionPlan.compile(fingerprint);
+
+        for (int i = 0; i < blocks.rows.size(); i++) {
+            List<String> row = blocks.rows.get(i);
+            List<String> next = blocks.nextRows.get(i);
+            assertEquals(fingerprint, LayoutFingerprint.of(row, next), source + " block " + i);
+            EmployeeSummary scanned = SummaryRowScanner.scan(new SummaryText(row, next));
+            EmployeeSummary fromPlan = plan.extract(row, next);
+            String idAndName = idAndName(row);
+            if (idAndName.isEmpty() || !Character.isDigit(idAndName.charAt(0))) {
+                // IDs such as "T1" are only read by the scanner's fallback grammar
+                assertNull(fromPlan, source + " block " + i);
+                continue;
+            }
+            assertNotNull(fromPlan, source + " block " + i + " does not fit the plan: " + row);
+            assertTrue(fromPlan.sameAs(scanned), source + " block " + i + ": plan " + fromPlan + ", scanner " + scanned);
+        }
+    }
+
+    /**
+     * First non-blank cell after the "Employee:" cell
+     */
+    private static String idAndName(List<String> row) {
+        int label = 0;
+        while (!EmployeeSummaryCollector.isEmployeeLabelCell(row.get(label))) {
+            label++;
+        }
+        for (int i = label + 1; i < row.size(); i++) {
+            if (!row.get(i).trim().isEmpty()) {
+                return row.get(i).trim();
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Feed the rows of a workbook to the handler the way ExcelParserService does without the event reader
+     */
+    private static void readWorkbookCells(File file, SheetRowHandler handler) throws Exception {
+        DataFormatter formatter = new DataFormatter();
+        try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+            for (Sheet sheet : workbook) {
+                for (Row row : sheet) {
+                    List<String> cellValues = new ArrayList<>();
+                    for (int i = 0; i < row.getLastCellNum(); i++) {
+                        Cell cell = row.getCell(i);
+                        if (cell != null) {
+                            cellValues.add(formatter.formatCellValue(cell));
+                        }
+                    }
+                    handler.acceptRow(row.getRowNum(), cellValues);
+                }
+                handler.endSheet();
+            }
+        }
+    }
+
+    private static void mutate(Random random, List<String> cells) {
+        int index = random.nextInt(cells.size() + 1);
+        String fragment = FRAGMENTS[random.nextInt(FRAGMENTS.length)];
+        if (index == cells.size()) {
+            cells.add(fragment);
+            return;
+        }
+        String value = cells.get(index);
+        int at = random.nextInt(value.length() + 1);
+        switch (random.nextInt(3)) {
+            case 0:
+                cells.set(index, value.substring(0, at) + fragment + value.substring(at));
+                break;
+            case 1:
+                cells.set(index, value.substring(0, at) + value.substring(Math.min(value.length(), at + 1 + random.nextInt(4))));
+                break;
+            default:
+                cells.set(index, fragment);
+                break;
+        }
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(random.nextInt(8) == 0 ? values.length : COMMON_VALUES)];
+    }
+
+    /**
+     * A block layout with a plan compiled from one well-formed block
+     */
+    private abstract static class Template {
+        ExtractionPlan plan;
+
+        void compile() {
+            Random fixed = new Random(0);
+            LayoutFingerprint fingerprint = LayoutFingerprint.of(wellFormedRow(), nextRow(fixed));
+            assertTrue(fingerprint.isPlannable(), getClass().getSimpleName() + " is not plannable");
+            plan = ExtractionPlan.compile(fingerprint);
+        }
+
+        abstract List<String> wellFormedRow();
+
+        abstract List<String> row(Random random);
+
+        abstract List<String> nextRow(Random random);
+    }
+
+    /**
+     * Every metric in one cell after the ID and name, as in WorkDurationReport exports
+     */
+    private static final class SharedCellTemplate extends Template {
+        private final boolean blankCells;
+
+        SharedCellTemplate(boolean blankCells) {
+            this.blankCells = blankCells;
+            compile();
+        }
+
+        @Override
+        List<String> wellFormedRow() {
+            return cells("1 : Sunil Gije", metrics("152:25", "41:05", "20", "4", "10", "00:00", "0"));
+        }
+
+        @Override
+        List<String> row(Random random) {
+            return cells(random.nextInt(50) + " : " + pick(random, NAMES), metrics(pick(random, DURATIONS),
+                    pick(random, DURATIONS), pick(random, NUMBERS), pick(random, NUMBERS), pick(random, NUMBERS),
+                    pick(random, DURATIONS), pick(random, NUMBERS)));
+        }
+
+        @Override
+        List<String> nextRow(Random random) {
+            return new ArrayList<>(Arrays.asList("Status", "WOP", "P", "A"));
+        }
+
+        private List<String> cells(String idAndName, String metrics) {
+            List<String> cells = new ArrayList<>();
+            cells.add("Employee:");
+            if (blankCells) {
+                cells.addAll(Arrays.asList("", ""));
+            }
+            cells.add(idAndName);
+            if (blankCells) {
+                cells.addAll(Arrays.asList("", "", "", ""));
+            }
+            cells.add(metrics);
+            return cells;
+        }
+
+        private static String metrics(String work, String ot, String present, String absent, String weeklyOff,
+                                      String lateHrs, String lateDays) {
+            return " Total Work Duration: " + work + " Hrs. Total OT: " + ot + " Hrs. Present: " + present
+                    + " Absent: " + absent + " WeeklyOff: " + weeklyOff + " Holidays: 0 Leaves Taken: 0 Late By Hrs: "
+                    + lateHrs + " Late By Days: " + lateDays + " Early By Hrs: 00:00 Early going By Days: 0"
+                    + " Total Duration(+OT): 193:30 Average Working Hrs: 9:40";
+        }
+    }
+
+    /**
+     * A cell per label, with values inline, in the next cell, and the unit in its own cell
+     */
+    private static final class SplitCellTemplate extends Template {
+
+        SplitCellTemplate() {
+            compile();
+        }
+
+        @Override
+        List<String> wellFormedRow() {
+            return new ArrayList<>(Arrays.asList("Employee: 101 : John Doe", "Total Work Duration: 128:37", "Hrs",
+                    "Total OT:", "2:05 Hrs"));
+        }
+
+        @Override
+        List<String> row(Random random) {
+            return new ArrayList<>(Arrays.asList("Employee: " + random.nextInt(500) + " : " + pick(random, NAMES),
+                    "Total Work Duration: " + pick(random, DURATIONS), "Hrs", "Total OT:",
+                    pick(random, DURATIONS) + " Hrs"));
+        }
+
+        @Override
+        List<String> nextRow(Random random) {
+            return new ArrayList<>(Arrays.asList("Present: " + pick(random, NUMBERS), "Absent:", pick(random, NUMBERS),
+                    "WeeklyOff: " + pick(random, NUMBERS), "Late By Hrs: " + pick(random, DURATIONS),
+                    "Late By Days: " + pick(random, NUMBERS)));
+        }
+    }
+
+    /**
+     * Keeps each "Employee:" row with the row right after it, as EmployeeSummaryCollector pairs them
+     */
+    private static final class BlockRecorder implements SheetRowHandler {
+        final List<List<String>> rows = new ArrayList<>();
+        final List<List<String>> nextRows = new ArrayList<>();
+        private List<String> pending;
+        private int pendingRow = -1;
+
+        @Override
+        public void acceptRow(int rowIndex, List<String> cellValues) {
+            if (pending != null) {
+                flush(rowIndex == pendingRow + 1 ? new ArrayList<>(cellValues) : null);
+            }
+            if (cellValues.stream().anyMatch(EmployeeSummaryCollector::isEmployeeLabelCell)) {
+                pending = new ArrayList<>(cellValues);
+                pendingRow = rowIndex;
+            }
+        }
+
+        @Override
+        public boolean needsRowText(int rowIndex) {
+            return pending != null && rowIndex == pendingRow + 1;
+        }
+
+        @Override
+        public void endSheet() {
+            if (pending != null) {
+                flush(null);
+            }
+        }
+
+        private void flush(List<String> next) {
+            rows.add(pending);
+            nextRows.add(next);
+            pending = null;
+        }
+    }
+}
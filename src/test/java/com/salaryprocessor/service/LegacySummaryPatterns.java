@@ -0,0 +1,165 @@
+package com.salaryprocessor.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The original regex cascade for "Employee:" summary rows.
+ * <p>
+ * No longer used for parsing; {@link SummaryRowScanner} replaces it. It is kept as the reference
+ * the scanner is checked against in {@link SummaryRowScannerTest}.
+ */
+final class LegacySummaryPatterns {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacySummaryPatterns.class);
+
+    // Pattern to match "Employee: 123:John Doe" format - capturing only the ID and name
+    private static final Pattern EMPLOYEE_PATTERN = Pattern.compile("Employee:\\s*(\\d+)\\s*:\\s*([^\\s].+?)(?=\\s+Total\\s+Work|$)");
+
+    // Fallback pattern for direct matching
+    private static final Pattern FALLBACK_PATTERN = Pattern.compile("(\\d+)\\s*:\\s*([^\\s].+?)(?=\\s+Total\\s+Work|$)");
+
+    // Ultra simple pattern if all else fails
+    private static final Pattern SIMPLE_PATTERN = Pattern.compile("Employee:\\s*([^:]+):([^T]+)");
+
+    // Patterns for attendance metrics
+    private static final Pattern WORK_DURATION_PATTERN = Pattern.compile("Total Work Duration:\\s*([\\d:]+)\\s*Hrs");
+    private static final Pattern OT_PATTERN = Pattern.compile("Total OT:\\s*([\\d:]+)\\s*Hrs");
+    private static final Pattern PRESENT_PATTERN = Pattern.compile("Present:\\s*([\\d\\.]+)");
+    private static final Pattern ABSENT_PATTERN = Pattern.compile("Absent:\\s*([\\d\\.]+)");
+    private static final Pattern WEEKLY_OFF_PATTERN = Pattern.compile("WeeklyOff:\\s*([\\d\\.]+)");
+    private static final Pattern LATE_HRS_PATTERN = Pattern.compile("Late By Hrs:\\s*([\\d:]+)");
+    private static final Pattern LATE_DAYS_PATTERN = Pattern.compile("Late By Days:\\s*([\\d\\.]+)");
+
+    private LegacySummaryPatterns() {
+    }
+
+    /**
+     * Extract an employee summary from the joined text of an "Employee:" row and the row after it
+     * @param rowContent Space separated, trimmed text of the employee row
+     * @param nextRowContent Text of the following row, or null if there is none
+     * @return The summary, or null if no employee ID/name could be found
+     */
+    static EmployeeSummary extract(String rowContent, String nextRowContent) {
+        // Try all patterns one by one
+        String employeeId = null;
+        String employeeName = null;
+
+        // 1. Try main pattern
+        Matcher employeeMatcher = EMPLOYEE_PATTERN.matcher(rowContent);
+        if (employeeMatcher.find()) {
+            employeeId = employeeMatcher.group(1).trim();
+            employeeName = employeeMatcher.group(2).trim();
+        }
+
+        // 2. Try fallback pattern if main didn't work
+        if (employeeId == null || employeeName == null) {
+            employeeMatcher = FALLBACK_PATTERN.matcher(rowContent);
+            if (employeeMatcher.find()) {
+                employeeId = employeeMatcher.group(1).trim();
+                employeeName = employeeMatcher.group(2).trim();
+            }
+        }
+
+        // 3. Try simple pattern as last regex attempt
+        if (employeeId == null || employeeName == null) {
+            employeeMatcher = SIMPLE_PATTERN.matcher(rowContent);
+            if (employeeMatcher.find()) {
+                employeeId = employeeMatcher.group(1).trim();
+                employeeName = employeeMatcher.group(2).trim();
+            }
+        }
+
+        // 4. Manual extraction as absolute last resort
+        if (employeeId == null || employeeName == null) {
+            String afterEmployee = rowContent.substring(rowContent.indexOf("Employee:") + 9).trim();
+            String[] parts = afterEmployee.split(":", 2);
+            if (parts.length == 2) {
+                employeeId = parts[0].trim();
+
+                // Extract name up to "Total Work Duration" or other metrics
+                String rawName = parts[1].trim();
+                int endIndex = rawName.indexOf("Total Work");
+                if (endIndex > 0) {
+                    employeeName = rawName.substring(0, endIndex).trim();
+                } else {
+                    employeeName = rawName;
+                }
+            }
+        }
+
+        if (employeeName == null) {
+            return null;
+        }
+
+        // Get work hour details from this row and the next row
+        String summaryData = nextRowContent != null ? rowContent + " " + nextRowContent : rowContent;
+
+        EmployeeSummary summary = new EmployeeSummary();
+        summary.setEmployeeId(employeeId);
+        summary.setEmployeeName(employeeName.replaceAll("[\\s\\.]+$", ""));
+        summary.setTotalWorkHours(extractHoursFromDuration(summaryData, WORK_DURATION_PATTERN));
+        summary.setTotalOTHours(extractHoursFromDuration(summaryData, OT_PATTERN));
+        summary.setPresentDays(extractNumber(summaryData, PRESENT_PATTERN));
+        summary.setAbsentDays(extractNumber(summaryData, ABSENT_PATTERN));
+        summary.setWeeklyOffDays(extractNumber(summaryData, WEEKLY_OFF_PATTERN));
+        summary.setLateHours(extractHoursFromDuration(summaryData, LATE_HRS_PATTERN));
+        summary.setLateDays(extractNumber(summaryData, LATE_DAYS_PATTERN));
+        return summary;
+    }
+
+    /**
+     * Extract hours from a duration string like "130:23"
+     */
+    private static double extractHoursFromDuration(String text, Pattern pattern) {
+        Matcher matcher = pattern.matcher(text);
+        if (matcher.find()) {
+            String duration = matcher.group(1).trim();
+            log.debug("Found duration: {}", duration);
+            String[] parts = duration.split(":");
+            try {
+                if (parts.length == 2) {
+                    int hours = Integer.parseInt(parts[0]);
+                    int minutes = Integer.parseInt(parts[1]);
+
+                    // Calculate exactly: HH.MM format (not dividing by 60)
+                    // For example: 128:37 should be 128.37, not 128.61666
+                    double result = hours;
+                    if (minutes > 0) {
+                        // Convert minutes to hundredths of an hour (37 minutes = 0.37, not 0.616666)
+                        result += minutes / 100.0;
+                    }
+
+                    log.debug("Converted duration {}:{} to {} hours", hours, minutes, result);
+                    return result;
+                }
+            } catch (NumberFormatException e) {
+                log.warn("Failed to parse duration: {}", duration);
+            }
+        }
+        return 0.0;
+    }
+
+    /**
+     * Extract a numeric value using a regex pattern
+     */
+    private static int extractNumber(String text, Pattern pattern) {
+        Matcher matcher = pattern.matcher(text);
+        if (matcher.find()) {
+            try {
+                return Integer.parseInt(matcher.group(1).trim());
+            } catch (NumberFormatException e) {
+                // Try parsing as a double and convert to int
+                try {
+                    return (int) Double.parseDouble(matcher.group(1).trim());
+                } catch (NumberFormatException ex) {
+                    log.warn("Failed to parse number: {}", matcher.group(1));
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,91 @@
+package com.salaryprocessor.service;
+
+import com.salaryprocessor.model.Employee;
+import com.salaryprocessor.model.PayrollContext;
+import com.salaryprocessor.model.SalaryResult;
+
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Speedup of the parallel salary computation over the sequential one at 10k-100k employees with
+ * 31 daily records each, for 8 and 16 worker threads (or the thread counts given as arguments).
+ * The parallel results must equal the sequential ones, in the same order.
+ * Run with DEBUG logging off for com.salaryprocessor, or the per-employee debug line dominates.
+ * Usage: ParallelSalaryBenchmark [threads...] (default 8 16)
+ * This is for development purposes only
+ */
+public class ParallelSalaryBenchmark {
+
+    private static final int[] HEADCOUNTS = {10_000, 25_000, 50_000, 100_000};
+    private static final PayrollContext CONTEXT = PayrollContext.of(YearMonth.of(2025, 6), 30);
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        int[] threadCounts = {8, 16};
+        if (args.length > 0) {
+            threadCounts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                threadCounts[i] = Integer.parseInt(args[i]);
+            }
+        }
+        System.out.printf("Available processors: %d%n", Runtime.getRuntime().availableProcessors());
+        System.out.printf("%10s %8s %10s %8s%n", "employees", "threads", "best (ms)", "speedup");
+
+        for (int headcount : HEADCOUNTS) {
+            Map<String, MonthlyAttendance> attendance =
+                    SalaryComputationBenchmark.encode(SalaryComputationBenchmark.buildAttendance(headcount));
+            Map<String, Employee> employeeIndex = new HashMap<>();
+            for (Employee employee : SalaryComputationBenchmark.buildEmployees(headcount)) {
+                employeeIndex.put(employee.getEmployeeId(), employee);
+            }
+
+            SalaryComputationService sequential = new SalaryComputationService(null, null);
+            List<SalaryResult> expected = sequential.computeMonthlySalaries(attendance, employeeIndex, CONTEXT);
+            long sequentialNanos = time(sequential, attendance, employeeIndex);
+            System.out.printf("%10d %8s %10.1f %8s%n", headcount, "1", sequentialNanos / 1e6, "1.00");
+
+            for (int threads : threadCounts) {
+                SalaryComputationService parallel = new SalaryComputationService(null, null);
+                parallel.startComputePool(threads, 0);
+                try {
+                    List<SalaryResult> results = parallel.computeMonthlySalaries(attendance, employeeIndex, CONTEXT);
+                    if (!sameResults(expected, results)) {
+                        throw new IllegalStateException("Parallel results differ from the sequential ones");
+                    }
+                    long parallelNanos = time(parallel, attendance, employeeIndex);
+                    System.out.printf("%10d %8d %10.1f %8.2f%n", headcount, threads, parallelNanos / 1e6,
+                            (double) sequentialNanos / parallelNanos);
+                } finally {
+                    parallel.shutdown();
+                }
+            }
+        }
+    }
+
+    private static boolean sameResults(List<SalaryResult> expected, List<SalaryResult> actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (!expected.get(i).getEmployeeId().equals(actual.get(i).getEmployeeId())
+                    || expected.get(i).getFinalPayableSalary() != actual.get(i).getFinalPayableSalary()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long time(SalaryComputationService service, Map<String, MonthlyAttendance> attendance,
+                             Map<String, Employee> employeeIndex) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            service.computeMonthlySalaries(attendance, employeeIndex, CONTEXT);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
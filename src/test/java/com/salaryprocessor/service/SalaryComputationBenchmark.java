@@ -0,0 +1,186 @@
+package com.salaryprocessor.service;
+
+import com.salaryprocessor.model.AttendanceRecord;
+import com.salaryprocessor.model.Employee;
+import com.salaryprocessor.model.PayrollContext;
+import com.salaryprocessor.model.SalaryResult;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Allocation and time per employee of the salary computation on daily-granularity input
+ * (31 records per employee), comparing the previous per-call aggregation (employee map rebuilt
+ * with Collectors.toMap, a HashSet of matching IDs and four streams over each employee's records)
+ * with the computation from AttendanceRecords (encoded on the way in) and from MonthlyAttendance
+ * as the parser produces it. Also reports the bytes allocated to hold the month of attendance in
+ * each form. Allocated bytes are read from the JVM's per-thread allocation counter, so the
+ * numbers include everything the code under test allocates.
+ * Run with DEBUG logging off for com.salaryprocessor, or the per-employee debug line dominates.
+ * Usage: SalaryComputationBenchmark [employees] (default 20,000)
+ * This is for development purposes only
+ */
+public class SalaryComputationBenchmark {
+
+    private static final int DAYS = 31;
+    private static final int WARMUP_ROUNDS = 10;
+    private static final PayrollContext CONTEXT = PayrollContext.of(YearMonth.of(2025, 7), 30);
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Map<String, List<AttendanceRecord>> attendanceRecords = buildAttendance(employees);
+        List<Employee> employeeList = buildEmployees(employees);
+        Map<String, Employee> employeeIndex = new HashMap<>();
+        for (Employee employee : employeeList) {
+            employeeIndex.put(employee.getEmployeeId(), employee);
+        }
+        SalaryComputationService service = new SalaryComputationService(null, null);
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        buildAttendance(employees);
+        long recordBytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        Map<String, MonthlyAttendance> attendance = encode(attendanceRecords);
+        long compactBytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            previousAggregation(attendanceRecords, employeeList);
+            service.computeSalaries(attendanceRecords, employeeIndex, CONTEXT);
+            service.computeMonthlySalaries(attendance, employeeIndex, CONTEXT);
+        }
+
+        long previousNanos = Long.MAX_VALUE;
+        long singlePassNanos = Long.MAX_VALUE;
+        long compactNanos = Long.MAX_VALUE;
+        long previousBytes = Long.MAX_VALUE;
+        long singlePassBytes = Long.MAX_VALUE;
+        long compactBytesPerRun = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long bytes = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            long checksum = previousAggregation(attendanceRecords, employeeList);
+            previousNanos = Math.min(previousNanos, System.nanoTime() - start);
+            previousBytes = Math.min(previousBytes, threads.getThreadAllocatedBytes(threadId) - bytes);
+
+            bytes = threads.getThreadAllocatedBytes(threadId);
+            start = System.nanoTime();
+            List<SalaryResult> results = service.computeSalaries(attendanceRecords, employeeIndex, CONTEXT);
+            singlePassNanos = Math.min(singlePassNanos, System.nanoTime() - start);
+            singlePassBytes = Math.min(singlePassBytes, threads.getThreadAllocatedBytes(threadId) - bytes);
+
+            bytes = threads.getThreadAllocatedBytes(threadId);
+            start = System.nanoTime();
+            List<SalaryResult> compactResults = service.computeMonthlySalaries(attendance, employeeIndex, CONTEXT);
+            compactNanos = Math.min(compactNanos, System.nanoTime() - start);
+            compactBytesPerRun = Math.min(compactBytesPerRun, threads.getThreadAllocatedBytes(threadId) - bytes);
+
+            checkLateMarks(results, checksum);
+            checkLateMarks(compactResults, checksum);
+        }
+
+        System.out.printf("%,d employees x %d records%n", employees, DAYS);
+        System.out.printf("%-12s %10s %14s %14s%n", "approach", "best (ms)", "bytes/employee", "ns/employee");
+        System.out.printf("%-12s %10.1f %14d %14d%n", "previous", previousNanos / 1e6,
+                previousBytes / employees, previousNanos / employees);
+        System.out.printf("%-12s %10.1f %14d %14d%n", "records", singlePassNanos / 1e6,
+                singlePassBytes / employees, singlePassNanos / employees);
+        System.out.printf("%-12s %10.1f %14d %14d%n", "compact", compactNanos / 1e6,
+                compactBytesPerRun / employees, compactNanos / employees);
+        System.out.printf("Attendance held per employee: %d bytes as AttendanceRecords, %d bytes as MonthlyAttendance%n",
+                recordBytes / employees, compactBytes / employees);
+    }
+
+    private static void checkLateMarks(List<SalaryResult> results, long checksum) {
+        long lateMarks = 0;
+        for (SalaryResult result : results) {
+            lateMarks += result.getLateMarks();
+        }
+        if (lateMarks != checksum) {
+            throw new IllegalStateException("Late marks disagree: " + checksum + " vs " + lateMarks);
+        }
+    }
+
+    /**
+     * The aggregation computeSalaries used to do, without its logging: rebuild the employee map,
+     * intersect the IDs into a HashSet and stream each employee's records four times
+     * @return Total late marks, to check the results against the single pass
+     */
+    private static long previousAggregation(Map<String, List<AttendanceRecord>> attendanceRecords,
+                                            List<Employee> employees) {
+        Map<String, Employee> employeeMap = employees.stream()
+                .collect(Collectors.toMap(Employee::getEmployeeId, e -> e));
+        Set<String> matchingEmployeeIds = new HashSet<>(attendanceRecords.keySet());
+        matchingEmployeeIds.retainAll(employeeMap.keySet());
+
+        long totalLateMarks = 0;
+        for (String employeeId : matchingEmployeeIds) {
+            List<AttendanceRecord> records = attendanceRecords.get(employeeId);
+            long presentCount = records.stream().filter(r -> "P".equalsIgnoreCase(r.getStatus())).count();
+            long absentCount = records.stream().filter(r -> "A".equalsIgnoreCase(r.getStatus())).count();
+            long weekOffPresentCount = records.stream().filter(r -> "WOP".equalsIgnoreCase(r.getStatus())).count();
+            long lateMarks = records.stream().filter(AttendanceRecord::isLate).count();
+
+            SalaryResult result = new SalaryResult();
+            result.setEmployeeId(employeeId);
+            result.setExpectedHours((presentCount + absentCount + weekOffPresentCount) * 8.0);
+            result.setLateMarks((int) lateMarks);
+            totalLateMarks += result.getLateMarks();
+        }
+        return totalLateMarks;
+    }
+
+    static Map<String, List<AttendanceRecord>> buildAttendance(int employees) {
+        Map<String, List<AttendanceRecord>> attendanceRecords = new HashMap<>();
+        // A 31-day month, so every record has its own day
+        LocalDate month = LocalDate.of(2025, 7, 1);
+        for (int i = 0; i < employees; i++) {
+            String employeeId = String.valueOf(i + 1);
+            List<AttendanceRecord> records = new ArrayList<>(DAYS);
+            for (int day = 0; day < DAYS; day++) {
+                AttendanceRecord record = new AttendanceRecord();
+                record.setEmployeeId(employeeId);
+                record.setEmployeeName("Employee " + employeeId);
+                record.setDate(month.plusDays(day));
+                record.setStatus(day % 7 == 6 ? "WO" : (i + day) % 13 == 0 ? "A" : "P");
+                record.setHoursWorked(8.0);
+                record.setLate((i + day) % 5 == 0);
+                records.add(record);
+            }
+            attendanceRecords.put(employeeId, records);
+        }
+        return attendanceRecords;
+    }
+
+    static Map<String, MonthlyAttendance> encode(Map<String, List<AttendanceRecord>> attendanceRecords) {
+        Map<String, MonthlyAttendance> attendance = new HashMap<>();
+        for (Map.Entry<String, List<AttendanceRecord>> entry : attendanceRecords.entrySet()) {
+            attendance.put(entry.getKey(), MonthlyAttendance.fromRecords(entry.getKey(), entry.getValue()));
+        }
+        return attendance;
+    }
+
+    static List<Employee> buildEmployees(int employees) {
+        List<Employee> employeeList = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            Employee employee = new Employee();
+            employee.setEmployeeId(String.valueOf(i + 1));
+            employee.setName("Employee " + (i + 1));
+            employee.setMonthlySalary(30000 + i % 50 * 1000);
+            employeeList.add(employee);
+        }
+        return employeeList;
+    }
+}
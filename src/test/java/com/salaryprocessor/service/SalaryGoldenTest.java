@@ -0,0 +1,242 @@
+package com.salaryprocessor.service;
+
+import com.salaryprocessor.model.AttendanceRecord;
+import com.salaryprocessor.model.Employee;
+import com.salaryprocessor.model.PayrollContext;
+import com.salaryprocessor.model.PayrollRules;
+import com.salaryprocessor.model.SalaryResult;
+import com.salaryprocessor.util.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Golden cases for the fixed-point salary computation: hand-computed amounts in paise that the
+ * computation must reproduce exactly, plus a comparison of the Money formatting against
+ * DecimalFormat
+ */
+class SalaryGoldenTest {
+
+    private static final YearMonth PERIOD = YearMonth.of(2025, 6);
+
+    @Test
+    void fullMonth() {
+        // Full month worked, no late marks
+        check(30000.00, 240, 0, 0, 30, 3_000_000L, 1_000_000L, 0L, 3_000_000L);
+    }
+
+    @Test
+    void partialMonth() {
+        // 14920 of 24000 hundredths: 5,000,000 × 14920 / 24000 = 3,108,333.33; third late mark is half a day
+        check(50000.00, 149.2, 0, 3, 30, 3_108_333L, 621_667L, 83_333L, 3_025_000L);
+    }
+
+    @Test
+    void hoursThatAreNotWholeMinutes() {
+        // "128:37" is 128.37 hours, not 128 h 37 min: 3,000,000 × 12837 / 24000 = 1,604,625
+        check(30000.00, 128.37, 0, 0, 30, 1_604_625L, 534_875L, 0L, 1_604_625L);
+        // A hundredth of an hour: 5,000,000 × 1 / 24000 = 208.33, and 1,000,000 / 24000 = 41.67
+        check(50000.00, 0.01, 0, 0, 30, 208L, 42L, 0L, 208L);
+        // 150.45 + 2.05 = 152.50 hours of 208: 2,600,000 × 15250 / 20800 = 1,906,250
+        check(26000.00, 150.45, 2.05, 0, 26, 1_906_250L, 733_173L, 0L, 1_906_250L);
+    }
+
+    @Test
+    void attendanceKeepsTheReportedHours() {
+        AttendanceRecord record = new AttendanceRecord();
+        record.setDate(LocalDate.of(2025, 6, 1));
+        record.setStatus("P");
+        record.setHoursWorked(128.37);
+        record.setOvertime(0.01);
+        record.setLateHours(1.10);
+
+        AttendanceRecord roundTrip = MonthlyAttendance.fromRecords("1", Collections.singletonList(record))
+                .toRecords().get(0);
+
+        assertEquals(128.37, roundTrip.getHoursWorked());
+        assertEquals(0.01, roundTrip.getOvertime());
+        assertEquals(1.10, roundTrip.getLateHours());
+    }
+
+    @Test
+    void payCycleAcrossAMonthBoundary() {
+        // A 26th-to-25th cycle keeps every day and all five late marks, 3 + 2 sixths of a day
+        List<AttendanceRecord> records = new ArrayList<>();
+        LocalDate start = LocalDate.of(2025, 5, 26);
+        for (int day = 0; day < 31; day++) {
+            AttendanceRecord record = new AttendanceRecord();
+            record.setEmployeeId("1");
+            record.setDate(start.plusDays(day));
+            record.setStatus("P");
+            record.setHoursWorked(day == 0 ? 200 : 8);
+            record.setOvertime(day == 0 ? 10 : 0);
+            record.setLate(day == 2 || day == 4 || day == 7 || day == 25 || day == 30);
+            records.add(record);
+        }
+
+        MonthlyAttendance attendance = MonthlyAttendance.fromRecords("1", records);
+        assertEquals(31, attendance.getRecordedDayCount());
+        assertEquals(5, attendance.getLateMarks());
+        List<AttendanceRecord> roundTrip = attendance.toRecords();
+        assertEquals(start, roundTrip.get(0).getDate());
+        assertEquals(LocalDate.of(2025, 6, 25), roundTrip.get(30).getDate());
+        assertTrue(roundTrip.get(7).isLate());
+
+        Employee employee = new Employee();
+        employee.setEmployeeId("1");
+        employee.setMonthlySalary(45000.50);
+        SalaryResult result = new SalaryComputationService(null, null).computeSalaries(
+                Collections.singletonMap("1", records), Collections.singletonMap("1", employee),
+                new PayrollContext(PERIOD, 30, PayrollRules.DEFAULT)).get(0);
+        assertEquals(5, result.getLateMarks());
+        assertEquals(125_001L, Money.fromRupees(result.getLateMarkPenalty()));
+        assertEquals(3_812_543L, Money.fromRupees(result.getFinalPayableSalary()));
+
+        // Days that cannot be kept apart are rejected instead of dropped
+        List<AttendanceRecord> duplicate = new ArrayList<>(records);
+        duplicate.add(records.get(3));
+        assertThrows(IllegalArgumentException.class, () -> MonthlyAttendance.fromRecords("1", duplicate));
+        AttendanceRecord tooLate = new AttendanceRecord();
+        tooLate.setDate(LocalDate.of(2025, 6, 26));
+        List<AttendanceRecord> tooLong = new ArrayList<>(records);
+        tooLong.add(tooLate);
+        assertThrows(IllegalArgumentException.class, () -> MonthlyAttendance.fromRecords("1", tooLong));
+    }
+
+    @Test
+    void overtimeAndLateMarks() {
+        // Overtime counts towards the hours; five late marks are 3 + 2 sixths of a day
+        check(45000.50, 200, 10, 5, 30, 3_937_544L, 875_000L, 125_001L, 3_812_543L);
+    }
+
+    @Test
+    void forgivenLateMarks() {
+        // Two late marks are forgiven, 26 working days are 20800 expected hundredths
+        check(26000.00, 208, 0, 2, 26, 2_600_000L, 1_000_000L, 0L, 2_600_000L);
+    }
+
+    @Test
+    void aboveFullMonth() {
+        // More than the expected hours pays more than the monthly salary
+        check(12345.67, 250, 0, 10, 30, 1_286_007L, 1_041_667L, 68_587L, 1_217_420L);
+    }
+
+    @Test
+    void customRules() {
+        // A rule set capping the coefficient at 100% and the penalty at four sixths of a day:
+        // 1,234,567 × 4 / 180 = 27,434.82
+        PayrollRules capped = new PayrollRules("capped", 1, 8.0, 30, 2, 3, 1, 4, Money.RATIO_SCALE);
+        check(capped, 12345.67, 250, 0, 10, 30, 1_234_567L, 1_000_000L, 27_435L, 1_207_132L);
+        // A rule set forgiving no late marks and deducting a full day for each
+        PayrollRules strict = new PayrollRules("strict", 1, 8.0, 30, 0, 6, 6, 0, PayrollRules.NO_COEFFICIENT_CAP);
+        check(strict, 30000.00, 240, 0, 3, 30, 3_000_000L, 1_000_000L, 300_000L, 2_700_000L);
+    }
+
+    @Test
+    void lateMarkRulesFollowTheRuleSet() {
+        PayrollRules rules = PayrollRules.DEFAULT;
+        assertEquals("First 3 late marks result in a 0.5 day salary deduction.", PDFGenerationService.lateMarkRule(rules));
+        assertEquals("Each additional late mark results in a 0.5/3 day salary deduction.",
+                PDFGenerationService.additionalLateMarkRule(rules));
+        assertFalse(PDFGenerationService.showsAdditionalLateMarkRule(rules, 3));
+        assertTrue(PDFGenerationService.showsAdditionalLateMarkRule(rules, 4));
+
+        PayrollRules capped = new PayrollRules("capped", 1, 8.0, 30, 2, 3, 1, 4, Money.RATIO_SCALE);
+        assertEquals("Each additional late mark results in a 0.5/3 day salary deduction, up to 2/3 day a month.",
+                PDFGenerationService.additionalLateMarkRule(capped));
+        PayrollRules strict = new PayrollRules("strict", 1, 8.0, 30, 0, 6, 6, 0, PayrollRules.NO_COEFFICIENT_CAP);
+        assertEquals("The first late mark results in a 1 day salary deduction.", PDFGenerationService.lateMarkRule(strict));
+        assertTrue(PDFGenerationService.showsAdditionalLateMarkRule(strict, 2));
+        PayrollRules flat = new PayrollRules("flat", 1, 8.0, 30, 4, 9, 0, 0, PayrollRules.NO_COEFFICIENT_CAP);
+        assertEquals("First 5 late marks result in a 1.5 day salary deduction.", PDFGenerationService.lateMarkRule(flat));
+        assertFalse(PDFGenerationService.showsAdditionalLateMarkRule(flat, 10));
+    }
+
+    @Test
+    void scaleRoundsHalfAwayFromZero() {
+        assertEquals(3, Money.scale(5, 1, 2));
+        assertEquals(-3, Money.scale(-5, 1, 2));
+        assertEquals(13, Money.scale(100, 1, 8));
+        assertEquals(33, Money.scale(100, 1, 3));
+    }
+
+    @Test
+    void formatsLikeDecimalFormat() {
+        assertEquals("123,456.70", Money.appendRupees(new StringBuilder(), 12_345_670L).toString());
+        assertEquals("0.05", Money.appendRupees(new StringBuilder(), 5L).toString());
+        assertEquals("-1,000.00", Money.appendRupees(new StringBuilder(), -100_000L).toString());
+        assertEquals("62.17%", Money.appendPercent(new StringBuilder(), 621_667L).toString());
+        assertEquals("100.00%", Money.appendPercent(new StringBuilder(), 1_000_000L).toString());
+        assertEquals("3.12%", Money.appendPercent(new StringBuilder(), 31_250L).toString());
+        assertEquals("15.62%", Money.appendPercent(new StringBuilder(), 156_250L).toString());
+        assertEquals("3.14%", Money.appendPercent(new StringBuilder(), 31_350L).toString());
+
+        DecimalFormat decimalFormat = new DecimalFormat("#,##0.00");
+        DecimalFormat percentFormat = new DecimalFormat("0.00%");
+        Random random = new Random(14);
+        for (int i = 0; i < 100_000; i++) {
+            long paise = random.nextInt(2_000_000_000) - 1_000_000_000L;
+            assertEquals(decimalFormat.format(paise / 100.0), Money.appendRupees(new StringBuilder(), paise).toString());
+
+            // Every fourth ratio is a tie; millionths are exact as a BigDecimal, not as a double
+            long ratio = random.nextInt(4_000_000) - 1_000_000L;
+            if (i % 4 == 0) {
+                ratio = ratio / 100 * 100 + 50;
+            }
+            assertEquals(percentFormat.format(BigDecimal.valueOf(ratio, 6)),
+                    Money.appendPercent(new StringBuilder(), ratio).toString(), "Ratio " + ratio);
+        }
+    }
+
+    private static void check(double monthlySalary, double hours, double overtime, int lateMarks,
+                              int totalWorkingDays, long grossPaise, long coefficient, long penaltyPaise,
+                              long finalPaise) {
+        check(PayrollRules.DEFAULT, monthlySalary, hours, overtime, lateMarks, totalWorkingDays,
+                grossPaise, coefficient, penaltyPaise, finalPaise);
+    }
+
+    private static void check(PayrollRules rules, double monthlySalary, double hours, double overtime,
+                              int lateMarks, int totalWorkingDays, long grossPaise, long coefficient,
+                              long penaltyPaise, long finalPaise) {
+        Employee employee = new Employee();
+        employee.setEmployeeId("1");
+        employee.setName("Golden");
+        employee.setMonthlySalary(monthlySalary);
+
+        List<AttendanceRecord> records = new ArrayList<>();
+        for (int day = 0; day < Math.max(lateMarks, 1); day++) {
+            AttendanceRecord record = new AttendanceRecord();
+            record.setEmployeeId("1");
+            record.setDate(LocalDate.of(2025, 6, day + 1));
+            record.setStatus("P");
+            record.setHoursWorked(hours);
+            record.setOvertime(overtime);
+            record.setLate(day < lateMarks);
+            records.add(record);
+        }
+
+        PayrollContext context = new PayrollContext(PERIOD, totalWorkingDays, rules);
+        Map<String, Employee> employeeIndex = Collections.singletonMap("1", employee);
+        SalaryResult result = new SalaryComputationService(null, null)
+                .computeSalaries(Collections.singletonMap("1", records), employeeIndex, context).get(0);
+
+        assertEquals(finalPaise, grossPaise - penaltyPaise, "expected amounts do not reconcile");
+        assertEquals(hours + overtime, result.getActualWorkedHours(), 1e-9, "worked hours");
+        assertEquals(coefficient, Math.round(result.getCoefficient() * Money.RATIO_SCALE), "coefficient");
+        assertEquals(penaltyPaise, Money.fromRupees(result.getLateMarkPenalty()), "penalty");
+        assertEquals(finalPaise, Money.fromRupees(result.getFinalPayableSalary()), "final salary");
+    }
+}
@@ -0,0 +1,160 @@
+package com.salaryprocessor.service;
+
+import com.salaryprocessor.model.SalaryResult;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Time and allocation per slip of rendering salary slips through the layout engine against
+ * stamping them onto the prebuilt template, over a mix of employees with no, few and many late
+ * marks. Also compares the ZIP of separate slips with the single combined PDF of all of them.
+ * Allocated bytes are read from the JVM's per-thread allocation counter. With an output
+ * directory, one slip of each layout is written from both paths, and the combined PDF of all
+ * slips, to compare them side by side.
+ * Usage: SalarySlipTemplateBenchmark [slips] [output directory] (default 2,000 slips)
+ * This is for development purposes only
+ */
+public class SalarySlipTemplateBenchmark {
+
+    private static final String MONTH_YEAR = "July 2025";
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int slips = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        List<SalaryResult> results = buildResults(slips);
+        PDFGenerationService service = new PDFGenerationService();
+        service.init();
+        SalarySlipTemplate template = new SalarySlipTemplate(new PdfFontPool());
+
+        String[] approaches = {"layout", "template", "zip", "document"};
+        List<Approach> runs = List.of(
+                () -> renderLayout(service, results),
+                () -> renderTemplate(template, results),
+                () -> {
+                    CountingOutputStream out = new CountingOutputStream();
+                    service.writeSalarySlipsZip(results, out);
+                    return out.count;
+                },
+                () -> {
+                    CountingOutputStream out = new CountingOutputStream();
+                    template.renderDocument(results, MONTH_YEAR, out);
+                    return out.count;
+                });
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (Approach run : runs) {
+                run.render();
+            }
+        }
+
+        System.out.printf("%,d salary slips%n", slips);
+        System.out.printf("%-10s %10s %12s %12s %12s%n", "approach", "best (ms)", "us/slip", "bytes/slip", "out bytes");
+        for (int i = 0; i < runs.size(); i++) {
+            long bestNanos = Long.MAX_VALUE;
+            long bestBytes = Long.MAX_VALUE;
+            long size = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long bytes = threads.getThreadAllocatedBytes(threadId);
+                long start = System.nanoTime();
+                size = runs.get(i).render();
+                bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+                bestBytes = Math.min(bestBytes, threads.getThreadAllocatedBytes(threadId) - bytes);
+            }
+            System.out.printf("%-10s %10.1f %12.1f %12d %12d%n", approaches[i], bestNanos / 1e6,
+                    bestNanos / 1e3 / slips, bestBytes / slips, size / slips);
+        }
+
+        if (args.length > 1) {
+            Path outputDir = Files.createDirectories(Paths.get(args[1]));
+            for (int i = 0; i < 3; i++) {
+                SalaryResult result = results.get(i);
+                Files.write(outputDir.resolve("layout_" + result.getLateMarks() + "_late_marks.pdf"),
+                        service.renderLayout(result, MONTH_YEAR));
+                Files.write(outputDir.resolve("template_" + result.getLateMarks() + "_late_marks.pdf"),
+                        template.render(result, MONTH_YEAR));
+            }
+            try (OutputStream out = Files.newOutputStream(outputDir.resolve("salary_slips.pdf"))) {
+                template.renderDocument(results, MONTH_YEAR, out);
+            }
+            System.out.println("Sample slips written to " + outputDir.toAbsolutePath());
+        }
+    }
+
+    private static long renderLayout(PDFGenerationService service, List<SalaryResult> results) {
+        long size = 0;
+        for (SalaryResult result : results) {
+            size += service.renderLayout(result, MONTH_YEAR).length;
+        }
+        return size;
+    }
+
+    private static long renderTemplate(SalarySlipTemplate template, List<SalaryResult> results) {
+        long size = 0;
+        for (SalaryResult result : results) {
+            size += template.render(result, MONTH_YEAR).length;
+        }
+        return size;
+    }
+
+    @FunctionalInterface
+    private interface Approach {
+        /**
+         * Render every slip
+         * @return Bytes written
+         */
+        long render() throws IOException;
+    }
+
+    /**
+     * Counts the bytes written to it and drops them
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    /**
+     * Salaries cycling through no, two and five late marks, so each layout is rendered
+     */
+    private static List<SalaryResult> buildResults(int slips) {
+        Random random = new Random(23);
+        int[] lateMarks = {0, 2, 5};
+        List<SalaryResult> results = new ArrayList<>(slips);
+        for (int i = 0; i < slips; i++) {
+            SalaryResult result = new SalaryResult();
+            result.setEmployeeId(String.valueOf(1000 + i));
+            result.setEmployeeName("Employee " + (1000 + i));
+            result.setMonthlySalary(20_000 + random.nextInt(80_000));
+            result.setExpectedHours(208);
+            result.setActualWorkedHours(180 + random.nextInt(40) + random.nextInt(100) / 100.0);
+            result.setLateMarks(lateMarks[i % lateMarks.length]);
+            result.setCoefficient(result.getActualWorkedHours() / result.getExpectedHours());
+            result.setLateMarkPenalty(result.getLateMarks() > 2 ? 500 : 0);
+            result.setFinalPayableSalary(result.getMonthlySalary() * result.getCoefficient() - result.getLateMarkPenalty());
+            results.add(result);
+        }
+        return results;
+    }
+}
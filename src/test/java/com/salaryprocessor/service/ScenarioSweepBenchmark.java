@@ -0,0 +1,97 @@
+package com.salaryprocessor.service;
+
+import com.salaryprocessor.model.Employee;
+import com.salaryprocessor.model.PayrollContext;
+import com.salaryprocessor.model.PayrollRules;
+import com.salaryprocessor.model.SalaryResult;
+import com.salaryprocessor.model.ScenarioSweepResult;
+import com.salaryprocessor.util.Money;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Time of a what-if sweep over one month of attendance, evaluating all scenarios per employee in
+ * one pass, against computing the month once per scenario as repeated /process calls would (not
+ * counting the parse each of those calls repeats). Also checks that every scenario total of the
+ * sweep matches the sum of the separately computed salaries to the paisa.
+ * Run with DEBUG logging off for com.salaryprocessor, or the per-employee debug line dominates.
+ * Usage: ScenarioSweepBenchmark [employees] (default 20,000)
+ * This is for development purposes only
+ */
+public class ScenarioSweepBenchmark {
+
+    private static final YearMonth PERIOD = YearMonth.of(2025, 7);
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Random random = new Random(20);
+        Map<String, MonthlyAttendance> attendance = new HashMap<>();
+        Map<String, Employee> employeeIndex = new HashMap<>();
+        for (int i = 1; i <= employees; i++) {
+            String employeeId = String.valueOf(i);
+            MonthlyAttendance month = new MonthlyAttendance(employeeId, "Employee " + i, PERIOD);
+            int lateMarks = random.nextInt(8);
+            for (int day = 1; day <= 26; day++) {
+                month.setDay(LocalDate.of(2025, 7, day), MonthlyAttendance.PRESENT,
+                        day == 1 ? 180 * 60 + random.nextInt(40 * 60) : 0, day <= lateMarks);
+            }
+            attendance.put(employeeId, month);
+
+            Employee employee = new Employee();
+            employee.setEmployeeId(employeeId);
+            employee.setName("Employee " + i);
+            employee.setMonthlySalary(20_000 + random.nextInt(80_000) + random.nextInt(100) / 100.0);
+            employeeIndex.put(employeeId, employee);
+        }
+
+        PayrollRules strict = new PayrollRules("strict", 1, 8.0, 30, 0, 3, 3, 0, Money.RATIO_SCALE);
+        List<PayrollContext> scenarios = new ArrayList<>();
+        for (int days : new int[] {26, 30}) {
+            for (PayrollRules rules : new PayrollRules[] {PayrollRules.DEFAULT, strict}) {
+                for (double hours : new double[] {8.0, 9.0}) {
+                    scenarios.add(new PayrollContext(PERIOD, days, rules.withHoursPerDay(hours)));
+                }
+            }
+        }
+        SalaryComputationService service = new SalaryComputationService(null, null);
+
+        long sweepNanos = Long.MAX_VALUE;
+        long separateNanos = Long.MAX_VALUE;
+        ScenarioSweepResult sweep = null;
+        long[] separateTotals = new long[scenarios.size()];
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            sweep = service.sweepScenarios(attendance, employeeIndex, scenarios);
+            sweepNanos = Math.min(sweepNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < scenarios.size(); i++) {
+                long total = 0;
+                for (SalaryResult result : service.computeMonthlySalaries(attendance, employeeIndex, scenarios.get(i))) {
+                    total += Money.fromRupees(result.getFinalPayableSalary());
+                }
+                separateTotals[i] = total;
+            }
+            separateNanos = Math.min(separateNanos, System.nanoTime() - start);
+        }
+
+        for (int i = 0; i < scenarios.size(); i++) {
+            ScenarioSweepResult.ScenarioTotals totals = sweep.getScenarios().get(i);
+            if (Money.fromRupees(totals.getFinalPayable()) != separateTotals[i]) {
+                throw new IllegalStateException("Scenario " + totals.getName() + " totals disagree: "
+                        + totals.getFinalPayable() + " vs " + Money.toRupees(separateTotals[i]));
+            }
+            System.out.printf("%-28s %,18.2f %,16.2f%n", totals.getName(), totals.getFinalPayable(),
+                    totals.getDeltaFromBaseline());
+        }
+        System.out.printf("%,d employees x %d scenarios: sweep %.1f ms, one computation per scenario %.1f ms%n",
+                employees, scenarios.size(), sweepNanos / 1e6, separateNanos / 1e6);
+    }
+}
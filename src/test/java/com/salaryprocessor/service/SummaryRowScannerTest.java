@@ -0,0 +1,131 @@
+package com.salaryprocessor.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Differential test of {@link SummaryRowScanner} against the regex cascade it replaced
+ */
+class SummaryRowScannerTest {
+
+    private static final int RANDOM_ROWS = 100_000;
+
+    // Fragments the random rows are assembled from: labels, separators, values and near misses
+    private static final String[] FRAGMENTS = {"Employee:", "Employee: ", "Total Work Duration:", "Total OT:",
+            "Present:", "Absent:", "WeeklyOff:", "Late By Hrs:", "Late By Days:", "Hrs", " ", "  ", ":", " : ",
+            "12", "007", "3.5", "130:23", "1:2:3", "John", "Doe", "T", "Total", "Work", "Total  Work", ".", "\t",
+            "Test", "A", "x:y", "99999999999", "0:", "Total Work"};
+
+    @Test
+    void extractsTheMetricsOfASummaryRow() {
+        List<String> row = Arrays.asList("Employee: 101 : John Doe", "Total Work Duration: 128:37 Hrs",
+                "Total OT: 2:05 Hrs");
+        List<String> next = Arrays.asList("Present: 22", "Absent: 2", "WeeklyOff: 4", "Late By Hrs: 1:10",
+                "Late By Days: 3");
+
+        EmployeeSummary summary = SummaryRowScanner.scan(new SummaryText(row, next));
+
+        assertNotNull(summary);
+        assertEquals("101", summary.getEmployeeId());
+        assertEquals("John Doe", summary.getEmployeeName());
+        assertEquals(128.37, summary.getTotalWorkHours());
+        assertEquals(2.05, summary.getTotalOTHours());
+        assertEquals(22, summary.getPresentDays());
+        assertEquals(2, summary.getAbsentDays());
+        assertEquals(4, summary.getWeeklyOffDays());
+        assertEquals(1.10, summary.getLateHours());
+        assertEquals(3, summary.getLateDays());
+        assertSameAsPatterns(row, next);
+    }
+
+    @Test
+    void matchesThePatternsOnKnownRowShapes() {
+        List<List<String>> rows = Arrays.asList(
+                Collections.singletonList("Employee: 7:Asha Rao Total Work Duration: 160:00 Hrs"),
+                Arrays.asList("Employee:", "42", ":", "Ravi Kumar.", "Total Work Duration: 150:45 Hrs"),
+                Collections.singletonList("Employee: A12:Meena Total OT: 3:30 Hrs"),
+                Collections.singletonList("Employee: :"),
+                Collections.singletonList("Employee: 55 : "),
+                Collections.singletonList("Employee: 9 : Test User Total Work Duration: 1:00 Hrs"),
+                Collections.singletonList("Staff 12 : Kiran Total Work Duration: 12:5 Hrs Present: 1.5"));
+        List<String> next = Arrays.asList("Present: 20", "Absent: 1", "WeeklyOff: 4", "Late By Hrs: 0:45");
+
+        for (List<String> row : rows) {
+            assertSameAsPatterns(row, next);
+            assertSameAsPatterns(row, null);
+        }
+    }
+
+    @Test
+    void matchesThePatternsOnRandomRows() {
+        Random random = new Random(42);
+        int compared = 0;
+        for (int i = 0; i < RANDOM_ROWS; i++) {
+            List<String> row = randomRow(random, true);
+            List<String> next = random.nextInt(4) == 0 ? null : randomRow(random, false);
+            if (assertSameAsPatterns(row, next)) {
+                compared++;
+            }
+        }
+        assertTrue(compared > RANDOM_ROWS / 2, "Too few rows the patterns could extract: " + compared);
+    }
+
+    /**
+     * Check that the scanner extracts what the patterns do
+     * @return false if the row could not be compared because the patterns throw on it
+     */
+    private static boolean assertSameAsPatterns(List<String> row, List<String> next) {
+        EmployeeSummary expected;
+        try {
+            expected = LegacySummaryPatterns.extract(join(row), next != null ? join(next) : null);
+        } catch (RuntimeException e) {
+            // The manual split of the cascade failed on such rows; the collector skipped them
+            return false;
+        }
+        EmployeeSummary scanned = SummaryRowScanner.scan(new SummaryText(row, next));
+        if (expected == null) {
+            assertNull(scanned, "Scanner found an employee in " + row + " / " + next);
+        } else {
+            assertTrue(expected.sameAs(scanned),
+                    "Row " + row + " / " + next + ": scanner " + scanned + ", patterns " + expected);
+        }
+        return true;
+    }
+
+    private static List<String> randomRow(Random random, boolean employeeRow) {
+        List<String> cells = new ArrayList<>();
+        int cellCount = 1 + random.nextInt(5);
+        boolean labelled = !employeeRow;
+        for (int cell = 0; cell < cellCount; cell++) {
+            StringBuilder value = new StringBuilder();
+            if (!labelled && (cell == cellCount - 1 || random.nextBoolean())) {
+                value.append("Employee:");
+                labelled = true;
+            }
+            int fragments = 1 + random.nextInt(5);
+            for (int i = 0; i < fragments; i++) {
+                value.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            cells.add(value.toString());
+        }
+        return cells;
+    }
+
+    private static String join(List<String> cells) {
+        StringBuilder content = new StringBuilder();
+        for (String value : cells) {
+            content.append(value).append(" ");
+        }
+        return content.toString().trim();
+    }
+}